@@ -115,6 +115,14 @@ export default class Game {
         }
         break;
 
+      case schema.Event.Keyframe:
+        // Keyframes restate what the rounds before them built up; they're
+        // only there for readers that start in the middle.
+        if (!gameStarted || matchCount === 0 || lastMatchFinished) {
+          throw new Error("Can't apply keyframe without unfinished match");
+        }
+        break;
+
       case schema.Event.NONE:
       default:
         throw new Error('No event to apply?');
@@ -1,4 +1,4 @@
-import StructOfArrays from './soa'
+import StructOfArrays, { ValidSchema } from './soa'
 import Metadata from './metadata'
 import { flatbuffers, schema } from 'battlecode-schema'
 import { playbackConfig } from './game'
@@ -14,6 +14,22 @@ export type DeadBodiesSchema = {
     y: Int32Array,
 }
 
+/**
+ * The fields a move changes.
+ */
+export type MovedSchema = {
+    id: Int32Array,
+    x: Int32Array,
+    y: Int32Array,
+}
+
+/**
+ * The step of each direction code in Round.movedDirs, in the order of
+ * battlecode.common.Direction: north, then clockwise to northwest.
+ */
+const DIRECTION_DX = [0, 1, 1, 1, 0, -1, -1, -1]
+const DIRECTION_DY = [1, 1, 0, -1, -1, -1, 0, 1]
+
 export type BodiesSchema = {
     id: Int32Array,
     team: Int8Array,
@@ -131,6 +147,15 @@ export default class GameWorld {
         */
     indicatorStrings: object
 
+    /**
+     * The match's indicator string table, which rounds index into.
+     * Only grows until a round starts it over in a new array, and until
+     * then an index always holds the same string, so copies of the world
+     * share it and only keep their own length.
+     */
+    private indicatorStringTable: string[]
+    private indicatorStringCount: number
+
     /**
      * The current turn.
      */
@@ -267,6 +292,8 @@ export default class GameWorld {
         }, 'id')
 
         this.indicatorStrings = {}
+        this.indicatorStringTable = []
+        this.indicatorStringCount = 0
         this.bytecodesUsed = [0, 0]
         this.turn = 0
         this.minCorner = new Victor(0, 0)
@@ -356,6 +383,8 @@ export default class GameWorld {
         this.indicatorDots.copyFrom(source.indicatorDots)
         this.indicatorLines.copyFrom(source.indicatorLines)
         this.indicatorStrings = Object.assign({}, source.indicatorStrings)
+        this.indicatorStringTable = source.indicatorStringTable
+        this.indicatorStringCount = source.indicatorStringCount
         this.teamStats = new Map<number, TeamStats>()
         source.teamStats.forEach((value: TeamStats, key: number) => {
             this.teamStats.set(key, deepcopy(value))
@@ -367,6 +396,36 @@ export default class GameWorld {
         this.logsShift = source.logsShift
     }
 
+    /**
+     * Move bodies as a round says: to the locations in movedLocs, or one
+     * step each in the directions in movedDirs, in order.
+     * Also used by the visualizer for its interpolated copy of the bodies.
+     */
+    static applyMoves<S extends MovedSchema & ValidSchema>(bodies: StructOfArrays<S>, delta: schema.Round, vecTableSlot: schema.VecTable) {
+        const movedLocs = delta.movedLocs(vecTableSlot)
+        if (movedLocs) {
+            bodies.alterBulk(<any> {
+                id: delta.movedIDsArray(),
+                x: movedLocs.xsArray(),
+                y: movedLocs.ysArray(),
+            })
+        }
+
+        const movedDirs = delta.movedDirsArray()
+        if (movedDirs) {
+            const indices = bodies.lookupIndices(<Int32Array> delta.movedIDsArray())
+            const xs: Int32Array = bodies.arrays.x
+            const ys: Int32Array = bodies.arrays.y
+            for (let i = 0; i < movedDirs.length; i++) {
+                const index = indices[i]
+                if (index < bodies.length) {
+                    xs[index] += DIRECTION_DX[movedDirs[i]]
+                    ys[index] += DIRECTION_DY[movedDirs[i]]
+                }
+            }
+        }
+    }
+
     /**
      * Process a set of changes.
      */
@@ -390,27 +449,20 @@ export default class GameWorld {
             this.teamStats.set(teamID, statObj)
         }
 
-        // Location changes on bodies
-        const movedLocs = delta.movedLocs(this._vecTableSlot1)
-        if (movedLocs) {
-            this.bodies.alterBulk({
-                id: delta.movedIDsArray(),
-                x: movedLocs.xsArray(),
-                y: movedLocs.ysArray(),
-            })
+        // Spawned bodies, first, since they may move the round they spawn
+        const bodies = delta.spawnedBodies(this._bodiesSlot)
+        if (bodies) {
+            this.insertBodies(bodies)
         }
 
+        // Location changes on bodies
+        GameWorld.applyMoves(this.bodies, delta, this._vecTableSlot1)
+
         // Health decay on all existing bodies
         for (let i = 0; i < this.bodies.length; i++) {
             // this.bodies.arrays.hp[i] *= 1 - .0007
         }
 
-        // Spawned bodies
-        const bodies = delta.spawnedBodies(this._bodiesSlot)
-        if (bodies) {
-            this.insertBodies(bodies)
-        }
-
         // Remove abilities from previous round
         this.bodies.alterBulk(
             {
@@ -552,9 +604,23 @@ export default class GameWorld {
         this.insertIndicatorLines(delta)
 
         //indicator strings
-        for (var i = 0; i < delta.indicatorStringsLength(); i++) {
+        // New strings go at the end of the table; replaying a round from a
+        // copy writes the same strings to the same places. Starting over
+        // leaves the old table to the copies made before
+        if (delta.resetIndicatorStrings()) {
+            this.indicatorStringTable = []
+            this.indicatorStringCount = 0
+        }
+        for (let i = 0; i < delta.newIndicatorStringsLength(); i++) {
+            this.indicatorStringTable[this.indicatorStringCount++] = delta.newIndicatorStrings(i)
+        }
+        // Older replays send the strings themselves
+        const indexed = delta.indicatorStringIndicesLength() > 0
+        for (var i = 0; i < delta.indicatorStringIDsLength(); i++) {
             let bodyID = delta.indicatorStringIDs(i)
-            this.indicatorStrings[bodyID] = delta.indicatorStrings(i)
+            this.indicatorStrings[bodyID] = indexed
+                ? this.indicatorStringTable[delta.indicatorStringIndices(i) as number]
+                : delta.indicatorStrings(i)
         }
 
         // Increase the turn count
@@ -41,13 +41,6 @@ export default class NextStep {
       throw new Error(`Bad Round [lerp]: world.turn = ${world.turn}, round.roundID() = ${delta.roundID()}`);
     }
 
-    const movedLocs = delta.movedLocs(this._vecTableSlot);
-    if(delta!==null && movedLocs!==null){
-      this.bodies.alterBulk({
-        id: <Int32Array>delta.movedIDsArray(),
-        x: <Int32Array>movedLocs.xsArray(),
-        y: <Int32Array>movedLocs.ysArray()
-      });
-    }
+    GameWorld.applyMoves(this.bodies, delta, this._vecTableSlot);
   }
 }
@@ -40,6 +40,9 @@ public class GameConstants {
     /** The bytecode penalty that is imposed each time an exception is thrown. */
     public static final int EXCEPTION_BYTECODE_PENALTY = 500;
 
+    /** The bytecode cost of each command in a batched call such as moveAll, on top of the cost of the call. */
+    public static final int BATCHED_COMMAND_BYTECODE_COST = 2;
+
     /** The initial amount of uranium each team starts with. */
     public static final int INITIAL_URANIUM_AMOUNT = 10;
   
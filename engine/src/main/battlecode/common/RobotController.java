@@ -493,6 +493,29 @@ public strictfp interface RobotController {
      */
     void move(int id, Direction dir) throws GameActionException;
 
+    /**
+     * Moves several robots, one step each. The result is the same as calling
+     * move(ids[i], dirs[i]) for each i in order, except that a command that
+     * fails does not stop the rest of the batch.
+     *
+     * Each command costs GameConstants.BATCHED_COMMAND_BYTECODE_COST
+     * bytecodes on top of the cost of the call.
+     *
+     * Unlike a failed command, a null direction is not reported per command:
+     * the whole call throws a NullPointerException and no robot moves.
+     *
+     * @param ids the robots to move
+     * @param dirs the direction to move each robot in
+     * @return for each command, null if it succeeded, or the type of the
+     * GameActionException the equivalent call to move would have thrown
+     * @throws GameActionException if not called by a controller
+     *   or if ids and dirs have different lengths
+     * @throws NullPointerException if ids, dirs or any entry of dirs is null
+     *
+     * @battlecode.doc.costlymethod
+     */
+    GameActionExceptionType[] moveAll(int[] ids, Direction[] dirs) throws GameActionException;
+
     // ***********************************
     // ****** BUILDING/SPAWNING **********
     // ***********************************
@@ -555,6 +578,23 @@ public strictfp interface RobotController {
      */
     void explode(int id) throws GameActionException;
 
+    /**
+     * Explodes several robots. The result is the same as calling
+     * explode(ids[i]) for each i in order, except that a command that
+     * fails does not stop the rest of the batch.
+     *
+     * Each command costs GameConstants.BATCHED_COMMAND_BYTECODE_COST
+     * bytecodes on top of the cost of the call.
+     *
+     * @param ids the robots to explode
+     * @return for each command, null if it succeeded, or the type of the
+     * GameActionException the equivalent call to explode would have thrown
+     * @throws GameActionException if not called by a controller
+     *
+     * @battlecode.doc.costlymethod
+     */
+    GameActionExceptionType[] explodeAll(int[] ids) throws GameActionException;
+
     // ***********************
     // **** MINER METHODS **** 
     // ***********************
@@ -589,6 +629,23 @@ public strictfp interface RobotController {
      */
     void mine(int id) throws GameActionException;
 
+    /**
+     * Has several robots mine at their current locations. The result is the
+     * same as calling mine(ids[i]) for each i in order, except that a command
+     * that fails does not stop the rest of the batch.
+     *
+     * Each command costs GameConstants.BATCHED_COMMAND_BYTECODE_COST
+     * bytecodes on top of the cost of the call.
+     *
+     * @param ids the robots to mine with
+     * @return for each command, null if it succeeded, or the type of the
+     * GameActionException the equivalent call to mine would have thrown
+     * @throws GameActionException if not called by a controller
+     *
+     * @battlecode.doc.costlymethod
+     */
+    GameActionExceptionType[] mineAll(int[] ids) throws GameActionException;
+
     // ***********************************
     // ****** OTHER ACTION METHODS *******
     // ***********************************
@@ -0,0 +1,231 @@
+package battlecode.instrumenter;
+
+import battlecode.instrumenter.bytecode.MethodCostUtil;
+import battlecode.server.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of instrumented team classes on disk, so that a class doesn't
+ * have to be instrumented again by every process that runs the same team.
+ *
+ * Entries are addressed by a SHA-256 key over everything the instrumented
+ * bytes depend on: the class and its bytes, the other classes of the team,
+ * the instrumenter version, the cost and whitelist files, the JVM version
+ * and the debug and profiler flags. Changing any of these gives a new key,
+ * so stale entries are never read; they are simply left behind.
+ *
+ * Entries are written to a temporary file and renamed into place, so any
+ * number of processes can share a directory and never see a partial file.
+ * Each entry also starts with the hash of its contents, and an entry that
+ * doesn't match is ignored. Any I/O error is treated as a miss.
+ */
+final class InstrumentationCache {
+
+    /**
+     * Bump this whenever a change to the instrumenter changes its output.
+     */
+    static final int INSTRUMENTER_VERSION = 2;
+
+    private static final String[] RULE_FILES = {
+            "resources/MethodCosts.txt",
+            "resources/AllowedPackages.txt",
+            "resources/DisallowedClasses.txt"
+    };
+
+    private static final int HASH_LENGTH = 32;
+
+    /**
+     * The hash of everything that is the same for every class this JVM
+     * instruments: the version, the rule files and the JVM.
+     */
+    private static final byte[] environmentHash;
+
+    static {
+        MessageDigest digest = sha256();
+        update(digest, "instrumenter-" + INSTRUMENTER_VERSION);
+        update(digest, System.getProperty("java.version"));
+        for (String file : RULE_FILES) {
+            update(digest, file);
+            try (InputStream in = MethodCostUtil.class.getResourceAsStream(file)) {
+                if (in == null) {
+                    throw new RuntimeException("Can't find " + file);
+                }
+                update(digest, TeamClassLoaderFactory.readFully(in));
+            } catch (IOException e) {
+                throw new RuntimeException("Can't read " + file, e);
+            }
+        }
+        environmentHash = digest.digest();
+    }
+
+    private final Path directory;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param directory the directory to keep entries in; created if needed
+     */
+    InstrumentationCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cache in the directory set by bc.engine.instrument-cache,
+     *         or null if it is empty
+     */
+    static InstrumentationCache fromConfig() {
+        String dir = Config.getGlobalConfig().get("bc.engine.instrument-cache");
+        if (dir == null || dir.trim().isEmpty()) {
+            return null;
+        }
+        return new InstrumentationCache(Paths.get(dir.trim()));
+    }
+
+    /**
+     * @param className the binary name of the class
+     * @param classBytes the class file, before instrumentation
+     * @param teamHash the hash of every class file of the team, since
+     *                 instrumentation looks at the other classes
+     * @param debugMethodsEnabled whether debug methods are kept
+     * @param profilerEnabled whether profiler calls are added
+     * @return the key of the instrumented class
+     */
+    static String key(String className, byte[] classBytes, byte[] teamHash,
+                      boolean debugMethodsEnabled, boolean profilerEnabled) {
+        MessageDigest digest = sha256();
+        update(digest, environmentHash);
+        update(digest, teamHash);
+        update(digest, className);
+        update(digest, classBytes);
+        digest.update((byte) ((debugMethodsEnabled ? 1 : 0) | (profilerEnabled ? 2 : 0)));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @param key a key from key()
+     * @return the instrumented bytes stored under the key, or null if
+     *         there are none or they are damaged
+     */
+    byte[] get(String key) {
+        byte[] entry;
+        try {
+            entry = Files.readAllBytes(entryPath(key));
+        } catch (IOException e) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.length < HASH_LENGTH) {
+            misses.incrementAndGet();
+            return null;
+        }
+        byte[] classBytes = Arrays.copyOfRange(entry, HASH_LENGTH, entry.length);
+        MessageDigest digest = sha256();
+        digest.update(classBytes);
+        if (!MessageDigest.isEqual(digest.digest(), Arrays.copyOf(entry, HASH_LENGTH))) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return classBytes;
+    }
+
+    /**
+     * Store instrumented bytes under a key, replacing whatever was there.
+     * Does nothing if the entry can't be written.
+     *
+     * @param key a key from key()
+     * @param classBytes the instrumented class file
+     */
+    void put(String key, byte[] classBytes) {
+        MessageDigest digest = sha256();
+        digest.update(classBytes);
+        byte[] hash = digest.digest();
+
+        Path target = entryPath(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            Files.write(temp, ByteBuffer.allocate(hash.length + classBytes.length)
+                    .put(hash).put(classBytes).array());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+        } catch (IOException e) {
+            // Another process may still write it; we'll instrument again next time.
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    // Nothing more to do
+                }
+            }
+        }
+    }
+
+    /**
+     * @return how many lookups found an entry
+     */
+    long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return how many lookups found nothing usable
+     */
+    long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Entries are spread over subdirectories by the first two characters
+     * of the key, to keep directories small.
+     */
+    Path entryPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2) + ".class");
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is always available", e);
+        }
+    }
+
+    /**
+     * Add a length-prefixed byte array to a digest, so that consecutive
+     * fields can't run into each other.
+     */
+    static void update(MessageDigest digest, byte[] bytes) {
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    static void update(MessageDigest digest, String s) {
+        update(digest, s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16));
+            result.append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package battlecode.instrumenter;
+
+/**
+ * Hands off with wait() and notifyAll() on a shared monitor. Every handoff
+ * takes the monitor on both sides and puts the waiting thread to sleep in
+ * the OS.
+ */
+class MonitorHandoff implements ThreadHandoff {
+
+    /**
+     * The object used to trade of control between threads.
+     */
+    private final Object notifier = new Object();
+
+    @Override
+    public void startPlayer(Thread player) throws InterruptedException {
+        synchronized (notifier) {
+            // The player can't notify us until we wait, since we hold the monitor
+            player.start();
+
+            notifier.wait();
+        }
+    }
+
+    @Override
+    public void runPlayer() throws InterruptedException {
+        synchronized (notifier) {
+            // Unpause the player's thread
+            notifier.notifyAll();
+
+            // Pause this thread until the player pauses or finishes
+            notifier.wait();
+        }
+    }
+
+    @Override
+    public void pausePlayer() throws InterruptedException {
+        synchronized (notifier) {
+            // Unpause the engine thread, which is waiting on the player thread
+            notifier.notifyAll();
+
+            // Wait for the engine thread to restart us
+            notifier.wait();
+        }
+    }
+
+    @Override
+    public void playerFinished() {
+        synchronized (notifier) {
+            notifier.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package battlecode.instrumenter;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands off by flipping a volatile flag and unparking the other thread.
+ * The waiting thread spins on the flag for a short while before parking,
+ * so when the other side hands back quickly, neither thread sleeps.
+ *
+ * Spinning only helps when the two threads can run on different cores, so
+ * there is no spinning on a single-core machine.
+ */
+class ParkingHandoff implements ThreadHandoff {
+
+    /**
+     * How many times to check the flag before parking.
+     */
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1 << 10 : 0;
+
+    /**
+     * Whether the player is the thread that should be running.
+     */
+    private volatile boolean playerTurn;
+
+    private volatile Thread engine;
+    private volatile Thread player;
+
+    @Override
+    public void startPlayer(Thread player) throws InterruptedException {
+        this.engine = Thread.currentThread();
+        this.player = player;
+        this.playerTurn = true;
+        player.start();
+        awaitTurn(false);
+    }
+
+    @Override
+    public void runPlayer() throws InterruptedException {
+        // Robots may be stepped from another thread than they were created on
+        this.engine = Thread.currentThread();
+        this.playerTurn = true;
+        LockSupport.unpark(player);
+        awaitTurn(false);
+    }
+
+    @Override
+    public void pausePlayer() throws InterruptedException {
+        this.playerTurn = false;
+        LockSupport.unpark(engine);
+        awaitTurn(true);
+    }
+
+    @Override
+    public void playerFinished() {
+        this.playerTurn = false;
+        LockSupport.unpark(engine);
+    }
+
+    /**
+     * Block until it is the given side's turn.
+     */
+    private void awaitTurn(boolean playerTurn) throws InterruptedException {
+        for (int i = 0; i < SPINS; i++) {
+            if (this.playerTurn == playerTurn) {
+                return;
+            }
+        }
+        // park() can return early for no reason, so check again each time
+        while (this.playerTurn != playerTurn) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package battlecode.instrumenter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Typed access to the static methods of the RobotMonitor loaded by one
+ * player's class loader, which is a different class from the RobotMonitor
+ * the engine sees.
+ *
+ * Uses exactly-typed MethodHandles, so unlike Method.invoke, calls don't
+ * box their arguments or results, or allocate argument arrays.
+ */
+final class RobotMonitorBridge {
+    private static final MethodType VOID = MethodType.methodType(void.class);
+    private static final MethodType INT = MethodType.methodType(int.class);
+    private static final MethodType VOID_INT = MethodType.methodType(void.class, int.class);
+
+    private final MethodHandle killRobot;
+    private final MethodHandle setBytecodeLimit;
+    private final MethodHandle getBytecodeNum;
+    private final MethodHandle incrementBytecodesWithoutInterrupt;
+
+    /**
+     * @param monitor the RobotMonitor class loaded by a player's loader
+     * @throws ReflectiveOperationException if it doesn't have the methods
+     */
+    RobotMonitorBridge(Class<?> monitor) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.killRobot = lookup.findStatic(monitor, "killRobot", VOID);
+        this.setBytecodeLimit = lookup.findStatic(monitor, "setBytecodeLimit", VOID_INT);
+        this.getBytecodeNum = lookup.findStatic(monitor, "getBytecodeNum", INT);
+        this.incrementBytecodesWithoutInterrupt =
+                lookup.findStatic(monitor, "incrementBytecodesWithoutInterrupt", VOID_INT);
+    }
+
+    void killRobot() {
+        try {
+            killRobot.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    void setBytecodeLimit(int limit) {
+        try {
+            setBytecodeLimit.invokeExact(limit);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    int getBytecodeNum() {
+        try {
+            return (int) getBytecodeNum.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    void incrementBytecodesWithoutInterrupt(int numBytecodes) {
+        try {
+            incrementBytecodesWithoutInterrupt.invokeExact(numBytecodes);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * The monitor methods don't throw checked exceptions, but the compiler
+     * can't know that.
+     */
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        throw new RuntimeException("RobotMonitor threw a checked exception", t);
+    }
+}
@@ -3,6 +3,7 @@ package battlecode.instrumenter;
 import battlecode.common.RobotController;
 import battlecode.common.Team;
 import battlecode.instrumenter.profiler.Profiler;
+import battlecode.instrumenter.stream.OutputLimit;
 import battlecode.instrumenter.stream.RoboPrintStream;
 import battlecode.instrumenter.stream.SilencedPrintStream;
 import battlecode.server.ErrorReporter;
@@ -66,24 +67,14 @@ public class SandboxedRobotPlayer {
     private final Thread mainThread;
 
     /**
-     * The cached 'killRobot' method of the monitor.
+     * The methods of the monitor called every turn.
      */
-    private final Method killMethod;
+    private final RobotMonitorBridge monitorBridge;
 
     /**
-     * The cached 'setBytecodeLimit' method of the monitor.
+     * Used to trade off control between threads.
      */
-    private final Method setBytecodeLimitMethod;
-
-    /**
-     * The cached 'getBytecodeNum' method of the monitor.
-     */
-    private final Method getBytecodeNumMethod;
-
-    /**
-     * The object used to trade of control between threads.
-     */
-    private final Object notifier;
+    private final ThreadHandoff handoff;
 
     /**
      * Whether or not we are currently running, i.e. in "step".
@@ -104,6 +95,7 @@ public class SandboxedRobotPlayer {
      * @param seed              the seed the robot should use for random operations
      * @param loader            the classloader to load classes with
      * @param robotOut          the output to write robot output to (with headers)
+     * @param outputLimit       the limit on output to robotOut, shared by the team
      * @throws InstrumentationException if the player doesn't work for some reason
      * @throws RuntimeException if our code fails for some reason
      * @throws GameActionException if the player tries to do something not permitted by the game
@@ -113,12 +105,13 @@ public class SandboxedRobotPlayer {
                                 int seed,
                                 TeamClassLoaderFactory.Loader loader,
                                 OutputStream robotOut,
+                                OutputLimit outputLimit,
                                 Profiler profiler)
             throws InstrumentationException, GameActionException {
         this.robotController = robotController;
         this.seed = seed;
         this.terminated = false;
-        this.notifier = new Object();
+        this.handoff = ThreadHandoff.create(Config.getGlobalConfig().get("bc.engine.thread-handoff"));
 
         // Create classloader sandbox
         individualLoader = loader;
@@ -133,9 +126,7 @@ public class SandboxedRobotPlayer {
             Class<?> monitor = individualLoader
                     .loadClass("battlecode.instrumenter.inject.RobotMonitor");
 
-            killMethod = monitor.getMethod("killRobot");
-            setBytecodeLimitMethod = monitor.getMethod("setBytecodeLimit", int.class);
-            getBytecodeNumMethod = monitor.getMethod("getBytecodeNum");
+            monitorBridge = new RobotMonitorBridge(monitor);
             pauseMethod = monitor.getMethod("pause");
             initMethod = monitor.getMethod("init", Pauser.class, Killer.class, int.class, Profiler.class);
 
@@ -144,7 +135,7 @@ public class SandboxedRobotPlayer {
             Class<?> system = individualLoader
                     .loadClass("battlecode.instrumenter.inject.System");
 
-            this.systemOut = getOut(robotOut);
+            this.systemOut = getOut(robotOut, outputLimit);
             system.getMethod("setSystemOut", PrintStream.class).invoke(null, this.systemOut);
 
         } catch (ReflectiveOperationException e) {
@@ -154,13 +145,8 @@ public class SandboxedRobotPlayer {
         // Used to pause the RobotPlayer main thread.
         final Pauser pauser = () -> {
             try {
-                synchronized (notifier) {
-                    // Unpause the main thread, which is waiting on the player thread
-                    notifier.notifyAll();
-
-                    // Wait for the main thread to restart us
-                    notifier.wait();
-                }
+                // Unpause the main thread, and wait for it to restart us
+                handoff.pausePlayer();
             } catch (InterruptedException e) {
                 ErrorReporter.report("RobotPlayer thread interrupted while paused");
                 throw new RobotDeathException();
@@ -214,21 +200,15 @@ public class SandboxedRobotPlayer {
                 }
 
                 // Unpause the main thread, which is waiting on the player thread.
-                synchronized (notifier) {
-                    notifier.notifyAll();
-                }
+                handoff.playerFinished();
             }
         }, teamName + "." + PLAYER_CLASS_NAME);
 
 
         // Wait for thread to tell us it's ready
         try {
-            synchronized (notifier) {
-                // Doesn't do anything besides initialize the sandbox, since thread pauses immediately
-                mainThread.start();
-
-                notifier.wait();
-            }
+            // Doesn't do anything besides initialize the sandbox, since thread pauses immediately
+            handoff.startPlayer(mainThread);
         } catch (InterruptedException e) {
             throw new RuntimeException("Unexpected interruption initializing sandbox", e);
         }
@@ -275,11 +255,7 @@ public class SandboxedRobotPlayer {
      * @param limit the new limit
      */
     public void setBytecodeLimit(int limit) {
-        try {
-            setBytecodeLimitMethod.invoke(null, limit);
-        } catch (ReflectiveOperationException e) {
-            ErrorReporter.report(e, true);
-        }
+        monitorBridge.setBytecodeLimit(limit);
     }
 
     /**
@@ -296,19 +272,15 @@ public class SandboxedRobotPlayer {
         updateOut();
 
         try {
-            synchronized (notifier) {
-                // We are now running the robot!
-                running = true;
-
-                // Unpause the robot's thread
-                notifier.notifyAll();
+            // We are now running the robot!
+            running = true;
 
-                // Pause this thread until the robot ends turn or dies
-                notifier.wait();
+            // Unpause the robot's thread, and pause this thread until the
+            // robot ends turn or dies
+            handoff.runPlayer();
 
-                // Main thread reactivated: no longer running.
-                running = false;
-            }
+            // Main thread reactivated: no longer running.
+            running = false;
         } catch (InterruptedException e) {
             throw new RuntimeException("Unexpected interruption", e);
         }
@@ -336,20 +308,12 @@ public class SandboxedRobotPlayer {
             // execute zero-cost actions after "dying", like (maybe?) returning
             // from run(), which could issue nonsensical warnings. However, it's
             // the best solution I can think of.
-            try {
-                killMethod.invoke(null);
-            } catch (ReflectiveOperationException e) {
-                ErrorReporter.report(e, true);
-            }
+            monitorBridge.killRobot();
         } else {
             // We're not running.
             // Set the "shouldDie" flag and then step to finish the job.
 
-            try {
-                killMethod.invoke(null);
-            } catch (ReflectiveOperationException e) {
-                ErrorReporter.report(e, true);
-            }
+            monitorBridge.killRobot();
 
             // Step to make the robot die.
             step();
@@ -360,12 +324,18 @@ public class SandboxedRobotPlayer {
      * @return the bytecodes used by the player during the most recent step() call.
      */
     public int getBytecodesUsed() {
-        try {
-            return (Integer) getBytecodeNumMethod.invoke(null);
-        } catch (ReflectiveOperationException e) {
-            ErrorReporter.report(e, true);
-            return 0;
-        }
+        return monitorBridge.getBytecodeNum();
+    }
+
+    /**
+     * Charge the player for work the engine does for it during its turn.
+     * The bytecodes are taken the next time the player's bytecodes are
+     * counted, so it may be paused right after the current call returns.
+     *
+     * @param numBytecodes the number of bytecodes to charge
+     */
+    public void chargeBytecodes(int numBytecodes) {
+        monitorBridge.incrementBytecodesWithoutInterrupt(numBytecodes);
     }
 
     /**
@@ -395,7 +365,7 @@ public class SandboxedRobotPlayer {
         void kill();
     }
 
-    public PrintStream getOut(OutputStream wrapped) throws GameActionException {
+    public PrintStream getOut(OutputStream wrapped, OutputLimit outputLimit) throws GameActionException {
         Config options = Config.getGlobalConfig();
 
         if (robotController.getTeam() == Team.A
@@ -408,7 +378,7 @@ public class SandboxedRobotPlayer {
             try {
                 return new RoboPrintStream(wrapped, options.getBoolean(
                         "bc.server.robot-player-to-system-out"
-                ), options.getInt("bc.server.robot-player-replay-file-per-team-limit-bytes"));
+                ), outputLimit);
             } catch (UnsupportedEncodingException e) {
                 throw new RuntimeException("UTF-8 isn't supported on this system??", e);
             }
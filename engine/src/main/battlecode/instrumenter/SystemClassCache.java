@@ -0,0 +1,165 @@
+package battlecode.instrumenter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The instrumented bytes of system classes (the ones players see in the
+ * instrumented/ namespace), shared by every team in the JVM.
+ *
+ * These don't depend on the team, so they are instrumented once, without
+ * looking at any team's classes, and reused by every later team and match.
+ * Each player still defines its own copy of the class from the bytes.
+ */
+public final class SystemClassCache {
+
+    private static final class Entry {
+        final byte[] classBytes;
+
+        /**
+         * How long the class took to instrument, in nanoseconds.
+         */
+        final long nanos;
+
+        Entry(byte[] classBytes, long nanos) {
+            this.classBytes = classBytes;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Counts how much use someone got out of the cache.
+     */
+    public static final class Stats {
+        private final AtomicLong classesInstrumented = new AtomicLong();
+        private final AtomicLong classesReused = new AtomicLong();
+        private final AtomicLong nanosSpent = new AtomicLong();
+        private final AtomicLong nanosSaved = new AtomicLong();
+
+        void instrumented(long nanos) {
+            classesInstrumented.incrementAndGet();
+            nanosSpent.addAndGet(nanos);
+        }
+
+        void reused(long nanos) {
+            classesReused.incrementAndGet();
+            nanosSaved.addAndGet(nanos);
+        }
+
+        /**
+         * @return how many classes weren't in the cache and were instrumented
+         */
+        public long getClassesInstrumented() {
+            return classesInstrumented.get();
+        }
+
+        /**
+         * @return how many classes were taken from the cache
+         */
+        public long getClassesReused() {
+            return classesReused.get();
+        }
+
+        /**
+         * @return nanoseconds spent instrumenting classes
+         */
+        public long getNanosSpent() {
+            return nanosSpent.get();
+        }
+
+        /**
+         * @return nanoseconds it originally took to instrument the reused
+         *         classes, i.e. the time the cache saved
+         */
+        public long getNanosSaved() {
+            return nanosSaved.get();
+        }
+
+        public void reset() {
+            classesInstrumented.set(0);
+            classesReused.set(0);
+            nanosSpent.set(0);
+            nanosSaved.set(0);
+        }
+    }
+
+    /**
+     * Loaders with no team, used only to instrument system classes,
+     * without and with the profiler.
+     */
+    private static final TeamClassLoaderFactory.Loader[] loaders;
+
+    /**
+     * Instrumented classes by name, without and with the profiler.
+     */
+    private static final ConcurrentMap<String, Entry>[] entries;
+
+    private static final Stats totalStats = new Stats();
+
+    static {
+        TeamClassLoaderFactory system = TeamClassLoaderFactory.withoutTeam();
+        loaders = new TeamClassLoaderFactory.Loader[] {
+                system.createLoader(false),
+                system.createLoader(true)
+        };
+
+        @SuppressWarnings("unchecked")
+        ConcurrentMap<String, Entry>[] maps = (ConcurrentMap<String, Entry>[]) new ConcurrentMap<?, ?>[] {
+                new ConcurrentHashMap<String, Entry>(),
+                new ConcurrentHashMap<String, Entry>()
+        };
+        entries = maps;
+    }
+
+    private SystemClassCache() {}
+
+    /**
+     * Get the instrumented bytes of a system class, instrumenting it if no
+     * one has before.
+     *
+     * @param className the name of the class, starting with instrumented.
+     * @param profilerEnabled whether profiler calls should be added
+     * @param stats where to count the lookup, as well as the total
+     * @return the instrumented class
+     * @throws InstrumentationException if the class can't be instrumented
+     */
+    static byte[] get(String className, boolean profilerEnabled, Stats stats) throws InstrumentationException {
+        int which = profilerEnabled ? 1 : 0;
+
+        Entry entry = entries[which].get(className);
+        if (entry == null) {
+            long start = System.nanoTime();
+            byte[] classBytes = loaders[which].instrument(
+                    TeamClassLoaderFactory.normalReader(className), false, false);
+            Entry created = new Entry(classBytes, System.nanoTime() - start);
+
+            // If another thread got there first, use its bytes so that
+            // everyone shares the same copy.
+            entry = entries[which].putIfAbsent(className, created);
+            if (entry == null) {
+                stats.instrumented(created.nanos);
+                totalStats.instrumented(created.nanos);
+                return created.classBytes;
+            }
+        }
+
+        stats.reused(entry.nanos);
+        totalStats.reused(entry.nanos);
+        return entry.classBytes;
+    }
+
+    /**
+     * @return the use of the cache since the JVM started
+     */
+    public static Stats getTotalStats() {
+        return totalStats;
+    }
+
+    /**
+     * @return the number of classes cached
+     */
+    public static int size() {
+        return entries[0].size() + entries[1].size();
+    }
+}
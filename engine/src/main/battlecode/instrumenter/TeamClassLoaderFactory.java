@@ -7,15 +7,27 @@ import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 import static battlecode.instrumenter.InstrumentationException.Type.ILLEGAL;
 import static battlecode.instrumenter.InstrumentationException.Type.MISSING;
@@ -100,8 +112,39 @@ public final class TeamClassLoaderFactory {
      * The values are byte arrays, not Classes, because each instance of
      * InstrumentingClassLoader should define its own class, even if another
      * InstrumentingClassLoader has already loaded a class from the same class file.
+     * Concurrent, because instrumentAll fills it from several threads.
      */
-    private final Map<String, byte[]> instrumentedClasses;
+    private final ConcurrentMap<String, byte[]> instrumentedClasses;
+
+    /**
+     * Instrumented team classes kept on disk between runs, or null if
+     * there is no such cache.
+     */
+    private final InstrumentationCache diskCache;
+
+    /**
+     * The container the team's classes are loaded from.
+     */
+    private final URL teamURL;
+
+    /**
+     * The hash of every class file in the team's container, computed the
+     * first time the disk cache is used.
+     */
+    private byte[] teamHash;
+
+    /**
+     * Whether each class name that has been asked about is a team class.
+     * Instrumentation asks about every class reference, and looking in the
+     * team's container each time is slow.
+     */
+    private final ConcurrentMap<String, Boolean> teamClasses = new ConcurrentHashMap<>();
+
+    /**
+     * How much this team has used the shared cache of instrumented
+     * system classes.
+     */
+    private final SystemClassCache.Stats systemClassStats = new SystemClassCache.Stats();
 
     /**
      * If this team has an error, don't bother trying to cache again.
@@ -123,6 +166,15 @@ public final class TeamClassLoaderFactory {
      * @param classURL the URL to load clases from
      */
     public TeamClassLoaderFactory(final String classURL) {
+        this(classURL, InstrumentationCache.fromConfig());
+    }
+
+    /**
+     * @param classURL the URL to load clases from
+     * @param diskCache where to keep instrumented classes between runs,
+     *                  or null to keep them in memory only
+     */
+    TeamClassLoaderFactory(final String classURL, final InstrumentationCache diskCache) {
         URL url;
         try {
             url = getFilesystemURL(classURL);
@@ -130,6 +182,8 @@ public final class TeamClassLoaderFactory {
             this.teamResourceLookup = null;
             this.hasError = true;
             this.instrumentedClasses = null;
+            this.diskCache = null;
+            this.teamURL = null;
             this.refUtil = null;
             return;
         }
@@ -147,11 +201,36 @@ public final class TeamClassLoaderFactory {
                 return findResource(name);
             }
         };
-        this.instrumentedClasses = new HashMap<>();
+        this.instrumentedClasses = new ConcurrentHashMap<>();
+        this.diskCache = diskCache;
+        this.teamURL = url;
         this.hasError = false;
         this.refUtil = new ClassReferenceUtil(this);
     }
 
+    /**
+     * Create a factory with no team classes, whose loaders see only the
+     * system classpath. Used to instrument system classes the same way
+     * for everyone.
+     */
+    private TeamClassLoaderFactory() {
+        this.teamResourceLookup = new URLClassLoader(new URL[0]) {
+            @Override
+            public URL getResource(String name) {
+                return findResource(name);
+            }
+        };
+        this.instrumentedClasses = new ConcurrentHashMap<>();
+        this.diskCache = null;
+        this.teamURL = null;
+        this.hasError = false;
+        this.refUtil = new ClassReferenceUtil(this);
+    }
+
+    static TeamClassLoaderFactory withoutTeam() {
+        return new TeamClassLoaderFactory();
+    }
+
     /**
      * Create a loader for a new robot.
      * @return
@@ -185,6 +264,14 @@ public final class TeamClassLoaderFactory {
         this.instrumentedClasses.put(className, classBytes);
     }
 
+    /**
+     * @return how much this team has used the shared cache of instrumented
+     *         system classes
+     */
+    public SystemClassCache.Stats getSystemClassStats() {
+        return this.systemClassStats;
+    }
+
     /**
      * @return whether the team is known to have errors
      */
@@ -197,7 +284,12 @@ public final class TeamClassLoaderFactory {
      * @return whether or not the team has the class
      */
     public boolean hasTeamClass(String className) {
-        return getTeamURL(toResourceName(className)) != null;
+        Boolean result = teamClasses.get(className);
+        if (result == null) {
+            result = getTeamURL(toResourceName(className)) != null;
+            teamClasses.putIfAbsent(className, result);
+        }
+        return result;
     }
 
     /**
@@ -257,6 +349,147 @@ public final class TeamClassLoaderFactory {
         throw new InstrumentationException(MISSING, "Can't load class "+className+" from player classpath");
     }
 
+    /**
+     * Read the class file of a team class.
+     *
+     * @param className the class to read
+     * @return the bytes of the class file
+     * @throws InstrumentationException if the class cannot be read
+     */
+    public byte[] teamClassBytes(String className) throws InstrumentationException {
+        URL resURL = getTeamURL(toResourceName(className));
+        if (resURL != null) {
+            try (InputStream in = resURL.openStream()) {
+                return readFully(in);
+            } catch (IOException e) {
+                throw new InstrumentationException(MISSING, "Can't load class "+className+" from player classpath", e);
+            }
+        }
+        throw new InstrumentationException(MISSING, "Can't load class "+className+" from player classpath");
+    }
+
+    /**
+     * Read every class file in the team's container.
+     *
+     * @return the bytes of each class file, by resource name
+     *         (e.g. "somepackage/RobotPlayer.class"), in order of name
+     * @throws InstrumentationException if the container can't be read
+     */
+    SortedMap<String, byte[]> readTeamClasses() throws InstrumentationException {
+        SortedMap<String, byte[]> classes = new TreeMap<>();
+        try {
+            Path container = Paths.get(teamURL.toURI());
+            if (Files.isDirectory(container)) {
+                try (Stream<Path> files = Files.walk(container)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        String name = container.relativize(file).toString().replace(File.separatorChar, '/');
+                        if (name.endsWith(".class") && Files.isRegularFile(file)) {
+                            classes.put(name, Files.readAllBytes(file));
+                        }
+                    }
+                }
+            } else {
+                try (JarFile jar = new JarFile(container.toFile())) {
+                    for (JarEntry entry : Collections.list(jar.entries())) {
+                        if (entry.getName().endsWith(".class") && !entry.isDirectory()) {
+                            try (InputStream in = jar.getInputStream(entry)) {
+                                classes.put(entry.getName(), readFully(in));
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new InstrumentationException(MISSING, "Can't read player classes from "+teamURL, e);
+        }
+        return classes;
+    }
+
+    /**
+     * Hash the name and bytes of every class file in the team's container,
+     * in order of name. The instrumented form of a team class depends on
+     * which other classes the team has and what they extend, so this is
+     * part of the key of every disk cache entry.
+     *
+     * @return the hash of the team's classes
+     */
+    synchronized byte[] getTeamHash() throws InstrumentationException {
+        if (teamHash != null) {
+            return teamHash;
+        }
+
+        MessageDigest digest = InstrumentationCache.sha256();
+        for (Map.Entry<String, byte[]> entry : readTeamClasses().entrySet()) {
+            InstrumentationCache.update(digest, entry.getKey());
+            InstrumentationCache.update(digest, entry.getValue());
+        }
+        teamHash = digest.digest();
+        return teamHash;
+    }
+
+    /**
+     * Instrument every class in the team's container ahead of time, in
+     * parallel, so that loading them later is just a cache lookup instead
+     * of a stall on the robot's thread.
+     *
+     * Classes that fail to instrument are skipped rather than marking the
+     * team as broken: they are instrumented again if a robot ever loads
+     * them, and the error is reported then, as it would be without this.
+     *
+     * @param profilerEnabled whether the loaders will have the profiler on
+     * @param pool the pool to instrument in
+     * @return the number of classes instrumented
+     */
+    public int instrumentAll(boolean profilerEnabled, ForkJoinPool pool) {
+        if (hasError) {
+            return 0;
+        }
+
+        final SortedMap<String, byte[]> classes;
+        try {
+            classes = readTeamClasses();
+        } catch (InstrumentationException e) {
+            return 0;
+        }
+
+        final Loader loader = createLoader(profilerEnabled);
+        final boolean debugMethodsEnabled = Config.getGlobalConfig().getBoolean("bc.engine.debug-methods");
+        final AtomicInteger instrumented = new AtomicInteger();
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            String resource = entry.getKey();
+            String name = resource.substring(0, resource.length() - ".class".length()).replace('/', '.');
+            byte[] original = entry.getValue();
+            tasks.add(ForkJoinTask.adapt(() -> {
+                if (hasCached(name)) {
+                    return;
+                }
+                try {
+                    assertAllowedPackage(name);
+                    byte[] classBytes = loader.instrumentTeamClass(name, original, debugMethodsEnabled);
+                    if (instrumentedClasses.putIfAbsent(name, classBytes) == null) {
+                        instrumented.incrementAndGet();
+                    }
+                } catch (InstrumentationException e) {
+                    // Left for loadClass to report if the class is used
+                }
+            }));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        return instrumented.get();
+    }
+
+    static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
     /**
      * @param maybeFactory a factory to look in, or null to only look at the system.
      * @param className the class to read.
@@ -451,9 +684,9 @@ public final class TeamClassLoaderFactory {
 
                 final byte[] classBytes;
                 try {
-                    classBytes = instrument(
-                            TeamClassLoaderFactory.this.teamReader(name),
-                            true,
+                    classBytes = instrumentTeamClass(
+                            name,
+                            TeamClassLoaderFactory.this.teamClassBytes(name),
                             Config.getGlobalConfig().getBoolean("bc.engine.debug-methods")
                     );
                 } catch (InstrumentationException e) {
@@ -468,11 +701,11 @@ public final class TeamClassLoaderFactory {
                 // If permgen space becomes a problem, we could make it so
                 // that only one copy of these classes is loaded, but
                 // we would need to modify ObjectHashCode.
+                // The bytes are the same for every team, so they're shared.
                 byte[] classBytes;
                 try {
-                    classBytes = instrument(
-                            TeamClassLoaderFactory.normalReader(name),
-                            false, false);
+                    classBytes = SystemClassCache.get(name, profilerEnabled,
+                            TeamClassLoaderFactory.this.systemClassStats);
                 } catch (InstrumentationException ie) {
                     TeamClassLoaderFactory.this.hasError = true;
                     throw ie;
@@ -518,6 +751,28 @@ public final class TeamClassLoaderFactory {
 
         }
 
+        /**
+         * Instrument a team class, or take it from the disk cache if it
+         * has been instrumented the same way before.
+         */
+        private byte[] instrumentTeamClass(String name,
+                                           byte[] original,
+                                           boolean debugMethodsEnabled) throws InstrumentationException {
+            TeamClassLoaderFactory factory = TeamClassLoaderFactory.this;
+            if (factory.diskCache == null) {
+                return instrument(new ClassReader(original), true, debugMethodsEnabled);
+            }
+
+            String key = InstrumentationCache.key(name, original, factory.getTeamHash(),
+                    debugMethodsEnabled, profilerEnabled);
+            byte[] classBytes = factory.diskCache.get(key);
+            if (classBytes == null) {
+                classBytes = instrument(new ClassReader(original), true, debugMethodsEnabled);
+                factory.diskCache.put(key, classBytes);
+            }
+            return classBytes;
+        }
+
         public byte[] instrument(ClassReader reader,
                                  boolean checkDisallowed,
                                  boolean debugMethodsEnabled) throws InstrumentationException {
@@ -0,0 +1,56 @@
+package battlecode.instrumenter;
+
+import java.util.Locale;
+
+/**
+ * Passes control back and forth between the engine thread and a robot
+ * player's thread, so that only one of them runs at a time.
+ *
+ * The player thread owns control from when it is started until it first
+ * pauses. Set with bc.engine.thread-handoff: "monitor" or "park".
+ */
+public interface ThreadHandoff {
+
+    /**
+     * Called on the engine thread: start the player thread and block until
+     * it first pauses or finishes.
+     *
+     * @param player the player thread, not yet started
+     */
+    void startPlayer(Thread player) throws InterruptedException;
+
+    /**
+     * Called on the engine thread: let the player run, and block until it
+     * pauses or finishes.
+     */
+    void runPlayer() throws InterruptedException;
+
+    /**
+     * Called on the player thread: let the engine run, and block until the
+     * engine runs the player again.
+     */
+    void pausePlayer() throws InterruptedException;
+
+    /**
+     * Called on the player thread when it is about to exit: let the engine
+     * run without waiting to be run again.
+     */
+    void playerFinished();
+
+    /**
+     * @param name "monitor" or "park", in any case
+     * @return a new handoff of that kind
+     * @throws IllegalArgumentException if there is no such kind
+     */
+    static ThreadHandoff create(String name) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "monitor":
+                return new MonitorHandoff();
+            case "park":
+                return new ParkingHandoff();
+            default:
+                throw new IllegalArgumentException("Unknown thread handoff \"" + name
+                        + "\"; expected monitor or park");
+        }
+    }
+}
@@ -9,8 +9,13 @@ import org.objectweb.asm.signature.SignatureWriter;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static battlecode.instrumenter.InstrumentationException.Type.ILLEGAL;
 import static battlecode.instrumenter.InstrumentationException.Type.MISSING;
@@ -44,6 +49,30 @@ public class ClassReferenceUtil {
      */
     private final static Set<String> disallowedClasses;
 
+    /**
+     * System classes that are replaced by our own versions in battlecode/instrumenter/inject.
+     */
+    private final static Map<String, String> injectedClasses;
+
+    /**
+     * What a reference to a class that isn't a team class resolves to.
+     */
+    private static final class SystemReference {
+        final String className;
+        final boolean disallowed;
+
+        SystemReference(String className, boolean disallowed) {
+            this.className = className;
+            this.disallowed = disallowed;
+        }
+    }
+
+    /**
+     * The resolution of every non-team class referenced so far. Doesn't depend on the team, so it's shared by
+     * every ClassReferenceUtil; the entries themselves are immutable.
+     */
+    private final static ConcurrentMap<String, SystemReference> systemReferences = new ConcurrentHashMap<>();
+
     // We can't instrument these classes because they have native methods.  Java won't allow us
     // to create an instrumented class that has the same prefix as a builtin class, so we have to
     // change the name.  But when we rename the class, it can't use the old class's native methods any more.
@@ -93,6 +122,15 @@ public class ClassReferenceUtil {
         } catch (Exception e) {
             fileLoadError(DISALLOWED_RESOURCE_FILE);
         }
+
+        Map<String, String> injected = new HashMap<>();
+        injected.put("java/lang/System", "battlecode/instrumenter/inject/System");
+        injected.put("java/util/concurrent/ConcurrentHashMap", "battlecode/instrumenter/inject/ConcurrentHashMap");
+        injected.put("java/util/concurrent/atomic/AtomicInteger", "battlecode/instrumenter/inject/AtomicInteger");
+        injected.put("java/util/concurrent/atomic/AtomicLong", "battlecode/instrumenter/inject/AtomicLong");
+        injected.put("java/util/concurrent/atomic/AtomicReference", "battlecode/instrumenter/inject/AtomicReference");
+        injected.put("sun/misc/Unsafe", "battlecode/instrumenter/inject/Unsafe");
+        injectedClasses = Collections.unmodifiableMap(injected);
     }
 
     protected static boolean isInAllowedPackage(String className) {
@@ -101,7 +139,7 @@ public class ClassReferenceUtil {
         return allowedPackages.contains(className.substring(0, dotIndex));
     }
 
-    private boolean shouldAddInstrumentedPrefix(String className) {
+    private static boolean shouldAddInstrumentedPrefix(String className) {
         if (className.startsWith("battlecode/")) {
             return className.equals("battlecode/instrumenter/inject/InstrumentableFunctions");
         }
@@ -158,34 +196,36 @@ public class ClassReferenceUtil {
             }
         } else if (factory.hasTeamClass(className))
             return className;
-        else if (className.equals("java/lang/System"))
-            return "battlecode/instrumenter/inject/System";
-        else if (className.equals("java/util/concurrent/ConcurrentHashMap"))
-            return "battlecode/instrumenter/inject/ConcurrentHashMap";
-        else if (className.equals("java/util/concurrent/atomic/AtomicInteger"))
-            return "battlecode/instrumenter/inject/AtomicInteger";
-        else if (className.equals("java/util/concurrent/atomic/AtomicLong"))
-            return "battlecode/instrumenter/inject/AtomicLong";
-        else if (className.equals("java/util/concurrent/atomic/AtomicReference"))
-            return "battlecode/instrumenter/inject/AtomicReference";
-        else if (className.equals("sun/misc/Unsafe"))
-            return "battlecode/instrumenter/inject/Unsafe";
-
-        if (checkDisallowed) {
-            if (disallowedClasses.contains(className) || !isInAllowedPackage(className)) {
-                throw new InstrumentationException(ILLEGAL, "Illegal class: " + className + "\n    this class cannot be referenced by player code.");
-            }
-        }
-        if (className.equals("java/security/SecureRandom")) {
-            return "instrumented/java/util/Random";
+
+        SystemReference reference = systemReferences.get(className);
+        if (reference == null) {
+            reference = systemReferences.computeIfAbsent(className, ClassReferenceUtil::resolveSystemReference);
         }
 
-        if (shouldAddInstrumentedPrefix(className)) {
-            return "instrumented/" + className;
+        if (checkDisallowed && reference.disallowed) {
+            throw new InstrumentationException(ILLEGAL, "Illegal class: " + className + "\n    this class cannot be referenced by player code.");
         }
+        return reference.className;
+    }
 
-        else
-            return className;
+    /**
+     * Work out what a reference to a class that isn't a team class should be replaced with, and whether player
+     * code may make it.
+     */
+    private static SystemReference resolveSystemReference(String className) {
+        String injected = injectedClasses.get(className);
+        if (injected != null)
+            return new SystemReference(injected, false);
+
+        boolean disallowed = disallowedClasses.contains(className) || !isInAllowedPackage(className);
+
+        if (className.equals("java/security/SecureRandom"))
+            return new SystemReference("instrumented/java/util/Random", disallowed);
+
+        if (shouldAddInstrumentedPrefix(className))
+            return new SystemReference("instrumented/" + className, disallowed);
+
+        return new SystemReference(className, disallowed);
     }
 
     /**
@@ -19,7 +19,7 @@ import static org.objectweb.asm.tree.AbstractInsnNode.*;
 /**
  * The class where the bulk of instrumentation happens.
  * Takes in the bytecode for a method and modifies it to do a few things:
- *  - Call RobotMonitor.incrementBytecodes() at the end of every basic block
+ *  - Call RobotMonitor.incrementBytecodes() (or incrementBytecodesFast()) at the end of every basic block
  *  - Overrides class references with our injected / instrumented class references
  *  - Modifies some particularly finnicky method calls so that they behave correctly
  *    (e.g. Object.hashCode(), Math.random(), Throwable.printStackTrace())
@@ -681,8 +681,10 @@ public class InstrumentingMethodVisitor extends MethodNode implements Opcodes {
     private void endOfBasicBlock(AbstractInsnNode n) {
         if (bytecodeCtr == 0)
             return;
+        // Without the profiler or debug methods, the monitor can use its fast path
+        String increment = profilerEnabled || debugMethodsEnabled ? "incrementBytecodes" : "incrementBytecodesFast";
         instructions.insertBefore(n, new LdcInsnNode(bytecodeCtr));
-        instructions.insertBefore(n, new MethodInsnNode(INVOKESTATIC, "battlecode/instrumenter/inject/RobotMonitor", "incrementBytecodes", "(I)V", false));
+        instructions.insertBefore(n, new MethodInsnNode(INVOKESTATIC, "battlecode/instrumenter/inject/RobotMonitor", increment, "(I)V", false));
         bytecodeCtr = 0;
     }
 
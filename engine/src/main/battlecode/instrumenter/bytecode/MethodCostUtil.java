@@ -6,9 +6,12 @@ import org.objectweb.asm.ClassReader;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.objectweb.asm.ClassReader.SKIP_DEBUG;
 
@@ -30,14 +33,17 @@ public class MethodCostUtil {
     private final static String RESOURCE_FILE = "resources/MethodCosts.txt";
 
     /**
-     * This is a map from method names (in the format 'ClassName/methodName'), to the MethodData associated with each method.
+     * A two-level map from binary class names, to method names, to the MethodData associated with each method,
+     * as listed in the resource file. Never modified after it is loaded.
      */
-    private final static Map<String, MethodData> methodCosts;
+    private final static Map<String, Map<String, MethodData>> methodCosts;
 
     /**
-     * This is a map from binary class names, to all the classes/interfaces that the class transitively implements/extends.
+     * A map from binary class names, to the MethodData of every method that can be looked up on the class,
+     * including the ones it gets from the classes/interfaces that it transitively implements/extends.
+     * Filled in as classes are looked up; the tables themselves are never modified.
      */
-    private final static Map<String, String[]> interfacesMap;
+    private final static ConcurrentMap<String, Map<String, MethodData>> resolvedCosts;
 
     /**
      * A struct that stores data about a method -- what its lookup bytecode cost is, and whether it should end the basic block or not.
@@ -56,7 +62,7 @@ public class MethodCostUtil {
         BufferedReader reader;
         String line;
 
-        methodCosts = new HashMap<>();
+        Map<String, Map<String, MethodData>> costs = new HashMap<>();
         // load method costs
         try {
             reader = new BufferedReader(new InputStreamReader(
@@ -66,13 +72,19 @@ public class MethodCostUtil {
                 StringTokenizer st = new StringTokenizer(line);
                 if (st.countTokens() != 3)
                     ClassReferenceUtil.fileLoadError(RESOURCE_FILE);
-                methodCosts.put(st.nextToken(), new MethodData(Integer.parseInt(st.nextToken()), Boolean.parseBoolean(st.nextToken())));
+                String method = st.nextToken();
+                int slash = method.lastIndexOf('/');
+                costs.computeIfAbsent(method.substring(0, slash), k -> new HashMap<>())
+                        .put(method.substring(slash + 1),
+                                new MethodData(Integer.parseInt(st.nextToken()), Boolean.parseBoolean(st.nextToken())));
             }
         } catch (IOException e) {
             ClassReferenceUtil.fileLoadError(RESOURCE_FILE);
         }
+        costs.replaceAll((className, methods) -> Collections.unmodifiableMap(methods));
+        methodCosts = Collections.unmodifiableMap(costs);
 
-        interfacesMap = new HashMap<>();
+        resolvedCosts = new ConcurrentHashMap<>();
     }
 
     /**
@@ -84,30 +96,39 @@ public class MethodCostUtil {
     public static MethodData getMethodData(String className, String methodName) {
         if (className.charAt(0) == '[')
             return null;
-        String key = className + "/" + methodName;
-
-        if (methodCosts.containsKey(key))
-            return methodCosts.get(key);
-
-        String[] interfaces;
-        if (interfacesMap.containsKey(className))
-            interfaces = interfacesMap.get(className);
-        else {
-            ClassReader cr = TeamClassLoaderFactory.normalReader(className);
-            InterfaceReader ir = new InterfaceReader(null);
-            cr.accept(ir, SKIP_DEBUG);
-            interfaces = ir.getInterfaces();
-            interfacesMap.put(className, interfaces);
-        }
 
-        for (String anInterface : interfaces) {
-            key = anInterface + "/" + methodName;
-            if (methodCosts.containsKey(key))
-                return methodCosts.get(key);
+        Map<String, MethodData> methods = resolvedCosts.get(className);
+        if (methods == null) {
+            methods = resolvedCosts.computeIfAbsent(className, MethodCostUtil::resolveCosts);
         }
-
-        return null;
+        return methods.get(methodName);
     }
 
+    /**
+     * Collect the MethodData of every method that can be looked up on a class: its own, and then those of each
+     * class/interface it transitively implements/extends, where the class doesn't have its own.
+     *
+     * @param className the binary name of the class
+     * @return the table of the class's methods
+     */
+    private static Map<String, MethodData> resolveCosts(String className) {
+        Map<String, MethodData> own = methodCosts.getOrDefault(className, Collections.emptyMap());
+
+        ClassReader cr = TeamClassLoaderFactory.normalReader(className);
+        InterfaceReader ir = new InterfaceReader(null);
+        cr.accept(ir, SKIP_DEBUG);
+
+        Map<String, MethodData> result = null;
+        for (String anInterface : ir.getInterfaces()) {
+            Map<String, MethodData> inherited = methodCosts.get(anInterface);
+            if (inherited == null)
+                continue;
+            if (result == null)
+                result = new HashMap<>(own);
+            for (Map.Entry<String, MethodData> entry : inherited.entrySet())
+                result.putIfAbsent(entry.getKey(), entry.getValue());
+        }
 
+        return result == null ? own : Collections.unmodifiableMap(result);
+    }
 }
@@ -1,84 +1,84 @@
 package battlecode.instrumenter.inject;
 
-import org.hibernate.search.util.WeakIdentityHashMap;
-
 import java.lang.reflect.Method;
-import java.util.HashMap;
 
 @SuppressWarnings("unused")
 public class ObjectMethods {
 
-    static final Method objectHashCode;
-    static final Method enumHashCode;
-    static final Method characterHashCode;
+    static int lastHashCode = -1;
 
-    static final Method objectToString;
+    static WeakIdentityIntMap codes = new WeakIdentityIntMap();
 
-    static {
-        Method tmpo = null, tmpe = null, tmpc = null, tmps = null;
-        try {
-            tmpo = Object.class.getMethod("hashCode");
-            tmpe = Enum.class.getMethod("hashCode");
-            tmpc = Character.class.getMethod("hashCode");
-            tmps = Object.class.getMethod("toString");
-        } catch (Exception e) {
-            throw new RuntimeException("Can't load needed functions", e);
+    // reflection is slow so cache the results
+    static ClassValue<Boolean> usesOHC = new UsesObjectHashCode();
+    static ClassValue<Boolean> usesOTS = new UsesObjectToString();
+
+    // and remember the last answer, since player code tends to hash many
+    // objects of the same class in a row
+    static Class<?> lastOHCClass;
+    static boolean lastOHC;
+
+    /**
+     * Whether a class uses the hashCode of Object, Enum or Character,
+     * which would differ between runs.
+     *
+     * This and UsesObjectToString are loaded once for everyone rather
+     * than with each robot's ObjectMethods, so they have to be public and
+     * can't use ObjectMethods' fields.
+     */
+    public static final class UsesObjectHashCode extends ClassValue<Boolean> {
+        @Override
+        protected Boolean computeValue(Class<?> cl) {
+            Class<?> declarer = publicMethod(cl, "hashCode").getDeclaringClass();
+            return declarer == Object.class || declarer == Enum.class || declarer == Character.class;
         }
-
-        objectHashCode = tmpo;
-        enumHashCode = tmpe;
-        characterHashCode = tmpc;
-        objectToString = tmps;
     }
 
-    static int lastHashCode = -1;
-
-    static WeakIdentityHashMap<Object, Integer> codes = new WeakIdentityHashMap<>();
+    /**
+     * Whether a class uses the toString of Object.
+     */
+    public static final class UsesObjectToString extends ClassValue<Boolean> {
+        @Override
+        protected Boolean computeValue(Class<?> cl) {
+            return publicMethod(cl, "toString").getDeclaringClass() == Object.class;
+        }
+    }
 
-    // reflection is slow so cache the results
-    static HashMap<Class, Boolean> usesOHC = new HashMap<>();
-    static HashMap<Class, Boolean> usesOTS = new HashMap<>();
+    private static Method publicMethod(Class<?> cl, String name) {
+        try {
+            return cl.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            // Every class has the methods of Object
+            throw new RuntimeException("Can't find " + name + " on " + cl, e);
+        }
+    }
 
-    static public int hashCode(Object o) throws NoSuchMethodException {
+    static public int hashCode(Object o) {
         if (usesObjectHashCode(o.getClass()))
             return identityHashCode(o);
         else
             return o.hashCode();
     }
 
-    static public String toString(Object o) throws NoSuchMethodException {
-        if (usesObjectToString(o.getClass()))
+    static public String toString(Object o) {
+        if (usesOTS.get(o.getClass()))
             return identityToString(o);
         else
             return o.toString();
     }
 
-    static private boolean usesObjectHashCode(Class<?> cl) throws NoSuchMethodException {
-        Boolean b = usesOHC.get(cl);
-        if (b == null) {
-            Method hashCodeMethod = cl.getMethod("hashCode");
-            b = hashCodeMethod.equals(enumHashCode) ||
-                    hashCodeMethod.equals(objectHashCode) ||
-                    hashCodeMethod.equals(characterHashCode);
-            usesOHC.put(cl, b);
-        }
-        return b;
-    }
-
-    static private boolean usesObjectToString(Class<?> cl) throws NoSuchMethodException {
-        Boolean b = usesOTS.get(cl);
-        if (b == null) {
-            Method toStringMethod = cl.getMethod("toString");
-            b = toStringMethod.equals(objectToString);
-            usesOTS.put(cl, b);
+    static private boolean usesObjectHashCode(Class<?> cl) {
+        if (cl != lastOHCClass) {
+            lastOHC = usesOHC.get(cl);
+            lastOHCClass = cl;
         }
-        return b;
+        return lastOHC;
     }
 
     static public int identityHashCode(Object o) {
-        Integer code = codes.get(o);
-        if (code == null) {
-            codes.put(o, ++lastHashCode);
+        int code = codes.get(o, -1);
+        if (code == -1) {
+            codes.putNew(o, ++lastHashCode);
             return lastHashCode;
         } else
             return code;
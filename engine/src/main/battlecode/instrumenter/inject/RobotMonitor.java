@@ -29,6 +29,13 @@ public final class RobotMonitor {
     private static boolean shouldDie;
     private static int debugLevel;
 
+    /**
+     * True if incrementBytecodesFast can't take its shortcut: the robot
+     * should die, is in a debug method, is being profiled, or has
+     * bytecodes waiting to be removed.
+     */
+    private static boolean slowPath;
+
     private static SandboxedRobotPlayer.Pauser pauser;
     private static SandboxedRobotPlayer.Killer killer;
 
@@ -61,6 +68,7 @@ public final class RobotMonitor {
         killer = theKiller;
 
         profiler = theProfiler;
+        updateSlowPath();
     }
 
     /**
@@ -92,6 +100,7 @@ public final class RobotMonitor {
     @SuppressWarnings("unused")
     public static void killRobot() {
         shouldDie = true;
+        slowPath = true;
     }
 
     /**
@@ -150,6 +159,31 @@ public final class RobotMonitor {
         }
 	
 	    bytecodesToRemove = 0;
+        updateSlowPath();
+    }
+
+    /**
+     * Does the same as incrementBytecodes, but starts with a single test
+     * of whether the robot still has bytecodes left and nothing special is
+     * going on, in which case all it has to do is take them away. Otherwise
+     * it hands over to incrementBytecodes. It is kept small enough that the
+     * JIT always inlines it.
+     *
+     * The instrumenter calls this instead of incrementBytecodes when
+     * neither the profiler nor debug methods are enabled. It is still
+     * correct in a debug method or with the profiler, just not faster.
+     *
+     * THIS METHOD IS CALLED BY THE INSTRUMENTER.
+     *
+     * @param numBytecodes the number of bytecodes the robot just executed
+     */
+    @SuppressWarnings("unused")
+    public static void incrementBytecodesFast(int numBytecodes) {
+        if (bytecodesLeft > numBytecodes && !slowPath) {
+            bytecodesLeft -= numBytecodes;
+        } else {
+            incrementBytecodes(numBytecodes);
+        }
     }
 
     /**
@@ -172,6 +206,7 @@ public final class RobotMonitor {
             } catch (ArithmeticException e) {
                 bytecodesToRemove = Integer.MAX_VALUE;
             }
+            slowPath = true;
         }
     }
 
@@ -222,6 +257,7 @@ public final class RobotMonitor {
     @SuppressWarnings("unused")
     public static void incrementDebugLevel() {
         debugLevel++;
+        slowPath = true;
     }
 
     /**
@@ -236,6 +272,11 @@ public final class RobotMonitor {
             ErrorReporter.report("Debug level below zero, this should be impossible!", true);
             killRobot();
         }
+        updateSlowPath();
+    }
+
+    private static void updateSlowPath() {
+        slowPath = shouldDie || debugLevel != 0 || profiler != null || bytecodesToRemove != 0;
     }
 
 
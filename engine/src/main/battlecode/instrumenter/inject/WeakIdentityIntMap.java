@@ -0,0 +1,122 @@
+package battlecode.instrumenter.inject;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * A map from objects, compared by identity, to ints, that doesn't keep its
+ * keys alive. Used by ObjectMethods to remember the hash code it gave each
+ * object; the values are stored unboxed.
+ *
+ * Not thread-safe. Public because each robot's copy of ObjectMethods uses
+ * it from a different class loader.
+ */
+public final class WeakIdentityIntMap {
+
+    private static final class Entry extends WeakReference<Object> {
+        final int hash;
+        final int value;
+        Entry next;
+
+        Entry(Object key, int hash, int value, Entry next, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    private Entry[] table = new Entry[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * @param key the object to look up
+     * @param missing what to return if the object has no value
+     * @return the value of the object, or missing if there is none
+     */
+    public int get(Object key, int missing) {
+        int hash = hash(key);
+        for (Entry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash && e.get() == key)
+                return e.value;
+        }
+        return missing;
+    }
+
+    /**
+     * Give an object a value. The object must not already have one.
+     *
+     * @param key the object
+     * @param value its value
+     */
+    public void putNew(Object key, int value) {
+        expungeStaleEntries();
+        if (size >= table.length - (table.length >>> 2))
+            resize();
+
+        int hash = hash(key);
+        int index = hash & (table.length - 1);
+        table[index] = new Entry(key, hash, value, table[index], queue);
+        size++;
+    }
+
+    /**
+     * @return the number of entries, including ones whose keys have been
+     *         collected but not yet removed
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove the entries whose keys have been collected.
+     */
+    private void expungeStaleEntries() {
+        Object stale;
+        while ((stale = queue.poll()) != null) {
+            Entry entry = (Entry) stale;
+            int index = entry.hash & (table.length - 1);
+            Entry prev = null;
+            for (Entry e = table[index]; e != null; prev = e, e = e.next) {
+                if (e == entry) {
+                    if (prev == null)
+                        table[index] = e.next;
+                    else
+                        prev.next = e.next;
+                    size--;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void resize() {
+        Entry[] old = table;
+        Entry[] resized = new Entry[old.length * 2];
+        for (Entry head : old) {
+            Entry e = head;
+            while (e != null) {
+                Entry next = e.next;
+                int index = e.hash & (resized.length - 1);
+                e.next = resized[index];
+                resized[index] = e;
+                e = next;
+            }
+        }
+        table = resized;
+    }
+
+    /**
+     * Spread the identity hash, since the low bits of identity hashes
+     * aren't very well distributed.
+     */
+    private static int hash(Object key) {
+        int h = java.lang.System.identityHashCode(key);
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,8 +1,5 @@
 package battlecode.instrumenter.stream;
 
-import battlecode.common.GameConstants;
-import battlecode.common.Team;
-
 import java.io.PrintStream;
 import java.io.OutputStream;
 import java.io.IOException;
@@ -10,7 +7,7 @@ import java.io.UnsupportedEncodingException;
 
 /**
  * LimitedPrintStream is a subclass of PrintStream that limits the total amount of output that a team
- * may produce. Any excess output exceeding these limits are ignored.
+ * may produce in a match. Any excess output exceeding these limits are ignored.
  *
  * @author j-mao
  */
@@ -18,21 +15,14 @@ import java.io.UnsupportedEncodingException;
 public class LimitedPrintStream extends PrintStream {
 
     private static final String TRUNCATION_MESSAGE = "[output truncated due to team output limit]\n";
-    private static int[] limit = {-1, -1, -1}; // -1 means no limit
-    private static boolean[] reportedTruncation = {false, false, false};
 
-    private Team team;
+    private final OutputLimit limit;
     private boolean byteCounting;
 
-    public LimitedPrintStream(OutputStream out, boolean autoFlush, String encoding, int maxOutputBytes) throws UnsupportedEncodingException {
+    public LimitedPrintStream(OutputStream out, boolean autoFlush, String encoding, OutputLimit limit) throws UnsupportedEncodingException {
         super(out, autoFlush, encoding);
         byteCounting = true;
-        if (limit[0] == -1) // means it is not set yet
-            limit[0] = maxOutputBytes;
-        if (limit[1] == -1) // means it is not set yet
-            limit[1] = maxOutputBytes;
-        if (limit[2] == -1) // means it is not set yet
-            limit[2] = maxOutputBytes;
+        this.limit = limit;
     }
 
     @Override
@@ -79,33 +69,18 @@ public class LimitedPrintStream extends PrintStream {
     }
 
     public void increaseByteLimit(int x) {
-        if (limit[getArrayIndex()] > 0)
-            limit[getArrayIndex()] += x;
-    }
-
-    public void setTeam(Team team) {
-        this.team = team;
+        if (limit.remainingBytes > 0)
+            limit.remainingBytes += x;
     }
 
     public void setByteCountingStatus(boolean byteCounting) {
         this.byteCounting = byteCounting;
     }
 
-    private int getArrayIndex() {
-        switch (this.team) {
-            case A:
-                return 0;
-            case B:
-                return 1;
-            default:
-                return 2;
-        }
-    }
-
     private int getRemainingByteLimit() {
-        int result = limit[getArrayIndex()];
+        int result = limit.remainingBytes;
         // -1 is infinity
-        if (limit[getArrayIndex()] == -1) {
+        if (limit.remainingBytes == -1) {
             result = Integer.MAX_VALUE;
         }
         // Even if we're not counting bytes, allow no headers to escape if completely exhausted
@@ -120,16 +95,15 @@ public class LimitedPrintStream extends PrintStream {
             return;
         }
         // -1 is infinity
-        if (limit[getArrayIndex()] == -1) {
+        if (limit.remainingBytes == -1) {
             return;
         }
-        limit[getArrayIndex()] = java.lang.Math.max(limit[getArrayIndex()]-bytes,0);
+        limit.remainingBytes = java.lang.Math.max(limit.remainingBytes-bytes,0);
     }
 
     private void reportTruncation() {
-        int index = getArrayIndex();
-        if (!reportedTruncation[index]) {
-            reportedTruncation[index] = true;
+        if (!limit.reportedTruncation) {
+            limit.reportedTruncation = true;
             try {
                 out.write(TRUNCATION_MESSAGE.getBytes(), 0, TRUNCATION_MESSAGE.length());
             } catch (IOException e) {
@@ -0,0 +1,29 @@
+package battlecode.instrumenter.stream;
+
+/**
+ * The amount of output a team may still write to the match file.
+ * One OutputLimit is shared by the LimitedPrintStreams of all of a team's
+ * robots in a match, so that matches running side by side don't share
+ * their budgets.
+ */
+public class OutputLimit {
+
+    /**
+     * The number of bytes left; -1 means no limit.
+     */
+    int remainingBytes;
+
+    /**
+     * Whether the team has already been told that its output was truncated.
+     */
+    boolean reportedTruncation;
+
+    /**
+     * @param maxOutputBytes the number of bytes the team may write,
+     *                       or -1 for no limit
+     */
+    public OutputLimit(int maxOutputBytes) {
+        this.remainingBytes = maxOutputBytes;
+        this.reportedTruncation = false;
+    }
+}
@@ -26,10 +26,9 @@ public class RoboPrintStream extends PrintStream {
 
     private boolean writeToSystemOut;
 
-    // if maxOutputBytes is -1, then it is treated as no limit
-    public RoboPrintStream(OutputStream robotOut, boolean writeToSystemOut, int maxOutputBytes) throws UnsupportedEncodingException {
+    public RoboPrintStream(OutputStream robotOut, boolean writeToSystemOut, OutputLimit limit) throws UnsupportedEncodingException {
         super(SilencedPrintStream.theInstance());
-        this.real = new LimitedPrintStream(robotOut, true, "UTF-8", maxOutputBytes);
+        this.real = new LimitedPrintStream(robotOut, true, "UTF-8", limit);
         this.headerThisRound = false;
         this.writeToSystemOut = writeToSystemOut;
     }
@@ -240,7 +239,6 @@ public class RoboPrintStream extends PrintStream {
         this.id = id;
         this.round = round;
         this.headerThisRound = false;
-        this.real.setTeam(team);
     }
 
     private String getHeader() {
@@ -42,6 +42,17 @@ public class Config {
         // This does not affect output to stdout
         defaults.setProperty("bc.server.robot-player-replay-file-per-team-limit-bytes","-1");
 
+        // The number of games the server runs at the same time
+        defaults.setProperty("bc.server.match-workers", "1");
+
+        // How much of each game to record: none, summary (just the results,
+        // as text) or full (a replay file)
+        defaults.setProperty("bc.server.record", "full");
+
+        // How many rounds apart to write the whole state of the world to
+        // replays, so they can be read from the middle; 0 for never
+        defaults.setProperty("bc.server.keyframe-interval", "0");
+
         defaults.setProperty("bc.server.save-file", "match.rms");
         defaults.setProperty("bc.server.transcribe-input", "match.rms");
         defaults.setProperty("bc.server.transcribe-output", "transcribed.txt");
@@ -61,6 +72,18 @@ public class Config {
         defaults.setProperty("bc.engine.enable-profiler", "false");
         defaults.setProperty("bc.engine.show-indicators", "true");
 
+        // How the engine and robot player threads hand off control:
+        // "park" (LockSupport, spinning briefly first) or "monitor" (wait/notify)
+        defaults.setProperty("bc.engine.thread-handoff", "park");
+
+        // Directory to keep instrumented player classes in between runs,
+        // shared safely by concurrent processes; empty to disable
+        defaults.setProperty("bc.engine.instrument-cache", "");
+
+        // Whether to instrument all of a team's classes in parallel before
+        // its first match, instead of as robots first load them
+        defaults.setProperty("bc.engine.eager-instrumentation", "false");
+
         defaults.setProperty("bc.game.team-a", "team000");
         defaults.setProperty("bc.game.team-b", "team000");
         defaults.setProperty("bc.game.maps", "glass");
@@ -1,5 +1,6 @@
 package battlecode.server;
 
+import battlecode.common.Direction;
 import battlecode.common.GameConstants;
 import battlecode.common.MapLocation;
 import battlecode.common.RobotType;
@@ -16,23 +17,24 @@ import gnu.trove.list.array.TByteArrayList;
 import gnu.trove.list.array.TFloatArrayList;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.list.array.TCharArrayList;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import java.util.List;
 import java.util.ArrayList;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.function.ToIntFunction;
-import java.util.zip.GZIPOutputStream;
 
 import static battlecode.util.FlatHelpers.*;
 
 /**
  * Writes a game to a flatbuffer, hooray.
  */
-public strictfp class GameMaker {
+public strictfp class GameMaker implements Closeable {
 
     /**
      * The protocol expects a series of valid state transitions;
@@ -58,24 +60,29 @@ public strictfp class GameMaker {
     }
     private State state;
 
-    // this un-separation-of-concerns makes me uncomfortable
+    /**
+     * We build each event once in this builder, as a standalone buffer,
+     * then hand the same bytes to the replay and to the client, and reuse
+     * the builder for the next one.
+     * Null unless the record mode is FULL.
+     */
+    private FlatBufferBuilder eventBuilder;
 
     /**
-     * We write the whole match to this builder, then write it to a file.
+     * Where the events of the file go as they're made.
+     * Null unless the record mode is FULL.
      */
-    private final FlatBufferBuilder fileBuilder;
+    private final ReplayWriter replay;
 
     /**
-     * Null until the end of the match.
+     * Null until the game is converted to bytes.
      */
     private byte[] finishedGame;
 
     /**
-     * We have a separate byte[] for each packet sent to the client.
-     * This is necessary because flatbuffers shares metadata between structures, so we
-     * can't just cut out chunks of the larger buffer :/
+     * The file the game was written to, once the replay is closed.
      */
-    private FlatBufferBuilder packetBuilder;
+    private File savedGame;
 
     /**
      * The server we're sending packets on.
@@ -92,12 +99,27 @@ public strictfp class GameMaker {
      * Only relevant to the file builder:
      * We add a table called a GameWrapper to the front of the saved files
      * that lets you quickly navigate to events by index, and tells you the
-     * indices of headers and footers.
+     * indices of headers and footers. The ReplayWriter keeps the events.
      */
-    private TIntArrayList events;
     private TIntArrayList matchHeaders;
     private TIntArrayList matchFooters;
 
+    /**
+     * The indices of the keyframes in the file, and the round of each.
+     */
+    private TIntArrayList keyframes;
+    private TIntArrayList keyframeRounds;
+
+    /**
+     * How many rounds apart keyframes are written, or 0 for none.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * The uncompressed length of the keyframes written so far.
+     */
+    private long keyframeLength;
+
     /**
      * The MatchMaker associated with this GameMaker.
      */
@@ -108,26 +130,69 @@ public strictfp class GameMaker {
      */
     private final boolean showIndicators;
 
+    /**
+     * How much of the game to record.
+     */
+    private final RecordMode recordMode;
+
+    /**
+     * The result of each match so far, one line each.
+     * Only used in SUMMARY mode.
+     */
+    private final StringBuilder summary;
+
     /**
      * @param gameInfo the mapping of teams to bytes
      * @param packetSink the NetServer to send packets to
      * @param showIndicators whether to write indicator dots and lines to replay
      */
     public GameMaker(final GameInfo gameInfo, final NetServer packetSink, final boolean showIndicators) {
+        this(gameInfo, packetSink, showIndicators, RecordMode.FULL);
+    }
+
+    /**
+     * @param gameInfo the mapping of teams to bytes
+     * @param packetSink the NetServer to send packets to; only used in FULL mode
+     * @param showIndicators whether to write indicator dots and lines to replay
+     * @param recordMode how much of the game to record
+     */
+    public GameMaker(final GameInfo gameInfo, final NetServer packetSink, final boolean showIndicators,
+                     final RecordMode recordMode) {
+        this(gameInfo, packetSink, showIndicators, recordMode, 0);
+    }
+
+    /**
+     * @param gameInfo the mapping of teams to bytes
+     * @param packetSink the NetServer to send packets to; only used in FULL mode
+     * @param showIndicators whether to write indicator dots and lines to replay
+     * @param recordMode how much of the game to record
+     * @param keyframeInterval how many rounds apart to write keyframes to
+     *                         the replay, or 0 for none
+     */
+    public GameMaker(final GameInfo gameInfo, final NetServer packetSink, final boolean showIndicators,
+                     final RecordMode recordMode, final int keyframeInterval) {
         this.state = State.GAME_HEADER;
 
         this.gameInfo = gameInfo;
-
-        this.packetSink = packetSink;
-        if (packetSink != null) {
-            this.packetBuilder = new FlatBufferBuilder();
+        this.recordMode = recordMode;
+
+        if (recordMode == RecordMode.FULL) {
+            this.packetSink = packetSink;
+            this.eventBuilder = new FlatBufferBuilder();
+            this.replay = new ReplayWriter();
+        } else {
+            this.packetSink = null;
+            this.eventBuilder = null;
+            this.replay = null;
         }
 
-        this.fileBuilder = new FlatBufferBuilder();
+        this.summary = new StringBuilder();
 
-        this.events = new TIntArrayList();
         this.matchHeaders = new TIntArrayList();
         this.matchFooters = new TIntArrayList();
+        this.keyframes = new TIntArrayList();
+        this.keyframeRounds = new TIntArrayList();
+        this.keyframeInterval = Math.max(0, keyframeInterval);
 
         this.matchMaker = new MatchMaker();
 
@@ -155,35 +220,37 @@ public strictfp class GameMaker {
     }
 
 
+    /**
+     * @return whether every event of the game is being recorded
+     */
+    private boolean isRecordingEvents() {
+        return recordMode == RecordMode.FULL;
+    }
+
     /**
      * Convert entire game to a byte array.
+     * This holds the whole compressed game in memory; writeGame doesn't.
      *
      * @return game as a packed flatbuffer byte array.
      */
     public byte[] toBytes() {
+        if (!isRecordingEvents()) {
+            throw new RuntimeException("No replay is recorded in record mode " + recordMode);
+        }
+        if (finishedGame == null && savedGame != null) {
+            try {
+                finishedGame = FileUtils.readFileToByteArray(savedGame);
+            } catch (IOException e) {
+                throw new RuntimeException("Can't read back " + savedGame, e);
+            }
+        }
         if (finishedGame == null) {
             assertState(State.DONE);
 
-            int events = GameWrapper.createEventsVector(fileBuilder, this.events.toArray());
-            int matchHeaders = GameWrapper.createMatchHeadersVector(fileBuilder, this.matchHeaders.toArray());
-            int matchFooters = GameWrapper.createMatchFootersVector(fileBuilder, this.matchFooters.toArray());
-
-            GameWrapper.startGameWrapper(fileBuilder);
-            GameWrapper.addEvents(fileBuilder, events);
-            GameWrapper.addMatchHeaders(fileBuilder, matchHeaders);
-            GameWrapper.addMatchFooters(fileBuilder, matchFooters);
-
-            fileBuilder.finish(GameWrapper.endGameWrapper(fileBuilder));
-
-            byte[] rawBytes = fileBuilder.sizedByteArray();
-
             try {
                 ByteArrayOutputStream result = new ByteArrayOutputStream();
-                GZIPOutputStream zipper = new GZIPOutputStream(result);
-                IOUtils.copy(new ByteArrayInputStream(rawBytes), zipper);
-                zipper.close();
-                zipper.flush();
-                result.flush();
+                replay.writeTo(result, matchHeaders.toArray(), matchFooters.toArray(),
+                        keyframes.toArray(), keyframeRounds.toArray());
                 finishedGame = result.toByteArray();
             } catch (IOException e) {
                 throw new RuntimeException("Gzipping failed?", e);
@@ -193,7 +260,8 @@ public strictfp class GameMaker {
     }
 
     /**
-     * Write a match out to a file.
+     * Write a match out to a file. The events are copied from the
+     * replay's spool, so the game is never in memory at once.
      *
      * @param saveFile the file to save to
      */
@@ -201,33 +269,129 @@ public strictfp class GameMaker {
         if (saveFile == null) {
             throw new RuntimeException("Null file provided to writeGame");
         }
+        if (!isRecordingEvents()) {
+            throw new RuntimeException("No replay is recorded in record mode " + recordMode);
+        }
 
+        if (finishedGame != null || savedGame != null) {
+            try {
+                FileUtils.writeByteArrayToFile(saveFile, toBytes());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+
+        // Stream the replay straight from the spool into the file
+        assertState(State.DONE);
         try {
-            FileUtils.writeByteArrayToFile(saveFile, toBytes());
+            try (OutputStream out = new BufferedOutputStream(FileUtils.openOutputStream(saveFile))) {
+                replay.writeTo(out, matchHeaders.toArray(), matchFooters.toArray(),
+                        keyframes.toArray(), keyframeRounds.toArray());
+            }
+            if (savedGame == null) {
+                savedGame = saveFile;
+                replay.close();
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Run the same logic for both builders.
+     * Delete the replay's spool, whether or not the game finished. Once
+     * the game has been written, toBytes reads it back from that file;
+     * otherwise the replay is gone.
+     */
+    @Override
+    public void close() {
+        if (replay == null) {
+            return;
+        }
+        try {
+            replay.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Can't delete replay spool", e);
+        }
+    }
+
+    /**
+     * @return the result of each match and of the game, one per line;
+     *         only recorded in SUMMARY mode
+     */
+    public String getSummary() {
+        if (recordMode != RecordMode.SUMMARY) {
+            throw new RuntimeException("No summary is recorded in record mode " + recordMode);
+        }
+        assertState(State.DONE);
+        return summary.toString();
+    }
+
+    /**
+     * Write the summary of the game out to a text file.
      *
-     * @param perBuilder called with each builder; return event id. Should not mutate state.
+     * @param summaryFile the file to save to
      */
-    private void createEvent(ToIntFunction<FlatBufferBuilder> perBuilder) {
-        // make file event and add its offset to the list
-        int eventAP = perBuilder.applyAsInt(fileBuilder);
-        events.add(eventAP);
+    public void writeSummary(File summaryFile) {
+        if (summaryFile == null) {
+            throw new RuntimeException("Null file provided to writeSummary");
+        }
+        try {
+            FileUtils.writeStringToFile(summaryFile, getSummary(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-        if (packetSink != null) {
-            // make packet event and package it up
-            int eventBP = perBuilder.applyAsInt(packetBuilder);
-            packetBuilder.finish(eventBP);
-            packetSink.addEvent(packetBuilder.sizedByteArray());
+    /**
+     * The uncompressed length of the keyframes, as a fraction of the rest
+     * of the replay: what seeking costs in replay size.
+     *
+     * @return 0 if no keyframes were written
+     */
+    public double getKeyframeOverhead() {
+        if (keyframeLength == 0) {
+            return 0;
+        }
+        return (double) keyframeLength / (replay.getLength() - keyframeLength);
+    }
+
+    /**
+     * Build an event and send it to the replay and the client.
+     *
+     * @param perBuilder called once with the event builder; return event id.
+     */
+    private void createEvent(ToIntFunction<FlatBufferBuilder> perBuilder) {
+        createEvent(perBuilder, true);
+    }
 
-            // reset packet builder
-            packetBuilder = new FlatBufferBuilder(packetBuilder.dataBuffer());
+    /**
+     * Build an event and send it to the replay, and maybe the client.
+     *
+     * @param perBuilder called once with the event builder; return event id.
+     * @param toClient whether to send it to the client too
+     * @return the length of the event
+     */
+    private int createEvent(ToIntFunction<FlatBufferBuilder> perBuilder, boolean toClient) {
+        eventBuilder.finish(perBuilder.applyAsInt(eventBuilder));
+        ByteBuffer event = eventBuilder.dataBuffer();
+        int length = event.remaining();
+
+        if (packetSink != null && toClient) {
+            // the sink keeps the packet, so it gets its own copy
+            byte[] packet = eventBuilder.sizedByteArray();
+            packetSink.addEvent(packet);
+            event = ByteBuffer.wrap(packet);
+        }
+        try {
+            replay.addEvent(event);
+        } catch (IOException e) {
+            throw new RuntimeException("Can't write replay", e);
         }
+
+        // reset event builder
+        eventBuilder = new FlatBufferBuilder(eventBuilder.dataBuffer());
+        return length;
     }
 
     /**
@@ -241,6 +405,14 @@ public strictfp class GameMaker {
 
         changeState(State.GAME_HEADER, State.IN_GAME);
 
+        if (recordMode == RecordMode.SUMMARY) {
+            summary.append("teams\t").append(gameInfo.getTeamAPackage())
+                    .append('\t').append(gameInfo.getTeamBPackage()).append('\n');
+        }
+        if (!isRecordingEvents()) {
+            return;
+        }
+
         createEvent((builder) -> {
             int specVersionOffset = builder.createString(GameConstants.SPEC_VERSION);
 
@@ -306,6 +478,13 @@ public strictfp class GameMaker {
     public void makeGameFooter(Team winner) {
         changeState(State.IN_GAME, State.DONE);
 
+        if (recordMode == RecordMode.SUMMARY) {
+            summary.append("winner\t").append(winner).append('\n');
+        }
+        if (!isRecordingEvents()) {
+            return;
+        }
+
         createEvent((builder) -> EventWrapper.createEventWrapper(builder, Event.GameFooter,
                 GameFooter.createGameFooter(builder, TeamMapping.id(winner))));
     }
@@ -317,12 +496,27 @@ public strictfp class GameMaker {
      * this basically just provides a restricted interface to GameMaker.
      *
      * There is only one of these per GameMaker.
+     *
+     * Unless the record mode is FULL, rounds are not recorded and the add
+     * methods do nothing; callers can check isRecording() to avoid working
+     * out what to add in the first place.
      */
     public class MatchMaker {
+        private static final int INDICATOR_STRING_CAPACITY = 64;
+
+        /**
+         * How many strings the match's string table holds before it starts
+         * over, so that it doesn't grow for the whole match.
+         */
+        private static final int INDICATOR_STRING_TABLE_LIMIT = 1024;
+
         private TIntArrayList movedIDs; // ints
         // VecTable for movedLocs in Round
         private TIntArrayList movedLocsX;
         private TIntArrayList movedLocsY;
+        // Direction ordinals for movedDirs, used instead if every move is a step
+        private TByteArrayList movedDirs;
+        private boolean movesAreSteps;
 
         // SpawnedBodyTable for spawnedBodies
         private TIntArrayList spawnedBodiesRobotIDs;
@@ -344,8 +538,20 @@ public strictfp class GameMaker {
         private TIntArrayList teamUraniumMined;
         private TIntArrayList teamBytecodesUsed;
 
+        // Indicator strings that changed, as indices into the match's table
         private TIntArrayList indicatorStringIDs;
-        private ArrayList<String> indicatorStrings;
+        private TIntArrayList indicatorStringIndices;
+
+        // The match's string table: the index of each string in it, the
+        // strings in index order, the strings added this round and whether
+        // the table starts over this round
+        private TObjectIntHashMap<String> indicatorStringTable;
+        private ArrayList<String> indicatorStringsByIndex;
+        private ArrayList<String> newIndicatorStrings;
+        private boolean indicatorStringsReset;
+
+        // The indicator string last sent for each robot
+        private TIntObjectHashMap<String> sentIndicatorStrings;
 
         // Indicator dots with locations and RGB values
         private TIntArrayList indicatorDotIDs;
@@ -368,10 +574,15 @@ public strictfp class GameMaker {
         // Used to write logs.
         private final ByteArrayOutputStream logger;
 
+        // The map of the current match, for the summary.
+        private String mapName;
+
         public MatchMaker() {
             this.movedIDs = new TIntArrayList();
             this.movedLocsX = new TIntArrayList();
             this.movedLocsY = new TIntArrayList();
+            this.movedDirs = new TByteArrayList();
+            this.movesAreSteps = true;
             this.spawnedBodiesRobotIDs = new TIntArrayList();
             this.spawnedBodiesTeamIDs = new TByteArrayList();
             this.spawnedBodiesTypes = new TByteArrayList();
@@ -387,7 +598,11 @@ public strictfp class GameMaker {
             this.teamUraniumMined = new TIntArrayList();
             this.teamBytecodesUsed = new TIntArrayList();
             this.indicatorStringIDs = new TIntArrayList();
-            this.indicatorStrings = new ArrayList<>();
+            this.indicatorStringIndices = new TIntArrayList();
+            this.indicatorStringTable = new TObjectIntHashMap<>(INDICATOR_STRING_CAPACITY, 0.5f, -1);
+            this.indicatorStringsByIndex = new ArrayList<>();
+            this.newIndicatorStrings = new ArrayList<>();
+            this.sentIndicatorStrings = new TIntObjectHashMap<>(INDICATOR_STRING_CAPACITY);
             this.indicatorDotIDs = new TIntArrayList();
             this.indicatorDotLocsX = new TIntArrayList();
             this.indicatorDotLocsY = new TIntArrayList();
@@ -405,9 +620,21 @@ public strictfp class GameMaker {
             this.logger = new ByteArrayOutputStream();
         }
 
+        /**
+         * @return whether rounds are being recorded
+         */
+        public boolean isRecording() {
+            return isRecordingEvents();
+        }
+
         public void makeMatchHeader(LiveMap gameMap) {
             changeState(State.IN_GAME, State.IN_MATCH);
 
+            this.mapName = gameMap.getMapName();
+            if (!isRecording()) {
+                return;
+            }
+
             createEvent((builder) -> {
                 int map = GameMapIO.Serial.serialize(builder, gameMap);
 
@@ -415,14 +642,28 @@ public strictfp class GameMaker {
                         MatchHeader.createMatchHeader(builder, map, gameMap.getRounds()));
             });
 
-            matchHeaders.add(events.size() - 1);
+            matchHeaders.add(replay.eventCount() - 1);
 
+            // Each match starts its string table over
+            indicatorStringTable.clear();
+            indicatorStringsByIndex.clear();
+            sentIndicatorStrings.clear();
             clearData();
         }
 
-        public void makeMatchFooter(Team winTeam, int totalRounds, List<ProfilerCollection> profilerCollections) {
+        public void makeMatchFooter(Team winTeam, DominationFactor dominationFactor, int totalRounds,
+                                    long worldHash, List<ProfilerCollection> profilerCollections) {
             changeState(State.IN_MATCH, State.IN_GAME);
 
+            if (recordMode == RecordMode.SUMMARY) {
+                summary.append("match\t").append(mapName).append('\t').append(winTeam)
+                        .append('\t').append(dominationFactor).append('\t').append(totalRounds)
+                        .append('\t').append(String.format("%016x", worldHash)).append('\n');
+            }
+            if (!isRecording()) {
+                return;
+            }
+
             createEvent((builder) -> {
                 TIntArrayList profilerFiles = new TIntArrayList();
 
@@ -466,10 +707,14 @@ public strictfp class GameMaker {
                     MatchFooter.createMatchFooter(builder, TeamMapping.id(winTeam), totalRounds, profilerFilesOffset));
             });
 
-            matchFooters.add(events.size() - 1);
+            matchFooters.add(replay.eventCount() - 1);
         }
 
-        public void makeRound(int roundNum) {
+        /**
+         * @param roundNum the round that just ended
+         * @param worldHash the hash of the world at the end of the round
+         */
+        public void makeRound(int roundNum, long worldHash) {
             assertState(State.IN_MATCH);
 
             try {
@@ -480,6 +725,10 @@ public strictfp class GameMaker {
             // byte[] logs = this.logger.toByteArray();
             this.logger.reset();
 
+            if (!isRecording()) {
+                return;
+            }
+
             createEvent((builder) -> {
                 // The bodies that spawned
                 int spawnedBodiesLocsP = createVecTable(builder, spawnedBodiesLocsXs, spawnedBodiesLocsYs);
@@ -502,9 +751,10 @@ public strictfp class GameMaker {
                 int teamBytecodesUsedP = Round.createTeamBytecodesUsedVector(builder, teamBytecodesUsed.toArray());
 
 
-                // The bodies that moved
+                // The bodies that moved, as a byte each if they all took one step
                 int movedIDsP = Round.createMovedIDsVector(builder, movedIDs.toArray());
-                int movedLocsP = createVecTable(builder, movedLocsX, movedLocsY);
+                int movedLocsP = movesAreSteps ? 0 : createVecTable(builder, movedLocsX, movedLocsY);
+                int movedDirsP = movesAreSteps ? Round.createMovedDirsVector(builder, movedDirs.toArray()) : 0;
 
                 // The bodies that died
                 int diedIDsP = Round.createDiedIDsVector(builder, diedIDs.toArray());
@@ -514,13 +764,15 @@ public strictfp class GameMaker {
                 int actionsP = Round.createActionsVector(builder, actions.toArray());
                 int actionTargetsP = Round.createActionTargetsVector(builder, actionTargets.toArray());
 
-                // The indicator strings that were set
+                // The indicator strings that changed, and the strings new to the match
                 int indicatorStringIDsP = Round.createIndicatorStringIDsVector(builder, indicatorStringIDs.toArray());
-                TIntArrayList indicatorStringsIntList = new TIntArrayList();
-                for (String s : indicatorStrings) {
-                    indicatorStringsIntList.add(builder.createString(s));
+                int indicatorStringIndicesP = Round.createIndicatorStringIndicesVector(builder,
+                        indicatorStringIndices.toArray());
+                int[] newIndicatorStringsP = new int[newIndicatorStrings.size()];
+                for (int i = 0; i < newIndicatorStringsP.length; i++) {
+                    newIndicatorStringsP[i] = builder.createString(newIndicatorStrings.get(i));
                 }
-                int indicatorStringsP = Round.createIndicatorStringsVector(builder, indicatorStringsIntList.toArray());
+                int newIndicatorStringsVectorP = Round.createNewIndicatorStringsVector(builder, newIndicatorStringsP);
 
                 // The indicator dots that were set
                 int indicatorDotIDsP = Round.createIndicatorDotIDsVector(builder, indicatorDotIDs.toArray());
@@ -539,14 +791,20 @@ public strictfp class GameMaker {
                 Round.addTeamUraniumMined(builder, teamUraniumMinedP);
                 Round.addTeamBytecodesUsed(builder, teamBytecodesUsedP);
                 Round.addMovedIDs(builder, movedIDsP);
-                Round.addMovedLocs(builder, movedLocsP);
+                if (movesAreSteps) {
+                    Round.addMovedDirs(builder, movedDirsP);
+                } else {
+                    Round.addMovedLocs(builder, movedLocsP);
+                }
                 Round.addSpawnedBodies(builder, spawnedBodiesP);
                 Round.addDiedIDs(builder, diedIDsP);
                 Round.addActionIDs(builder, actionIDsP);
                 Round.addActions(builder, actionsP);
                 Round.addActionTargets(builder, actionTargetsP);
                 Round.addIndicatorStringIDs(builder, indicatorStringIDsP);
-                Round.addIndicatorStrings(builder, indicatorStringsP);
+                Round.addIndicatorStringIndices(builder, indicatorStringIndicesP);
+                Round.addNewIndicatorStrings(builder, newIndicatorStringsVectorP);
+                Round.addResetIndicatorStrings(builder, indicatorStringsReset);
                 Round.addIndicatorDotIDs(builder, indicatorDotIDsP);
                 Round.addIndicatorDotLocs(builder, indicatorDotLocsP);
                 Round.addIndicatorDotRGBs(builder, indicatorDotRGBsP);
@@ -555,11 +813,109 @@ public strictfp class GameMaker {
                 Round.addIndicatorLineEndLocs(builder, indicatorLineEndLocsP);
                 Round.addIndicatorLineRGBs(builder, indicatorLineRGBsP);
                 Round.addRoundID(builder, roundNum);
+                Round.addWorldHash(builder, worldHash);
                 int round = Round.endRound(builder);
                 return EventWrapper.createEventWrapper(builder, Event.Round, round);
             });
 
             clearData();
+
+            if (indicatorStringsByIndex.size() >= INDICATOR_STRING_TABLE_LIMIT) {
+                restartIndicatorStrings();
+            }
+        }
+
+        /**
+         * @return whether a keyframe should be made at the end of the round
+         */
+        public boolean isKeyframeRound(int roundNum) {
+            return isRecording() && keyframeInterval > 0 && roundNum % keyframeInterval == 0;
+        }
+
+        /**
+         * Write the whole state of the world, right after the round it's
+         * the state at the end of. It isn't sent to the client, which gets
+         * every round anyway.
+         *
+         * @param roundNum the round that just ended
+         * @param world the world at the end of the round
+         */
+        public void makeKeyframe(int roundNum, GameWorld world) {
+            assertState(State.IN_MATCH);
+
+            if (!isRecording()) {
+                return;
+            }
+
+            TIntArrayList ids = new TIntArrayList();
+            TByteArrayList teams = new TByteArrayList();
+            TByteArrayList types = new TByteArrayList();
+            TIntArrayList healths = new TIntArrayList();
+            TIntArrayList xs = new TIntArrayList();
+            TIntArrayList ys = new TIntArrayList();
+            world.getObjectInfo().eachRobot((robot) -> {
+                // Controllers aren't on the map
+                if (robot.getLocation() != null) {
+                    ids.add(robot.getID());
+                    teams.add(TeamMapping.id(robot.getTeam()));
+                    types.add(FlatHelpers.getBodyTypeFromRobotType(robot.getType()));
+                    healths.add((int) Math.ceil(robot.getHealth()));
+                    xs.add(robot.getLocation().x);
+                    ys.add(robot.getLocation().y);
+                }
+                return true;
+            });
+
+            LiveMap map = world.getGameMap();
+            int[] uranium = new int[map.getWidth() * map.getHeight()];
+            for (int i = 0; i < uranium.length; i++) {
+                uranium[i] = world.getUraniumAtIndex(i);
+            }
+
+            TeamInfo teamInfo = world.getTeamInfo();
+            int[] teamIDs = {TeamMapping.id(Team.A), TeamMapping.id(Team.B)};
+            int[] teamUranium = {teamInfo.getUranium(Team.A), teamInfo.getUranium(Team.B)};
+            int[] teamUraniumMined = {teamInfo.getUraniumMined(Team.A), teamInfo.getUraniumMined(Team.B)};
+
+            // The string table as the next round finds it, and what each
+            // robot shows
+            TIntArrayList stringIDs = new TIntArrayList();
+            TIntArrayList stringIndices = new TIntArrayList();
+            sentIndicatorStrings.forEachEntry((id, string) -> {
+                if (!string.isEmpty()) {
+                    stringIDs.add(id);
+                    stringIndices.add(indicatorStringTable.get(string));
+                }
+                return true;
+            });
+
+            keyframeLength += createEvent((builder) -> {
+                int locsP = createVecTable(builder, xs, ys);
+                int robotIDsP = SpawnedBodyTable.createRobotIDsVector(builder, ids.toArray());
+                int teamIDsP = SpawnedBodyTable.createTeamIDsVector(builder, teams.toArray());
+                int typesP = SpawnedBodyTable.createTypesVector(builder, types.toArray());
+                int healthsP = SpawnedBodyTable.createHealthsVector(builder, healths.toArray());
+                int bodiesP = SpawnedBodyTable.createSpawnedBodyTable(builder,
+                        robotIDsP, teamIDsP, typesP, locsP, healthsP);
+
+                int[] stringsP = new int[indicatorStringsByIndex.size()];
+                for (int i = 0; i < stringsP.length; i++) {
+                    stringsP[i] = builder.createString(indicatorStringsByIndex.get(i));
+                }
+
+                int keyframe = Keyframe.createKeyframe(builder, roundNum, bodiesP,
+                        Keyframe.createUraniumVector(builder, uranium),
+                        Keyframe.createTeamIDsVector(builder, teamIDs),
+                        Keyframe.createTeamUraniumVector(builder, teamUranium),
+                        Keyframe.createTeamUraniumMinedVector(builder, teamUraniumMined),
+                        Keyframe.createIndicatorStringsVector(builder, stringsP),
+                        Keyframe.createIndicatorStringIDsVector(builder, stringIDs.toArray()),
+                        Keyframe.createIndicatorStringIndicesVector(builder, stringIndices.toArray()));
+                return EventWrapper.createEventWrapper(builder, Event.Keyframe, keyframe);
+            }, false);
+
+            keyframes.add(replay.eventCount() - 1);
+            keyframeRounds.add(roundNum);
         }
 
         /**
@@ -569,39 +925,138 @@ public strictfp class GameMaker {
             return logger;
         }
 
+        /**
+         * Record a move to an absolute location. The round's moves are
+         * then all written as locations.
+         */
         public void addMoved(int id, MapLocation newLocation) {
+            if (!isRecording()) {
+                return;
+            }
+            movedIDs.add(id);
+            movedLocsX.add(newLocation.x);
+            movedLocsY.add(newLocation.y);
+            movesAreSteps = false;
+        }
+
+        /**
+         * Record a move. If every move of the round is one step from where
+         * the body was last recorded, the round gets a direction per move
+         * instead of locations.
+         *
+         * @param oldLocation where the body was, as last recorded
+         * @param newLocation where it moved to
+         */
+        public void addMoved(int id, MapLocation oldLocation, MapLocation newLocation) {
+            if (!isRecording()) {
+                return;
+            }
             movedIDs.add(id);
             movedLocsX.add(newLocation.x);
             movedLocsY.add(newLocation.y);
+            if (!movesAreSteps) {
+                return;
+            }
+            int dir = stepDirection(newLocation.x - oldLocation.x, newLocation.y - oldLocation.y);
+            if (dir < 0) {
+                movesAreSteps = false;
+            } else {
+                movedDirs.add((byte) dir);
+            }
+        }
+
+        /**
+         * @return the ordinal of the Direction that steps by (dx, dy), or
+         *         -1 if it isn't a single step
+         */
+        private int stepDirection(int dx, int dy) {
+            for (Direction dir : Direction.values()) {
+                if (dir != Direction.CENTER && dir.dx == dx && dir.dy == dy) {
+                    return dir.ordinal();
+                }
+            }
+            return -1;
         }
 
         public void addDied(int id) {
+            if (!isRecording()) {
+                return;
+            }
             diedIDs.add(id);
+            sentIndicatorStrings.remove(id);
         }
 
         public void addAction(int userID, byte action, int targetID) {
+            if (!isRecording()) {
+                return;
+            }
             actionIDs.add(userID);
             actions.add(action);
             actionTargets.add(targetID);
         }
 
         public void addTeamInfo(Team team, int uraniumChange, int uraniumMined, int bytecodesUsed) {
+            if (!isRecording()) {
+                return;
+            }
             teamIDs.add(TeamMapping.id(team));
             teamUraniumChanges.add(uraniumChange);
             teamUraniumMined.add(uraniumMined);
             teamBytecodesUsed.add(bytecodesUsed);
         }
 
+        /**
+         * Record a robot's indicator string, if it isn't the one last sent
+         * for the robot. Each distinct string is only sent once until the
+         * string table starts over; rounds refer to it by its index in the
+         * table.
+         */
         public void addIndicatorString(int id, String string) {
-            if (!showIndicators) {
+            if (!showIndicators || !isRecording()) {
                 return;
             }
+            String sent = sentIndicatorStrings.get(id);
+            // A robot that's never had one sent shows the empty string
+            if (string.equals(sent != null ? sent : "")) {
+                return;
+            }
+            sentIndicatorStrings.put(id, string);
             indicatorStringIDs.add(id);
-            indicatorStrings.add(string);
+            indicatorStringIndices.add(internIndicatorString(string));
+        }
+
+        /**
+         * @return the index of a string in the match's string table, which
+         *         it's added to if it isn't there yet
+         */
+        private int internIndicatorString(String string) {
+            int index = indicatorStringTable.get(string);
+            if (index == -1) {
+                index = indicatorStringsByIndex.size();
+                indicatorStringTable.put(string, index);
+                indicatorStringsByIndex.add(string);
+                newIndicatorStrings.add(string);
+            }
+            return index;
+        }
+
+        /**
+         * Empty the string table and add back the strings robots are
+         * showing, so that keyframes can still refer to them. The next
+         * round tells readers to empty their table too.
+         */
+        private void restartIndicatorStrings() {
+            indicatorStringTable.clear();
+            indicatorStringsByIndex.clear();
+            indicatorStringsReset = true;
+            sentIndicatorStrings.forEachValue((string) -> {
+                internIndicatorString(string);
+                return true;
+            });
         }
 
         public void addIndicatorDot(int id, MapLocation loc, int red, int green, int blue) {
-            if (!showIndicators) {
+            if (!showIndicators || !isRecording()) {
                 return;
             }
             indicatorDotIDs.add(id);
@@ -613,7 +1068,7 @@ public strictfp class GameMaker {
         }
 
         public void addIndicatorLine(int id, MapLocation startLoc, MapLocation endLoc, int red, int green, int blue) {
-            if (!showIndicators) {
+            if (!showIndicators || !isRecording()) {
                 return;
             }
             indicatorLineIDs.add(id);
@@ -627,6 +1082,9 @@ public strictfp class GameMaker {
         }
 
         public void addSpawnedRobot(InternalRobot robot) {
+            if (!isRecording()) {
+                return;
+            }
             spawnedBodiesRobotIDs.add(robot.getID());
             spawnedBodiesLocsXs.add(robot.getLocation().x);
             spawnedBodiesLocsYs.add(robot.getLocation().y);
@@ -639,6 +1097,8 @@ public strictfp class GameMaker {
             movedIDs.clear();
             movedLocsX.clear();
             movedLocsY.clear();
+            movedDirs.clear();
+            movesAreSteps = true;
             spawnedBodiesRobotIDs.clear();
             spawnedBodiesTeamIDs.clear();
             spawnedBodiesTypes.clear();
@@ -654,7 +1114,9 @@ public strictfp class GameMaker {
             teamUraniumMined.clear();
             teamBytecodesUsed.clear();
             indicatorStringIDs.clear();
-            indicatorStrings.clear();
+            indicatorStringIndices.clear();
+            newIndicatorStrings.clear();
+            indicatorStringsReset = false;
             indicatorDotIDs.clear();
             indicatorDotLocsX.clear();
             indicatorDotLocsY.clear();
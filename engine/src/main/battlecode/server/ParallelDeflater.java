@@ -0,0 +1,240 @@
+package battlecode.server;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An output stream that deflates what's written to it in independent
+ * blocks, compressed at the same time on an executor, the way pigz does.
+ *
+ * Each block is compressed on its own, primed with the end of the block
+ * before it, and ends with a sync flush so that the next block starts on
+ * a byte boundary. Written out in order, the blocks make one ordinary raw
+ * deflate stream, and finish() ends it with an empty final block. The
+ * checksum of each block is computed along with it and joined with
+ * ReplayWriter.crc32Combine, so nothing is read twice.
+ *
+ * Only a couple of blocks per thread may wait at once; past that, writes
+ * wait for the oldest block, so memory use doesn't depend on how much is
+ * written. Not thread-safe.
+ */
+final class ParallelDeflater extends OutputStream {
+
+    /**
+     * The size of each block, as in pigz.
+     */
+    static final int BLOCK_SIZE = 128 * 1024;
+
+    /**
+     * How much of the previous block each block can refer back to: the
+     * whole deflate window.
+     */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    /**
+     * An empty final block with fixed codes, as zlib writes it.
+     */
+    private static final byte[] FINAL_BLOCK = {0x03, 0x00};
+
+    /**
+     * Each thread keeps its deflater, since they're expensive to make.
+     */
+    private static final ThreadLocal<Deflater> deflaters =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    /**
+     * A compressed block, with the length and checksum of what went in.
+     */
+    private static final class Block {
+        final byte[] compressed;
+        final int compressedLength;
+        final int length;
+        final long crc;
+
+        Block(byte[] compressed, int compressedLength, int length, long crc) {
+            this.compressed = compressed;
+            this.compressedLength = compressedLength;
+            this.length = length;
+            this.crc = crc;
+        }
+    }
+
+    private final OutputStream out;
+    private final Executor executor;
+    private final int maxPending;
+
+    private final ArrayDeque<Future<Block>> pending = new ArrayDeque<>();
+
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength;
+
+    /**
+     * The block before the current one, whose end primes it.
+     */
+    private byte[] previous;
+    private int previousLength;
+
+    private long crc;
+    private long length;
+    private boolean finished;
+
+    /**
+     * @param out where the compressed blocks go, in order
+     * @param executor the executor to compress blocks on
+     * @param threads about how many threads the executor compresses on
+     */
+    ParallelDeflater(OutputStream out, Executor executor, int threads) {
+        this.out = out;
+        this.executor = executor;
+        this.maxPending = 2 * Math.max(1, threads);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (finished) {
+            throw new IOException("Deflater already finished");
+        }
+        while (length > 0) {
+            int n = Math.min(length, BLOCK_SIZE - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, n);
+            blockLength += n;
+            offset += n;
+            length -= n;
+            if (blockLength == BLOCK_SIZE) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Compress what's left, wait for every block and end the deflate
+     * stream. The underlying stream is flushed but not closed.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (blockLength > 0) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writeBlock(pending.removeFirst());
+        }
+        out.write(FINAL_BLOCK);
+        out.flush();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Stop without finishing: blocks not yet compressed are dropped.
+     */
+    public void abandon() {
+        finished = true;
+        for (Future<Block> block : pending) {
+            block.cancel(false);
+        }
+        pending.clear();
+    }
+
+    /**
+     * @return the CRC-32 of everything written, once finished
+     */
+    public long getCrc() {
+        return crc;
+    }
+
+    /**
+     * @return the number of bytes written, once finished
+     */
+    public long getLength() {
+        return length;
+    }
+
+    private void submitBlock() throws IOException {
+        final byte[] input = block;
+        final int inputLength = blockLength;
+        final byte[] dictionary = previous;
+        final int dictionaryLength = previousLength;
+
+        FutureTask<Block> task = new FutureTask<>(() ->
+                compress(input, inputLength, dictionary, dictionaryLength));
+        pending.addLast(task);
+        executor.execute(task);
+
+        // The block is kept as the next one's dictionary, so start a new one
+        previous = input;
+        previousLength = inputLength;
+        block = new byte[BLOCK_SIZE];
+        blockLength = 0;
+
+        // Write out whatever is done, and wait if too much is waiting
+        while (!pending.isEmpty() && (pending.peekFirst().isDone() || pending.size() > maxPending)) {
+            writeBlock(pending.removeFirst());
+        }
+    }
+
+    private void writeBlock(Future<Block> future) throws IOException {
+        Block done;
+        try {
+            done = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Compressing failed", e.getCause());
+        }
+        out.write(done.compressed, 0, done.compressedLength);
+        crc = ReplayWriter.crc32Combine(crc, done.crc, done.length);
+        length += done.length;
+    }
+
+    private static Block compress(byte[] input, int inputLength, byte[] dictionary, int dictionaryLength) {
+        CRC32 crc = new CRC32();
+        crc.update(input, 0, inputLength);
+
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        if (dictionary != null) {
+            int n = Math.min(DICTIONARY_SIZE, dictionaryLength);
+            deflater.setDictionary(dictionary, dictionaryLength - n, n);
+        }
+        deflater.setInput(input, 0, inputLength);
+
+        // A sync flush only returns less than the space it's given once
+        // all the input is compressed and flushed
+        byte[] output = new byte[inputLength / 2 + 64];
+        int outputLength = 0;
+        while (true) {
+            outputLength += deflater.deflate(output, outputLength, output.length - outputLength,
+                    Deflater.SYNC_FLUSH);
+            if (outputLength < output.length) {
+                break;
+            }
+            output = Arrays.copyOf(output, output.length * 2);
+        }
+        return new Block(output, outputLength, inputLength, crc.getValue());
+    }
+}
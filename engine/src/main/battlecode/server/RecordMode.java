@@ -0,0 +1,42 @@
+package battlecode.server;
+
+import java.util.Locale;
+
+/**
+ * How much of a game the server records, set with bc.server.record.
+ */
+public enum RecordMode {
+
+    /**
+     * Nothing is recorded and no file is written; only the console
+     * output says who won.
+     */
+    NONE,
+
+    /**
+     * Only the result of each match is recorded: the map, the winner, how
+     * they won, the number of rounds and the final world hash. Written as a
+     * short text file next to the save file, named after it with
+     * ".summary.txt" added; no replay file is written.
+     */
+    SUMMARY,
+
+    /**
+     * The whole game is recorded as a replay file.
+     */
+    FULL;
+
+    /**
+     * @param name the name of a mode, in any case
+     * @return the mode with that name
+     * @throws IllegalArgumentException if there is no such mode
+     */
+    public static RecordMode parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown record mode \"" + name
+                    + "\"; expected none, summary or full");
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package battlecode.server;
+
+import battlecode.schema.Event;
+import battlecode.schema.EventWrapper;
+import battlecode.schema.GameFooter;
+import battlecode.schema.GameHeader;
+import battlecode.schema.GameMap;
+import battlecode.schema.GameWrapper;
+import battlecode.schema.Keyframe;
+import battlecode.schema.MatchFooter;
+import battlecode.schema.MatchHeader;
+import battlecode.schema.Round;
+import org.apache.commons.io.IOUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a replay event by event and rebuilds the state of each match as
+ * it goes, so that a game can be looked at without running it again.
+ *
+ * The replay is memory-mapped, so only the parts that are read are ever
+ * in memory. A gzipped replay, as the server writes them, is first
+ * inflated into a temporary file and mapped from there. Replays of 2GB
+ * or more can't be mapped.
+ *
+ * Events are read into the same few objects over and over, so reading a
+ * game allocates next to nothing. Not thread-safe.
+ */
+public final class ReplayReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final GameWrapper wrapper;
+
+    /**
+     * The inflated copy of a gzipped replay, or null.
+     */
+    private final File inflated;
+
+    // Reused for every event
+    private final EventWrapper eventSlot = new EventWrapper();
+    private final GameHeader gameHeaderSlot = new GameHeader();
+    private final MatchHeader matchHeaderSlot = new MatchHeader();
+    private final GameMap mapSlot = new GameMap();
+    private final Round roundSlot = new Round();
+    private final Keyframe keyframeSlot = new Keyframe();
+    private final MatchFooter matchFooterSlot = new MatchFooter();
+    private final GameFooter gameFooterSlot = new GameFooter();
+
+    /**
+     * Read a replay that's already in memory.
+     *
+     * @param buffer an uncompressed GameWrapper
+     */
+    public ReplayReader(ByteBuffer buffer) {
+        this(buffer, null);
+    }
+
+    private ReplayReader(ByteBuffer buffer, File inflated) {
+        this.wrapper = GameWrapper.getRootAsGameWrapper(buffer);
+        this.inflated = inflated;
+    }
+
+    /**
+     * Open a replay file, gzipped or not.
+     */
+    public static ReplayReader open(File file) throws IOException {
+        if (!isGzipped(file)) {
+            return new ReplayReader(map(file), null);
+        }
+
+        File inflated = File.createTempFile("replay", ".raw");
+        try {
+            try (InputStream in = new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE);
+                 OutputStream out = new FileOutputStream(inflated)) {
+                IOUtils.copyLarge(in, out, new byte[BUFFER_SIZE]);
+            }
+            return new ReplayReader(map(inflated), inflated);
+        } catch (IOException | RuntimeException e) {
+            inflated.delete();
+            throw e;
+        }
+    }
+
+    private static boolean isGzipped(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * @return the GameWrapper of the replay, for reading it directly
+     */
+    public GameWrapper getWrapper() {
+        return wrapper;
+    }
+
+    public int getMatchCount() {
+        return wrapper.matchHeadersLength();
+    }
+
+    /**
+     * Visit every event of the game in order.
+     *
+     * Keyframes aren't visited, but they are applied: the rounds before a
+     * keyframe have built the state it holds, except that healths drift
+     * with rounding, which the keyframe sets right. The state then is the
+     * same as when seeking from the keyframe.
+     */
+    public void accept(ReplayVisitor visitor) {
+        ReplayState state = null;
+        int match = -1;
+
+        for (int i = 0, n = wrapper.eventsLength(); i < n; i++) {
+            EventWrapper event = wrapper.events(eventSlot, i);
+            switch (event.eType()) {
+                case Event.GameHeader:
+                    GameHeader gameHeader = (GameHeader) event.e(gameHeaderSlot);
+                    state = new ReplayState(gameHeader.constants());
+                    visitor.visitGameHeader(gameHeader);
+                    break;
+                case Event.MatchHeader:
+                    MatchHeader matchHeader = (MatchHeader) event.e(matchHeaderSlot);
+                    match++;
+                    state.reset(matchHeader.map(mapSlot));
+                    visitor.visitMatchHeader(match, matchHeader, state);
+                    break;
+                case Event.Round:
+                    Round round = (Round) event.e(roundSlot);
+                    state.apply(round);
+                    visitor.visitRound(match, round, state);
+                    break;
+                case Event.Keyframe:
+                    state.apply((Keyframe) event.e(keyframeSlot));
+                    break;
+                case Event.MatchFooter:
+                    visitor.visitMatchFooter(match, (MatchFooter) event.e(matchFooterSlot), state);
+                    break;
+                case Event.GameFooter:
+                    visitor.visitGameFooter((GameFooter) event.e(gameFooterSlot));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Visit the rounds of a match from the given round on, and then its
+     * footer. The state is rebuilt from the last keyframe before that
+     * round, if the replay has one, rather than from the start of the
+     * match.
+     *
+     * @param match the index of the match
+     * @param fromRound the first round to visit
+     */
+    public void accept(ReplayVisitor visitor, int match, int fromRound) {
+        int header = wrapper.matchHeaders(match);
+        int footer = wrapper.matchFooters(match);
+
+        GameHeader gameHeader = (GameHeader) wrapper.events(eventSlot, 0).e(gameHeaderSlot);
+        ReplayState state = new ReplayState(gameHeader.constants());
+        MatchHeader matchHeader = (MatchHeader) wrapper.events(eventSlot, header).e(matchHeaderSlot);
+        state.reset(matchHeader.map(mapSlot));
+
+        int start = header + 1;
+        int keyframe = lastKeyframeBefore(header, footer, fromRound);
+        if (keyframe >= 0) {
+            state.apply((Keyframe) wrapper.events(eventSlot, keyframe).e(keyframeSlot));
+            start = keyframe + 1;
+        }
+
+        for (int i = start; i < footer; i++) {
+            EventWrapper event = wrapper.events(eventSlot, i);
+            if (event.eType() == Event.Round) {
+                Round round = (Round) event.e(roundSlot);
+                state.apply(round);
+                if (round.roundID() >= fromRound) {
+                    visitor.visitRound(match, round, state);
+                }
+            } else if (event.eType() == Event.Keyframe) {
+                state.apply((Keyframe) event.e(keyframeSlot));
+            }
+        }
+        visitor.visitMatchFooter(match, (MatchFooter) wrapper.events(eventSlot, footer).e(matchFooterSlot), state);
+    }
+
+    /**
+     * @return the index of the last keyframe between the given events
+     *         whose round is before the given round, or -1
+     */
+    private int lastKeyframeBefore(int header, int footer, int round) {
+        // Keyframes are in order of index, and within a match of round,
+        // so those that qualify or come before the match come first
+        int low = 0;
+        int high = wrapper.keyframesLength();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int index = wrapper.keyframes(mid);
+            if (index < header || (index < footer && wrapper.keyframeRounds(mid) < round)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == 0 || wrapper.keyframes(low - 1) < header) {
+            return -1;
+        }
+        return wrapper.keyframes(low - 1);
+    }
+
+    /**
+     * Delete the inflated copy of a gzipped replay, if any.
+     */
+    @Override
+    public void close() {
+        if (inflated != null) {
+            inflated.delete();
+        }
+    }
+}
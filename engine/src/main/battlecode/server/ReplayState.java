@@ -0,0 +1,515 @@
+package battlecode.server;
+
+import battlecode.common.Direction;
+import battlecode.schema.Action;
+import battlecode.schema.Constants;
+import battlecode.schema.GameMap;
+import battlecode.schema.Keyframe;
+import battlecode.schema.Round;
+import battlecode.schema.SpawnedBodyTable;
+import battlecode.schema.VecTable;
+import battlecode.schema.Vec;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The state of a match as rebuilt from its replay, round by round: the
+ * bodies on the map as a struct of arrays, the uranium on the map and the
+ * totals of each team.
+ *
+ * The body arrays are only valid up to size(), and bodies don't keep
+ * their slot: when one dies, the last body takes its place. Nothing
+ * allocates while a round is applied, other than the indicator strings it
+ * adds, so the arrays returned may be kept between rounds and are only
+ * replaced when they grow.
+ *
+ * Health is tracked the way the client does it, adding up the changes
+ * of CHANGE_HEALTH actions. Those are rounded, so over many rounds health
+ * drifts from the engine's, until a keyframe sets it again.
+ */
+public final class ReplayState {
+
+    /**
+     * The x and y step of each direction in movedDirs, by ordinal.
+     */
+    private static final int[] DX;
+    private static final int[] DY;
+    static {
+        Direction[] directions = Direction.values();
+        DX = new int[directions.length];
+        DY = new int[directions.length];
+        for (Direction dir : directions) {
+            DX[dir.ordinal()] = dir.dx;
+            DY[dir.ordinal()] = dir.dy;
+        }
+    }
+
+    /**
+     * Enough teams for every ID in TeamMapping.
+     */
+    private static final int TEAMS = 3;
+
+    private int[] ids = new int[64];
+    private byte[] teams = new byte[64];
+    private byte[] types = new byte[64];
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private float[] healths = new float[64];
+    private String[] indicatorStrings = new String[64];
+    private int size;
+
+    /**
+     * The slot of each body, indexed by ID, or -1. IDs are handed out in
+     * blocks from a small range (see IDGenerator), so a dense table is
+     * small and needs no hashing.
+     */
+    private int[] slots = new int[0];
+
+    private int originX;
+    private int originY;
+    private int width;
+    private int height;
+    private int[] uranium = new int[0];
+
+    /**
+     * The locations that had uranium at the last increase. Only those are
+     * increased, and a location that runs out never gets uranium again, so
+     * each increase drops the ones that have run out since.
+     */
+    private int[] uraniumCells = new int[0];
+    private int uraniumCellCount;
+
+    /**
+     * The match's indicator string table, which rounds refer to by index.
+     */
+    private String[] stringTable = new String[64];
+    private int stringTableSize;
+
+    private final int[] teamUranium = new int[TEAMS];
+    private final int[] teamUraniumMined = new int[TEAMS];
+
+    private int round;
+
+    private final int increasePeriod;
+    private final int uraniumIncrease;
+
+    // Reused to read rounds without allocating
+    private final SpawnedBodyTable bodiesSlot = new SpawnedBodyTable();
+    private final VecTable locsSlot = new VecTable();
+    private final Vec vecSlot = new Vec();
+    private final int[][] intScratch = {new int[256], new int[256], new int[256]};
+    private byte[] byteScratch = new byte[256];
+
+    /**
+     * @param constants the constants from the game header
+     */
+    ReplayState(Constants constants) {
+        this.increasePeriod = constants != null ? constants.increasePeriod() : 0;
+        this.uraniumIncrease = constants != null ? constants.uraniumAdditiveIncrease() : 0;
+    }
+
+    // *********************************
+    // ****** QUERIES ******************
+    // *********************************
+
+    /**
+     * @return the last round applied, or 0 at the start of the match
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * @return the number of bodies on the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the ID of each body
+     */
+    public int[] ids() {
+        return ids;
+    }
+
+    /**
+     * @return the team ID of each body, as in TeamMapping
+     */
+    public byte[] teams() {
+        return teams;
+    }
+
+    /**
+     * @return the BodyType of each body
+     */
+    public byte[] types() {
+        return types;
+    }
+
+    public int[] xs() {
+        return xs;
+    }
+
+    public int[] ys() {
+        return ys;
+    }
+
+    public float[] healths() {
+        return healths;
+    }
+
+    /**
+     * @return the indicator string each body shows, which is the empty
+     *         string until one is sent
+     */
+    public String[] indicatorStrings() {
+        return indicatorStrings;
+    }
+
+    /**
+     * @return the slot of the body with the given ID, or -1 if there's none
+     */
+    public int indexOf(int id) {
+        return id >= 0 && id < slots.length ? slots[id] : -1;
+    }
+
+    public int getOriginX() {
+        return originX;
+    }
+
+    public int getOriginY() {
+        return originY;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the uranium at each location, indexed x + y * width, as in
+     *         GameMap.uranium
+     */
+    public int[] uranium() {
+        return uranium;
+    }
+
+    /**
+     * @param teamID a team ID, as in TeamMapping
+     */
+    public int getTeamUranium(int teamID) {
+        return teamUranium[teamID];
+    }
+
+    /**
+     * @param teamID a team ID, as in TeamMapping
+     * @return the uranium the team has mined so far
+     */
+    public int getTeamUraniumMined(int teamID) {
+        return teamUraniumMined[teamID];
+    }
+
+    // *********************************
+    // ****** UPDATES ******************
+    // *********************************
+
+    /**
+     * Start a match on a map.
+     */
+    void reset(GameMap map) {
+        map.minCorner(vecSlot);
+        originX = vecSlot.x();
+        originY = vecSlot.y();
+        map.maxCorner(vecSlot);
+        width = vecSlot.x() - originX;
+        height = vecSlot.y() - originY;
+
+        uranium = new int[width * height];
+        for (int i = 0; i < uranium.length && i < map.uraniumLength(); i++) {
+            uranium[i] = map.uranium(i);
+        }
+
+        findUraniumCells();
+
+        clearBodies();
+        SpawnedBodyTable bodies = map.bodies(bodiesSlot);
+        if (bodies != null) {
+            addBodies(bodies);
+        }
+
+        Arrays.fill(teamUranium, 0);
+        Arrays.fill(teamUraniumMined, 0);
+        stringTableSize = 0;
+        round = 0;
+    }
+
+    /**
+     * Apply a round, in the order the client does: team totals, spawned
+     * bodies, moves, actions, the map's uranium, indicator strings and last
+     * the bodies that died.
+     */
+    void apply(Round delta) {
+        for (int i = 0, n = delta.teamIDsLength(); i < n; i++) {
+            int team = delta.teamIDs(i);
+            teamUranium[team] += delta.teamUraniumChanges(i);
+            teamUraniumMined[team] += delta.teamUraniumMined(i);
+        }
+
+        SpawnedBodyTable spawned = delta.spawnedBodies(bodiesSlot);
+        if (spawned != null) {
+            addBodies(spawned);
+        }
+
+        // The vectors are copied out in bulk rather than read through the
+        // accessors, which find the vector again for every element
+        int moves = delta.movedIDsLength();
+        if (moves > 0) {
+            int[] movedIDs = readInts(delta.movedIDsAsByteBuffer(), moves, 0);
+            VecTable locs = delta.movedLocs(locsSlot);
+            if (locs != null) {
+                int[] locXs = readInts(locs.xsAsByteBuffer(), moves, 1);
+                int[] locYs = readInts(locs.ysAsByteBuffer(), moves, 2);
+                for (int i = 0; i < moves; i++) {
+                    int slot = movedSlot(delta, movedIDs[i]);
+                    xs[slot] = locXs[i];
+                    ys[slot] = locYs[i];
+                }
+            } else {
+                byte[] movedDirs = readBytes(delta.movedDirsAsByteBuffer(), moves);
+                for (int i = 0; i < moves; i++) {
+                    int slot = movedSlot(delta, movedIDs[i]);
+                    int dir = movedDirs[i];
+                    xs[slot] += DX[dir];
+                    ys[slot] += DY[dir];
+                }
+            }
+        }
+
+        int actions = delta.actionsLength();
+        if (actions > 0) {
+            byte[] types = readBytes(delta.actionsAsByteBuffer(), actions);
+            int[] actionIDs = readInts(delta.actionIDsAsByteBuffer(), actions, 0);
+            int[] targets = readInts(delta.actionTargetsAsByteBuffer(), actions, 1);
+            for (int i = 0; i < actions; i++) {
+                switch (types[i]) {
+                    case Action.MINE_URANIUM:
+                        uranium[targets[i]]--;
+                        break;
+                    case Action.CHANGE_HEALTH:
+                        int slot = indexOf(actionIDs[i]);
+                        if (slot >= 0) {
+                            healths[slot] += targets[i] / 1000f;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        round = delta.roundID();
+        if (increasePeriod > 0 && round % increasePeriod == 0) {
+            int live = 0;
+            for (int i = 0; i < uraniumCellCount; i++) {
+                int cell = uraniumCells[i];
+                if (uranium[cell] > 0) {
+                    uranium[cell] += uraniumIncrease;
+                    uraniumCells[live++] = cell;
+                }
+            }
+            uraniumCellCount = live;
+        }
+
+        if (delta.resetIndicatorStrings()) {
+            stringTableSize = 0;
+        }
+        for (int i = 0, n = delta.newIndicatorStringsLength(); i < n; i++) {
+            addToStringTable(delta.newIndicatorStrings(i));
+        }
+        // Older replays send the strings themselves
+        boolean indexed = delta.indicatorStringIndicesLength() > 0;
+        for (int i = 0, n = delta.indicatorStringIDsLength(); i < n; i++) {
+            // As with CHANGE_HEALTH, IDs that aren't bodies are skipped
+            int slot = indexOf(delta.indicatorStringIDs(i));
+            if (slot >= 0) {
+                indicatorStrings[slot] = indexed
+                        ? fromStringTable(delta.indicatorStringIndices(i), delta.roundID())
+                        : delta.indicatorStrings(i);
+            }
+        }
+
+        for (int i = 0, n = delta.diedIDsLength(); i < n; i++) {
+            removeBody(delta.diedIDs(i));
+        }
+    }
+
+    /**
+     * Replace the whole state with a keyframe's.
+     */
+    void apply(Keyframe keyframe) {
+        clearBodies();
+        SpawnedBodyTable bodies = keyframe.bodies(bodiesSlot);
+        if (bodies != null) {
+            addBodies(bodies);
+        }
+
+        for (int i = 0; i < uranium.length && i < keyframe.uraniumLength(); i++) {
+            uranium[i] = keyframe.uranium(i);
+        }
+        findUraniumCells();
+
+        for (int i = 0, n = keyframe.teamIDsLength(); i < n; i++) {
+            int team = keyframe.teamIDs(i);
+            teamUranium[team] = keyframe.teamUranium(i);
+            teamUraniumMined[team] = keyframe.teamUraniumMined(i);
+        }
+
+        stringTableSize = 0;
+        for (int i = 0, n = keyframe.indicatorStringsLength(); i < n; i++) {
+            addToStringTable(keyframe.indicatorStrings(i));
+        }
+        for (int i = 0, n = keyframe.indicatorStringIDsLength(); i < n; i++) {
+            int slot = indexOf(keyframe.indicatorStringIDs(i));
+            if (slot >= 0) {
+                indicatorStrings[slot] = fromStringTable(keyframe.indicatorStringIndices(i), keyframe.roundID());
+            }
+        }
+
+        round = keyframe.roundID();
+    }
+
+    private void addToStringTable(String string) {
+        if (stringTableSize == stringTable.length) {
+            stringTable = Arrays.copyOf(stringTable, 2 * stringTable.length);
+        }
+        stringTable[stringTableSize++] = string;
+    }
+
+    /**
+     * @throws IllegalStateException if the string table has no such
+     *         string, which means the replay is broken
+     */
+    private String fromStringTable(int index, int round) {
+        if (index < 0 || index >= stringTableSize) {
+            throw new IllegalStateException("Round " + round + " uses indicator string " + index
+                    + ", but the string table only has " + stringTableSize);
+        }
+        return stringTable[index];
+    }
+
+    private void findUraniumCells() {
+        if (uraniumCells.length < uranium.length) {
+            uraniumCells = new int[uranium.length];
+        }
+        uraniumCellCount = 0;
+        for (int i = 0; i < uranium.length; i++) {
+            if (uranium[i] > 0) {
+                uraniumCells[uraniumCellCount++] = i;
+            }
+        }
+    }
+
+    /**
+     * Copy a vector of ints into one of the scratch arrays.
+     */
+    private int[] readInts(ByteBuffer vector, int length, int scratch) {
+        if (intScratch[scratch].length < length) {
+            intScratch[scratch] = new int[Math.max(length, 2 * intScratch[scratch].length)];
+        }
+        vector.asIntBuffer().get(intScratch[scratch], 0, length);
+        return intScratch[scratch];
+    }
+
+    private byte[] readBytes(ByteBuffer vector, int length) {
+        if (byteScratch.length < length) {
+            byteScratch = new byte[Math.max(length, 2 * byteScratch.length)];
+        }
+        vector.get(byteScratch, 0, length);
+        return byteScratch;
+    }
+
+    private void addBodies(SpawnedBodyTable bodies) {
+        int n = bodies.robotIDsLength();
+        if (n == 0) {
+            return;
+        }
+        ensureCapacity(size + n);
+        VecTable locs = bodies.locs(locsSlot);
+        for (int i = 0; i < n; i++) {
+            int id = bodies.robotIDs(i);
+            if (id >= slots.length) {
+                int old = slots.length;
+                slots = Arrays.copyOf(slots, Math.max(id + 1, 2 * old));
+                Arrays.fill(slots, old, slots.length, -1);
+            }
+            slots[id] = size;
+            ids[size] = id;
+            teams[size] = bodies.teamIDs(i);
+            types[size] = bodies.types(i);
+            xs[size] = locs.xs(i);
+            ys[size] = locs.ys(i);
+            healths[size] = bodies.healths(i);
+            indicatorStrings[size] = "";
+            size++;
+        }
+    }
+
+    /**
+     * @return the slot of a body that a round moves
+     * @throws IllegalStateException if there's no such body alive, which
+     *         means the replay is broken
+     */
+    private int movedSlot(Round delta, int id) {
+        int slot = indexOf(id);
+        if (slot < 0) {
+            throw new IllegalStateException("Round " + delta.roundID() + " moves body " + id
+                    + ", which isn't alive");
+        }
+        return slot;
+    }
+
+    private void removeBody(int id) {
+        int slot = indexOf(id);
+        if (slot < 0) {
+            return;
+        }
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            teams[slot] = teams[last];
+            types[slot] = types[last];
+            xs[slot] = xs[last];
+            ys[slot] = ys[last];
+            healths[slot] = healths[last];
+            indicatorStrings[slot] = indicatorStrings[last];
+            slots[ids[slot]] = slot;
+        }
+        slots[id] = -1;
+    }
+
+    private void clearBodies() {
+        for (int i = 0; i < size; i++) {
+            slots[ids[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int length = Math.max(capacity, 2 * ids.length);
+        ids = Arrays.copyOf(ids, length);
+        teams = Arrays.copyOf(teams, length);
+        types = Arrays.copyOf(types, length);
+        xs = Arrays.copyOf(xs, length);
+        ys = Arrays.copyOf(ys, length);
+        healths = Arrays.copyOf(healths, length);
+        indicatorStrings = Arrays.copyOf(indicatorStrings, length);
+    }
+}
@@ -0,0 +1,41 @@
+package battlecode.server;
+
+import battlecode.schema.GameFooter;
+import battlecode.schema.GameHeader;
+import battlecode.schema.MatchFooter;
+import battlecode.schema.MatchHeader;
+import battlecode.schema.Round;
+
+/**
+ * Called back by a ReplayReader for each event of a replay, in order.
+ * Every method does nothing; override the ones you need.
+ *
+ * The events and the state passed in are only valid during the call:
+ * the reader reuses them for the next event. Copy out what you keep.
+ */
+public abstract class ReplayVisitor {
+
+    public void visitGameHeader(GameHeader header) {
+    }
+
+    /**
+     * @param state the state at the start of the match
+     */
+    public void visitMatchHeader(int match, MatchHeader header, ReplayState state) {
+    }
+
+    /**
+     * @param state the state at the end of the round, with it applied
+     */
+    public void visitRound(int match, Round round, ReplayState state) {
+    }
+
+    /**
+     * @param state the state at the end of the match
+     */
+    public void visitMatchFooter(int match, MatchFooter footer, ReplayState state) {
+    }
+
+    public void visitGameFooter(GameFooter footer) {
+    }
+}
@@ -0,0 +1,348 @@
+package battlecode.server;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.apache.commons.io.IOUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Writes a gzipped GameWrapper one event at a time, so that a game never
+ * has to be held in memory whole.
+ *
+ * Each event is a finished EventWrapper flatbuffer of its own. As events
+ * arrive they are compressed into a temporary spool file, in blocks that
+ * are compressed in parallel by a ParallelDeflater; all that stays in
+ * memory is the position of each event and the blocks being compressed. When the game is
+ * over, the GameWrapper table and its vectors are written by hand in front
+ * of the events, pointing forward into them, and the replay is put
+ * together from that header and the spool without compressing the events
+ * again.
+ *
+ * The result is a single ordinary gzip member holding an ordinary
+ * GameWrapper, so anything that could read the old replays reads these.
+ */
+final class ReplayWriter implements Closeable {
+
+    /**
+     * Flatbuffers need at most 8-byte alignment, so every event starts on
+     * a multiple of 8 bytes.
+     */
+    private static final int ALIGNMENT = 8;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * A gzip header with no name, no time and an unknown OS, as written by
+     * GZIPOutputStream.
+     */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final byte[] PADDING = new byte[ALIGNMENT];
+
+    /**
+     * The position of the EventWrapper table of each event, from the start
+     * of the first event.
+     */
+    private final TIntArrayList eventTables = new TIntArrayList();
+
+    /**
+     * The uncompressed length of the events so far, including padding.
+     */
+    private long eventsLength;
+
+    private final Executor executor;
+    private final int threads;
+
+    private File spoolFile;
+    private ParallelDeflater spool;
+
+    /**
+     * Whether the spool holds a complete deflate stream.
+     */
+    private boolean spoolFinished;
+
+    /**
+     * Compress on the common pool.
+     */
+    ReplayWriter() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param executor the executor to compress on
+     * @param threads about how many threads the executor compresses on
+     */
+    ReplayWriter(Executor executor, int threads) {
+        this.executor = executor;
+        this.threads = threads;
+    }
+
+    /**
+     * Add an event to the end of the game.
+     *
+     * @param event a finished EventWrapper, from its position to its limit;
+     *              its position is unchanged
+     */
+    public void addEvent(ByteBuffer event) throws IOException {
+        if (spoolFinished) {
+            throw new IllegalStateException("Can't add events to a finished replay");
+        }
+        if (spool == null) {
+            openSpool();
+        }
+
+        int length = event.remaining();
+        int rootOffset = event.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(event.position());
+        eventTables.add((int) eventsLength + rootOffset);
+
+        byte[] bytes;
+        int offset;
+        if (event.hasArray()) {
+            bytes = event.array();
+            offset = event.arrayOffset() + event.position();
+        } else {
+            bytes = new byte[length];
+            event.duplicate().get(bytes);
+            offset = 0;
+        }
+        write(bytes, offset, length);
+
+        int padding = (ALIGNMENT - length % ALIGNMENT) % ALIGNMENT;
+        write(PADDING, 0, padding);
+    }
+
+    /**
+     * @return the number of events added
+     */
+    public int eventCount() {
+        return eventTables.size();
+    }
+
+    /**
+     * @return the uncompressed length of the events added, with padding
+     */
+    public long getLength() {
+        return eventsLength;
+    }
+
+    /**
+     * Write the gzipped replay. No more events can be added afterwards,
+     * but the replay can be written any number of times until it's closed.
+     *
+     * @param out where to write the replay; not closed
+     * @param matchHeaders the indices of the match headers
+     * @param matchFooters the indices of the match footers
+     * @param keyframes the indices of the keyframes
+     * @param keyframeRounds the round of each keyframe
+     */
+    public void writeTo(OutputStream out, int[] matchHeaders, int[] matchFooters,
+                        int[] keyframes, int[] keyframeRounds) throws IOException {
+        finishSpool();
+
+        byte[] header = wrapperHeader(matchHeaders, matchFooters, keyframes, keyframeRounds);
+        CRC32 headerCrc = new CRC32();
+        headerCrc.update(header);
+
+        out.write(GZIP_HEADER);
+
+        // Compress the header on its own and end it with a sync flush; the
+        // spool's deflate stream then continues it from a byte boundary.
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            // Not closed, since that would finish the deflate stream and close out
+            DeflaterOutputStream headerOut = new DeflaterOutputStream(out, deflater, BUFFER_SIZE, true);
+            headerOut.write(header);
+            headerOut.flush();
+        } finally {
+            deflater.end();
+        }
+
+        try (InputStream in = new FileInputStream(spoolFile)) {
+            IOUtils.copyLarge(in, out, new byte[BUFFER_SIZE]);
+        }
+
+        long length = header.length + eventsLength;
+        ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putInt((int) crc32Combine(headerCrc.getValue(), spool.getCrc(), eventsLength));
+        trailer.putInt((int) length);
+        out.write(trailer.array());
+        out.flush();
+    }
+
+    /**
+     * Delete the spool. The replay can't be written afterwards. This must
+     * be called however the game ends, since nothing else deletes the
+     * spool until the server exits.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (spool != null && !spoolFinished) {
+                spool.abandon();
+                spool.close();
+            }
+        } finally {
+            spoolFinished = true;
+            if (spoolFile != null) {
+                spoolFile.delete();
+            }
+        }
+    }
+
+    private void openSpool() throws IOException {
+        spoolFile = File.createTempFile("replay", ".spool");
+        try {
+            spool = new ParallelDeflater(
+                    new BufferedOutputStream(new FileOutputStream(spoolFile), BUFFER_SIZE),
+                    executor, threads);
+        } catch (IOException | RuntimeException e) {
+            spoolFile.delete();
+            throw e;
+        }
+    }
+
+    private void finishSpool() throws IOException {
+        if (spoolFinished) {
+            if (spoolFile == null || !spoolFile.exists()) {
+                throw new IllegalStateException("Replay has already been closed");
+            }
+            return;
+        }
+        if (spool == null) {
+            openSpool();
+        }
+        spool.close();
+        spoolFinished = true;
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        spool.write(bytes, offset, length);
+        eventsLength += length;
+    }
+
+    /**
+     * Lay out the GameWrapper by hand: the root offset, the vtable, the
+     * table, then the vectors of indices and last the events vector, whose
+     * offsets point past the end of the header into the events that follow
+     * it.
+     *
+     * @param indices the vectors of the fields after events, in field order
+     */
+    private byte[] wrapperHeader(int[]... indices) {
+        int fields = 1 + indices.length;
+        int vtableStart = 4;
+        int vtableSize = 4 + 2 * fields;
+        int tableStart = (vtableStart + vtableSize + 3) / 4 * 4;
+        int tableSize = 4 + 4 * fields;
+
+        int[] vectorStarts = new int[indices.length];
+        int next = tableStart + tableSize;
+        for (int i = 0; i < indices.length; i++) {
+            vectorStarts[i] = next;
+            next += 4 + 4 * indices[i].length;
+        }
+        int eventsStart = next;
+        int end = eventsStart + 4 + 4 * eventTables.size();
+        int length = (end + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+
+        ByteBuffer header = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, tableStart);
+
+        // vtable: its size, the table's size, then each field's offset
+        header.putShort(vtableStart, (short) vtableSize);
+        header.putShort(vtableStart + 2, (short) tableSize);
+        for (int field = 0; field < fields; field++) {
+            header.putShort(vtableStart + 4 + 2 * field, (short) (4 + 4 * field));
+        }
+
+        header.putInt(tableStart, tableStart - vtableStart);
+        header.putInt(tableStart + 4, eventsStart - (tableStart + 4));
+        for (int i = 0; i < indices.length; i++) {
+            int slot = tableStart + 8 + 4 * i;
+            header.putInt(slot, vectorStarts[i] - slot);
+            putVector(header, vectorStarts[i], indices[i]);
+        }
+
+        header.putInt(eventsStart, eventTables.size());
+        for (int i = 0; i < eventTables.size(); i++) {
+            int slot = eventsStart + 4 + 4 * i;
+            header.putInt(slot, length + eventTables.get(i) - slot);
+        }
+        return header.array();
+    }
+
+    private static void putVector(ByteBuffer buffer, int start, int[] values) {
+        buffer.putInt(start, values.length);
+        for (int i = 0; i < values.length; i++) {
+            buffer.putInt(start + 4 + 4 * i, values[i]);
+        }
+    }
+
+    /**
+     * The CRC-32 of two pieces of data put together, from the CRC-32 of
+     * each; the same as zlib's crc32_combine.
+     *
+     * @param crc1 the checksum of the first piece
+     * @param crc2 the checksum of the second piece
+     * @param length2 the length of the second piece
+     */
+    static long crc32Combine(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+
+        // The operator for one zero bit, then for two and four
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+
+        // Apply length2 zero bytes to crc1, squaring for each bit of length2
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            length2 >>= 1;
+            if (length2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            length2 >>= 1;
+        } while (length2 != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+}
@@ -10,8 +10,18 @@ import battlecode.world.control.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Runs matches. Specifically, this class forms a pipeline connecting match and
@@ -33,7 +43,7 @@ public strictfp class Server implements Runnable {
     /**
      * The state of the match that the server is running (or about to run).
      */
-    private ServerState state;
+    private volatile ServerState state;
 
     /**
      * The options provided to the server via config file and command line.
@@ -47,9 +57,20 @@ public strictfp class Server implements Runnable {
     private final boolean interactive;
 
     /**
-     * The GameWorld the server is currently operating on.
+     * How many games to run at the same time. The maps of one game
+     * always run one after another.
      */
-    private GameWorld currentWorld;
+    private final int matchWorkers;
+
+    /**
+     * How much of each game to record.
+     */
+    private final RecordMode recordMode;
+
+    /**
+     * The GameWorlds the server is currently operating on.
+     */
+    private final Set<GameWorld> currentWorlds;
 
 
     /**
@@ -75,6 +96,10 @@ public strictfp class Server implements Runnable {
 
         this.options = options;
         this.state = ServerState.NOT_READY;
+
+        this.matchWorkers = Math.max(1, options.getInt("bc.server.match-workers"));
+        this.recordMode = RecordMode.parse(options.get("bc.server.record"));
+        this.currentWorlds = Collections.newSetFromMap(new ConcurrentHashMap<>());
     }
 
     // ******************************
@@ -117,10 +142,24 @@ public strictfp class Server implements Runnable {
      * Runs the server. The server will wait for some game info (which
      * specifies the teams and set of maps to run) and then begin running
      * matches.
+     *
+     * If bc.server.match-workers is more than one, that many games are run
+     * in parallel, each with its own GameWorld, GameMaker and control
+     * providers. Their output would interleave on the websocket, so it is
+     * not used in that mode.
+     *
+     * Unless bc.server.record is full, there are no events to send, so the
+     * websocket is not used either.
      */
     public void run() {
         final NetServer netServer;
-        if (options.getBoolean("bc.server.websocket")) {
+        if (options.getBoolean("bc.server.websocket") && matchWorkers > 1) {
+            warn("Not starting the websocket server; it can't be used with bc.server.match-workers > 1");
+            netServer = null;
+        } else if (options.getBoolean("bc.server.websocket") && recordMode != RecordMode.FULL) {
+            warn("Not starting the websocket server; it needs bc.server.record=full");
+            netServer = null;
+        } else if (options.getBoolean("bc.server.websocket")) {
             netServer = new NetServer(options.getInt("bc.server.port"),
                                       options.getBoolean("bc.server.wait-for-client"));
             netServer.start();
@@ -128,6 +167,14 @@ public strictfp class Server implements Runnable {
             netServer = null;
         }
 
+        final ExecutorService workers;
+        final List<Future<Boolean>> runningGames = new ArrayList<>();
+        if (matchWorkers > 1) {
+            workers = Executors.newFixedThreadPool(matchWorkers);
+        } else {
+            workers = null;
+        }
+
         while (true) {
             final GameInfo currentGame;
             debug("Awaiting match");
@@ -136,12 +183,18 @@ public strictfp class Server implements Runnable {
             } catch (InterruptedException e) {
                 warn("Interrupted while waiting for next game!");
                 e.printStackTrace();
+                if (workers != null) {
+                    workers.shutdownNow();
+                }
                 Thread.currentThread().interrupt();
                 return;
             }
 
             // Note: ==, not .equals()
             if (currentGame == POISON) {
+                if (workers != null && !awaitWorkers(workers, runningGames)) {
+                    return;
+                }
                 debug("Shutting down server");
                 if (netServer != null) {
                     netServer.finish();
@@ -149,7 +202,60 @@ public strictfp class Server implements Runnable {
                 return;
             }
 
-            GameMaker gameMaker = new GameMaker(currentGame, netServer, options.getBoolean("bc.engine.show-indicators"));
+            if (workers == null) {
+                if (!runGame(currentGame, netServer)) {
+                    return;
+                }
+            } else if (this.state == ServerState.ERROR) {
+                warn("Skipping " + currentGame + " because an earlier game failed");
+            } else {
+                runningGames.add(workers.submit(() -> runGame(currentGame, null)));
+            }
+        }
+    }
+
+    /**
+     * Waits for the games submitted to the worker pool to finish. A game
+     * that threw outside of its matches is reported and puts the server in
+     * the ERROR state, just as a failed match does.
+     *
+     * @param games the results of the submitted games
+     * @return false if interrupted while waiting
+     */
+    private boolean awaitWorkers(ExecutorService workers, List<Future<Boolean>> games) {
+        workers.shutdown();
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                debug("Waiting for running games to finish");
+            }
+            for (Future<Boolean> game : games) {
+                try {
+                    game.get();
+                } catch (ExecutionException e) {
+                    ErrorReporter.report(e.getCause());
+                    this.state = ServerState.ERROR;
+                }
+            }
+        } catch (InterruptedException e) {
+            warn("Interrupted while waiting for games to finish!");
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs all the maps of a game and writes out its replay.
+     *
+     * @param currentGame the game to run
+     * @param netServer the server to send packets to, or null
+     * @return false if a match failed to run
+     */
+    private boolean runGame(GameInfo currentGame, NetServer netServer) {
+        GameMaker gameMaker = new GameMaker(currentGame, netServer, options.getBoolean("bc.engine.show-indicators"),
+                recordMode, options.getInt("bc.server.keyframe-interval"));
+        try {
             gameMaker.makeGameHeader();
 
             debug("Running: "+currentGame);
@@ -170,7 +276,7 @@ public strictfp class Server implements Runnable {
                 } catch (Exception e) {
                     ErrorReporter.report(e);
                     this.state = ServerState.ERROR;
-                    return;
+                    return false;
                 }
 
                 switch (winner) {
@@ -184,8 +290,6 @@ public strictfp class Server implements Runnable {
                         warn("Team "+winner+" won???");
                 }
 
-                currentWorld = null;
-
                 if (currentGame.isBestOfThree()) {
                     if (aWins == 2 || bWins == 2) {
                         break;
@@ -194,10 +298,30 @@ public strictfp class Server implements Runnable {
             }
             Team winner = aWins >= bWins ? Team.A : Team.B;
             gameMaker.makeGameFooter(winner);
-            gameMaker.writeGame(currentGame.getSaveFile());
+            if (recordMode == RecordMode.FULL) {
+                gameMaker.writeGame(currentGame.getSaveFile());
+            } else if (recordMode == RecordMode.SUMMARY) {
+                gameMaker.writeSummary(summaryFile(currentGame.getSaveFile()));
+            }
+            if (gameMaker.getKeyframeOverhead() > 0) {
+                say(String.format("Keyframes made the replay %.1f%% larger before compression",
+                        100 * gameMaker.getKeyframeOverhead()));
+            }
+            return true;
+        } finally {
+            // the spool goes however the game ends
+            gameMaker.close();
         }
     }
     
+    /**
+     * @return where the summary of a game goes in SUMMARY mode: next to
+     *         its save file, which is left alone
+     */
+    static File summaryFile(File saveFile) {
+        return new File(saveFile.getPath() + ".summary.txt");
+    }
+
     private void validateMapOnGameConstants(LiveMap liveMap) {
         // Check map dimensions
         if (liveMap.getWidth() > GameConstants.MAP_MAX_WIDTH) {
@@ -250,12 +374,13 @@ public strictfp class Server implements Runnable {
         }
 
         // Create the game world!
-        currentWorld = new GameWorld(loadedMap, prov, gameMaker.getMatchMaker());
+        final GameWorld currentWorld = new GameWorld(loadedMap, prov, gameMaker.getMatchMaker());
         
         // Validate the map
         validateMapOnGameConstants(currentWorld.getGameMap());
 
         // Get started
+        currentWorlds.add(currentWorld);
         if (interactive) {
             // TODO necessary?
             // Poll for RUNNING, if we're in interactive mode
@@ -266,7 +391,7 @@ public strictfp class Server implements Runnable {
             }
         } else {
             // Start the game immediately if we're not in interactive mode
-            this.state = ServerState.RUNNING;
+            startRunning();
         }
 
         long startTime = System.currentTimeMillis();
@@ -276,28 +401,27 @@ public strictfp class Server implements Runnable {
         // If there are more rounds to be run, run them and
         // and send the round (and optionally stats) bytes to
         // recipients.
-        while (this.state != ServerState.FINISHED) {
-
-            // If not paused/stopped:
-            switch (this.state) {
-
-                case RUNNING:
+        // Other matches may share the server state, so it only tells us
+        // whether to pause; each match keeps track of its own end.
+        boolean finished = false;
+        try {
+            while (!finished) {
+                if (this.state == ServerState.PAUSED) {
+                    Thread.sleep(250);
+                } else {
                     GameState state = currentWorld.runRound();
 
                     if (GameState.DONE.equals(state)) {
-                        this.state = ServerState.FINISHED;
-                        break;
+                        finished = true;
                     }
-
-                    break;
-
-                case PAUSED:
-                    Thread.sleep(250);
-                    break;
+                }
             }
+        } finally {
+            currentWorlds.remove(currentWorld);
         }
+        finishRunning();
 
-        say(getWinnerString(currentGame, currentWorld.getWinner(), currentWorld.getCurrentRound()));
+        say(getWinnerString(currentGame, currentWorld, currentWorld.getWinner(), currentWorld.getCurrentRound()));
         say("-------------------- Match Finished --------------------");
 
         double timeDiff = (System.currentTimeMillis() - startTime) / 1000.0;
@@ -310,16 +434,17 @@ public strictfp class Server implements Runnable {
     // ******************************
 
     /**
-     * Create a RobotControlProvider for a game.
+     * Create a RobotControlProvider for a game. Package-private so tests can
+     * run games without loading players.
      *
      * @param game             the game to provide control for
      * @param gameMaker        the game maker containing the output streams for robot logs
      * @param profilingEnabled whether profiling is enabled or not
      * @return a fresh control provider for the game
      */
-    private RobotControlProvider createControlProvider(GameInfo game,
-                                                       GameMaker gameMaker,
-                                                       boolean profilingEnabled) {
+    RobotControlProvider createControlProvider(GameInfo game,
+                                               GameMaker gameMaker,
+                                               boolean profilingEnabled) {
         // Strictly speaking, this should probably be somewhere in battlecode.world
         // Whatever
 
@@ -368,7 +493,7 @@ public strictfp class Server implements Runnable {
      *
      * @return A string representing the match's winner.
      */
-    public String getWinnerString(GameInfo game, Team winner, int roundNumber) {
+    public String getWinnerString(GameInfo game, GameWorld world, Team winner, int roundNumber) {
 
         String teamName;
 
@@ -392,7 +517,7 @@ public strictfp class Server implements Runnable {
         sb.append(" wins (round ").append(roundNumber).append(")");
 
         sb.append("\nReason: ");
-        GameStats stats = currentWorld.getGameStats();
+        GameStats stats = world.getGameStats();
         DominationFactor dom = stats.getDominationFactor();
 
         switch (dom) {
@@ -417,7 +542,31 @@ public strictfp class Server implements Runnable {
      * @return whether we are actively running a match
      */
     public boolean isRunningMatch() {
-        return currentWorld != null && currentWorld.isRunning();
+        for (GameWorld world : currentWorlds) {
+            if (world.isRunning()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the server as running, unless a match has failed.
+     */
+    private synchronized void startRunning() {
+        if (this.state != ServerState.ERROR) {
+            this.state = ServerState.RUNNING;
+        }
+    }
+
+    /**
+     * Marks the server as finished once no more matches are running,
+     * unless a match has failed.
+     */
+    private synchronized void finishRunning() {
+        if (currentWorlds.isEmpty() && this.state != ServerState.ERROR) {
+            this.state = ServerState.FINISHED;
+        }
     }
 
 
@@ -0,0 +1,69 @@
+package battlecode.world;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-length int array stored in chunks that can be shared with
+ * snapshots. Sharing is copy-on-write: after share(), a chunk is only
+ * copied once it is written to, so a snapshot costs one reference per
+ * chunk plus a copy of each chunk that changes before the next one.
+ */
+final class ChunkedIntArray {
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final int length;
+    private final int[][] chunks;
+
+    /**
+     * Whether each chunk may be referenced by a snapshot, and so has to be
+     * copied before it is written to.
+     */
+    private final boolean[] shared;
+
+    ChunkedIntArray(int[] values) {
+        this.length = values.length;
+        int numChunks = (values.length + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        this.chunks = new int[numChunks][];
+        for (int c = 0; c < numChunks; c++) {
+            int from = c << CHUNK_SHIFT;
+            this.chunks[c] = Arrays.copyOfRange(values, from, Math.min(from + CHUNK_SIZE, values.length));
+        }
+        this.shared = new boolean[numChunks];
+    }
+
+    int length() {
+        return length;
+    }
+
+    int get(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    void set(int index, int value) {
+        int c = index >>> CHUNK_SHIFT;
+        if (shared[c]) {
+            chunks[c] = chunks[c].clone();
+            shared[c] = false;
+        }
+        chunks[c][index & CHUNK_MASK] = value;
+    }
+
+    /**
+     * @return the current contents, which must not be modified; later
+     *         writes to this array leave them unchanged
+     */
+    int[][] share() {
+        Arrays.fill(shared, true);
+        return chunks.clone();
+    }
+
+    /**
+     * Go back to contents returned by share().
+     */
+    void restore(int[][] saved) {
+        System.arraycopy(saved, 0, chunks, 0, chunks.length);
+        Arrays.fill(shared, true);
+    }
+}
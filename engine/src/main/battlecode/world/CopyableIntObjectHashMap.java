@@ -0,0 +1,45 @@
+package battlecode.world;
+
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+/**
+ * A TIntObjectHashMap that can be copied exactly, layout included. The
+ * iteration order of a hash map depends on the whole history of puts and
+ * removes, so a copy built by putting the entries again can iterate in a
+ * different order.
+ */
+final class CopyableIntObjectHashMap<V> extends TIntObjectHashMap<V> {
+    private static final long serialVersionUID = 1L;
+
+    CopyableIntObjectHashMap() {
+        super();
+    }
+
+    /**
+     * @return a map with the same entries that iterates in the same order
+     */
+    CopyableIntObjectHashMap<V> copy() {
+        CopyableIntObjectHashMap<V> copy = new CopyableIntObjectHashMap<>();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Make this map an exact copy of another.
+     */
+    void copyFrom(CopyableIntObjectHashMap<V> other) {
+        this._set = other._set.clone();
+        this._values = other._values.clone();
+        this._states = other._states.clone();
+        this._size = other._size;
+        this._free = other._free;
+        this._loadFactor = other._loadFactor;
+        this._maxSize = other._maxSize;
+        this._autoCompactRemovesRemaining = other._autoCompactRemovesRemaining;
+        this._autoCompactionFactor = other._autoCompactionFactor;
+        this._autoCompactTemporaryDisable = other._autoCompactTemporaryDisable;
+        this.consumeFreeSlot = other.consumeFreeSlot;
+        this.no_entry_key = other.no_entry_key;
+        this.no_entry_value = other.no_entry_value;
+    }
+}
@@ -0,0 +1,129 @@
+package battlecode.world;
+
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.procedure.TObjectProcedure;
+
+import java.util.Arrays;
+
+/**
+ * The order robots are updated in: spawn order.
+ *
+ * Removal is O(1): the robot's slot is tombstoned and skipped by iteration.
+ * Tombstones are compacted away once they make up half of the list, but
+ * never while an iteration is in progress, so robots can be added or
+ * removed from inside an iteration.
+ */
+final class ExecOrderList {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Do not bother compacting lists with fewer tombstones than this.
+     */
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 32;
+
+    /**
+     * Robots in spawn order; null marks a tombstone.
+     */
+    private InternalRobot[] bodies;
+    private int size;
+    private int tombstones;
+
+    /**
+     * Robot ID to slot in bodies.
+     */
+    private final TIntIntHashMap slots;
+
+    /**
+     * How many iterations are currently running.
+     */
+    private int iterating;
+
+    ExecOrderList() {
+        this.bodies = new InternalRobot[INITIAL_CAPACITY];
+        this.size = 0;
+        this.tombstones = 0;
+        this.slots = new TIntIntHashMap(INITIAL_CAPACITY, 0.5f, -1, -1);
+        this.iterating = 0;
+    }
+
+    /**
+     * @return the number of live robots in the list
+     */
+    int size() {
+        return size - tombstones;
+    }
+
+    void add(InternalRobot robot) {
+        if (size == bodies.length) {
+            if (iterating == 0 && tombstones > 0)
+                compact();
+            if (size == bodies.length)
+                bodies = Arrays.copyOf(bodies, 2 * bodies.length);
+        }
+        slots.put(robot.getID(), size);
+        bodies[size++] = robot;
+    }
+
+    void remove(int id) {
+        int slot = slots.remove(id);
+        if (slot < 0)
+            return;
+        bodies[slot] = null;
+        tombstones++;
+        maybeCompact();
+    }
+
+    /**
+     * Remove every robot. Must not be called during an iteration.
+     */
+    void clear() {
+        assert iterating == 0;
+        Arrays.fill(bodies, 0, size, null);
+        size = 0;
+        tombstones = 0;
+        slots.clear();
+    }
+
+    /**
+     * Apply an operation to every robot in spawn order.
+     * Robots added during iteration are not visited;
+     * robots removed during iteration are skipped if not yet visited.
+     * Return false to stop iterating.
+     */
+    void forEach(TObjectProcedure<InternalRobot> op) {
+        int end = size;
+        iterating++;
+        try {
+            for (int i = 0; i < end; i++) {
+                InternalRobot robot = bodies[i];
+                if (robot != null && !op.execute(robot))
+                    break;
+            }
+        } finally {
+            iterating--;
+        }
+        maybeCompact();
+    }
+
+    private void maybeCompact() {
+        if (iterating == 0 && tombstones >= MIN_TOMBSTONES_TO_COMPACT && 2 * tombstones >= size)
+            compact();
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            InternalRobot robot = bodies[i];
+            if (robot == null)
+                continue;
+            if (live != i) {
+                bodies[live] = robot;
+                slots.put(robot.getID(), live);
+            }
+            live++;
+        }
+        Arrays.fill(bodies, live, size, null);
+        size = live;
+        tombstones = 0;
+    }
+}
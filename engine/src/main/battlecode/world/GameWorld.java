@@ -10,6 +10,8 @@ import battlecode.server.GameMaker;
 import battlecode.server.GameState;
 import battlecode.world.control.RobotControlProvider;
 
+import gnu.trove.map.hash.TIntObjectHashMap;
+
 import java.util.*;
 
 /**
@@ -17,6 +19,20 @@ import java.util.*;
  * modifying the game map and the objects on it.
  */
 public strictfp class GameWorld {
+    /**
+     * The largest radiusSquared we keep an offset table for. A larger
+     * radius around any location on a maximum size map covers the whole map.
+     */
+    private static final int MAX_OFFSET_TABLE_RADIUS_SQUARED =
+            (GameConstants.MAP_MAX_WIDTH - 1) * (GameConstants.MAP_MAX_WIDTH - 1) +
+            (GameConstants.MAP_MAX_HEIGHT - 1) * (GameConstants.MAP_MAX_HEIGHT - 1);
+
+    /**
+     * The most offset tables one world keeps. Radii are chosen by players,
+     * so past this many distinct radii the rest are scanned directly.
+     */
+    private static final int MAX_OFFSET_TABLES = 32;
+
     /**
      * The current round we're running.
      */
@@ -31,37 +47,51 @@ public strictfp class GameWorld {
     protected final GameStats gameStats;
 
     private boolean[] walls;
-    private int[] uranium;
+    private final ChunkedIntArray uranium;
+    private final UraniumIndex uraniumIndex;
+    private final TIntObjectHashMap<int[]> offsetTables;
     private MapLocation[] spawnLocs;
-    private InternalRobot[][] robots;
     private final LiveMap gameMap;
     private final TeamInfo teamInfo;
     private final ObjectInfo objectInfo;
+    private final WorldHash worldHash;
 
     private Map<Team, ProfilerCollection> profilerCollections;
 
     private final RobotControlProvider controlProvider;
-    private Random rand;
+    private final RestorableRandom rand;
     private final GameMaker.MatchMaker matchMaker;
 
+    /**
+     * Whether the MatchMaker records rounds; if not, nothing is sent to it
+     * during rounds.
+     */
+    private final boolean recording;
+
     @SuppressWarnings("unchecked")
     public GameWorld(LiveMap gm, RobotControlProvider cp, GameMaker.MatchMaker matchMaker) throws GameActionException {
         this.walls = gm.getWallArray();
-        this.uranium = gm.getUraniumArray();
+        this.uranium = new ChunkedIntArray(gm.getUraniumArray());
+        this.uraniumIndex = new UraniumIndex(gm.getWidth(), gm.getHeight());
+        this.uraniumIndex.rebuild(this.uranium);
+        this.offsetTables = new TIntObjectHashMap<>(MAX_OFFSET_TABLES);
         this.spawnLocs = gm.getSpawnLocs();
-        this.robots = new InternalRobot[gm.getWidth()][gm.getHeight()]; // if represented in cartesian, should be height-width, but this should allow us to index x-y
         this.currentRound = 0;
         this.idGenerator = new IDGenerator(gm.getSeed());
         this.gameStats = new GameStats();
 
         this.gameMap = gm;
         this.objectInfo = new ObjectInfo(gm);
+        this.worldHash = new WorldHash(this.uranium.length());
+        for (int i = 0; i < this.uranium.length(); i++)
+            this.worldHash.uraniumChanged(i, 0, this.uranium.get(i));
 
         this.profilerCollections = new HashMap<>();
 
         this.controlProvider = cp;
-        this.rand = new Random(this.gameMap.getSeed());
+        this.rand = new RestorableRandom(this.gameMap.getSeed());
         this.matchMaker = matchMaker;
+        this.recording = matchMaker.isRecording();
 
         controlProvider.matchStarted(this);
 
@@ -102,7 +132,8 @@ public strictfp class GameWorld {
             }
 
             // Write match footer if game is done
-            matchMaker.makeMatchFooter(gameStats.getWinner(), currentRound, profilers);
+            matchMaker.makeMatchFooter(gameStats.getWinner(), gameStats.getDominationFactor(), currentRound,
+                    worldHash.get(), profilers);
             return GameState.DONE;
         }
 
@@ -129,7 +160,10 @@ public strictfp class GameWorld {
             return GameState.DONE;
         }
         // Write out round data
-        matchMaker.makeRound(currentRound);
+        matchMaker.makeRound(currentRound, worldHash.get());
+        if (matchMaker.isKeyframeRound(currentRound)) {
+            matchMaker.makeKeyframe(currentRound, this);
+        }
         return GameState.RUNNING;
     }
 
@@ -162,6 +196,13 @@ public strictfp class GameWorld {
         return true;
     }
 
+    /**
+     * Charge the running robot bytecodes for work done on its behalf.
+     */
+    void chargeBytecodes(InternalRobot robot, int numBytecodes) {
+        this.controlProvider.chargeBytecodes(robot, numBytecodes);
+    }
+
     // *********************************
     // ****** BASIC MAP METHODS ********
     // *********************************
@@ -190,6 +231,28 @@ public strictfp class GameWorld {
         return this.matchMaker;
     }
 
+    /**
+     * @return a 64-bit hash of the robots, uranium and team uranium, which
+     *         is the same for the same state on any machine; between rounds,
+     *         the hash of the round that just ended
+     */
+    public long getWorldHash() {
+        return this.worldHash.get();
+    }
+
+    WorldHash getHash() {
+        return this.worldHash;
+    }
+
+    /**
+     * @return whether rounds are being recorded, so that there is any
+     *         point in sending moves, actions and indicators to the
+     *         MatchMaker
+     */
+    public boolean isRecording() {
+        return this.recording;
+    }
+
     public Team getWinner() {
         return this.gameStats.getWinner();
     }
@@ -207,11 +270,24 @@ public strictfp class GameWorld {
     }
 
     public int getUranium(MapLocation loc) {
-        return this.uranium[locationToIndex(loc)];
+        return this.uranium.get(locationToIndex(loc));
+    }
+
+    /**
+     * @param index a cell index, as given by locationToIndex
+     */
+    public int getUraniumAtIndex(int index) {
+        return this.uranium.get(index);
     }
 
     public void setUranium(MapLocation loc, int amount) {
-        this.uranium[locationToIndex(loc)] = amount;
+        setUraniumAtIndex(locationToIndex(loc), amount);
+    }
+
+    private void setUraniumAtIndex(int index, int amount) {
+        this.worldHash.uraniumChanged(index, this.uranium.get(index), amount);
+        this.uranium.set(index, amount);
+        this.uraniumIndex.set(index, amount > 0);
     }
 
     public MapLocation getSpawnLoc(Team team) {
@@ -246,65 +322,168 @@ public strictfp class GameWorld {
     }
 
     public InternalRobot getRobot(MapLocation loc) {
-        return this.robots[loc.x - this.gameMap.getOrigin().x][loc.y - this.gameMap.getOrigin().y];
-    }
-
-    public void moveRobot(MapLocation start, MapLocation end) {
-        addRobot(end, getRobot(start));
-        removeRobot(start);
+        return this.objectInfo.getRobotAt(loc);
     }
 
     public void addRobot(MapLocation loc, InternalRobot robot) {
-        this.robots[loc.x - this.gameMap.getOrigin().x][loc.y - this.gameMap.getOrigin().y] = robot;
+        this.objectInfo.placeRobot(loc, robot);
     }
 
     public void removeRobot(MapLocation loc) {
-        this.robots[loc.x - this.gameMap.getOrigin().x][loc.y - this.gameMap.getOrigin().y] = null;
+        this.objectInfo.clearLocation(loc);
     }
 
     public InternalRobot[] getAllRobots(){
-        ArrayList<InternalRobot> returnRobots = new ArrayList<InternalRobot>();
-        for (int i = 0; i < this.robots.length; i++)
-            for (int j = 0; j < this.robots[0].length; j++){
-                MapLocation newLocation = new MapLocation(i, j);
-                if (getRobot(newLocation) != null)
-                    returnRobots.add(getRobot(newLocation));
-            }
-        return returnRobots.toArray(new InternalRobot[returnRobots.size()]);
+        return this.objectInfo.getAllRobotsOnMap();
     }
 
     public InternalRobot[] getAllRobotsWithinRadiusSquared(MapLocation center, int radiusSquared) {
         ArrayList<InternalRobot> returnRobots = new ArrayList<InternalRobot>();
-        for (MapLocation newLocation : getAllLocationsWithinRadiusSquared(center, radiusSquared))
-            if (getRobot(newLocation) != null)
-                returnRobots.add(getRobot(newLocation));
+        forEachLocationWithinRadiusSquared(center, radiusSquared, (x, y, index) -> {
+            InternalRobot robot = this.objectInfo.getRobotAtIndex(index);
+            if (robot != null)
+                returnRobots.add(robot);
+            return true;
+        });
         return returnRobots.toArray(new InternalRobot[returnRobots.size()]);
     }
 
     public MapLocation[] getAllLocationsWithinRadiusSquared(MapLocation center, int radiusSquared) {
-
         ArrayList<MapLocation> returnLocations = new ArrayList<MapLocation>();
+        forEachLocationWithinRadiusSquared(center, radiusSquared, (x, y, index) -> {
+            returnLocations.add(new MapLocation(x, y));
+            return true;
+        });
+        return returnLocations.toArray(new MapLocation[returnLocations.size()]);
+    }
+
+    // *********************************
+    // ****** RADIUS QUERIES ***********
+    // *********************************
+
+    /**
+     * Callback for radius queries. Receives the world coordinates of a
+     * location and its cell index (see locationToIndex).
+     * Return false to stop iterating.
+     */
+    @FunctionalInterface
+    public interface LocationProcedure {
+        boolean execute(int x, int y, int index);
+    }
+
+    public void forEachLocationWithinRadiusSquared(MapLocation center, int radiusSquared, LocationProcedure op) {
+        forEachLocationWithinRadiusSquared(center.x, center.y, radiusSquared, op);
+    }
+
+    /**
+     * Apply an operation to every on-map location within radiusSquared of
+     * (centerX, centerY), ordered by x and then by y. The center does not have
+     * to be on the map. Nothing is allocated per location.
+     *
+     * @param op a lambda (x, y, index) -> boolean
+     */
+    public void forEachLocationWithinRadiusSquared(int centerX, int centerY, int radiusSquared, LocationProcedure op) {
+        if (radiusSquared < 0)
+            return;
 
         MapLocation origin = this.gameMap.getOrigin();
         int width = this.gameMap.getWidth();
-        int height = this.gameMap.getHeight();
-        
-        int ceiledRadius = (int) Math.ceil(Math.sqrt(radiusSquared));
-        int minX = Math.max(center.x - ceiledRadius, origin.x);
-        int minY = Math.max(center.y - ceiledRadius, origin.y);
-        int maxX = Math.min(center.x + ceiledRadius, origin.x + width - 1);
-        int maxY = Math.min(center.y + ceiledRadius, origin.y + height - 1);
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                MapLocation newLocation = new MapLocation(x, y);
-                if (center.isWithinDistanceSquared(newLocation, radiusSquared))
-                    returnLocations.add(newLocation);
+        int minX = origin.x;
+        int minY = origin.y;
+        int maxX = origin.x + width - 1;
+        int maxY = origin.y + this.gameMap.getHeight() - 1;
+
+        long farX = Math.max(Math.abs((long) centerX - minX), Math.abs((long) centerX - maxX));
+        long farY = Math.max(Math.abs((long) centerY - minY), Math.abs((long) centerY - maxY));
+        if (radiusSquared >= farX * farX + farY * farY) {
+            // The whole map is in range
+            for (int x = minX; x <= maxX; x++)
+                for (int y = minY; y <= maxY; y++)
+                    if (!op.execute(x, y, (x - minX) + (y - minY) * width))
+                        return;
+            return;
+        }
+
+        int[] offsets = getOffsetTable(radiusSquared);
+        if (offsets != null) {
+            for (int i = 0; i < offsets.length; i += 2) {
+                int x = centerX + offsets[i];
+                if (x < minX)
+                    continue;
+                if (x > maxX)
+                    break;
+                int y = centerY + offsets[i + 1];
+                if (y < minY || y > maxY)
+                    continue;
+                if (!op.execute(x, y, (x - minX) + (y - minY) * width))
+                    return;
             }
+            return;
         }
-        return returnLocations.toArray(new MapLocation[returnLocations.size()]);
+
+        // No table for this radius (too big, or too many radii in use this
+        // match), so scan the clipped bounding box instead.
+        long ceiledRadius = (long) Math.ceil(Math.sqrt(radiusSquared));
+        int boxMinX = (int) Math.max(centerX - ceiledRadius, minX);
+        int boxMinY = (int) Math.max(centerY - ceiledRadius, minY);
+        int boxMaxX = (int) Math.min(centerX + ceiledRadius, maxX);
+        int boxMaxY = (int) Math.min(centerY + ceiledRadius, maxY);
+        for (int x = boxMinX; x <= boxMaxX; x++) {
+            long dx = x - (long) centerX;
+            for (int y = boxMinY; y <= boxMaxY; y++) {
+                long dy = y - (long) centerY;
+                if (dx * dx + dy * dy <= radiusSquared)
+                    if (!op.execute(x, y, (x - minX) + (y - minY) * width))
+                        return;
+            }
+        }
+    }
+
+    /**
+     * Apply an operation to every on-map location within radiusSquared of
+     * center that has uranium, in the same order as
+     * forEachLocationWithinRadiusSquared. Only cells with uranium are
+     * looked at, so this is much cheaper than filtering that.
+     *
+     * @param op a lambda (x, y, index) -> boolean
+     */
+    public void forEachLocationWithUraniumWithinRadiusSquared(MapLocation center, int radiusSquared,
+                                                             LocationProcedure op) {
+        MapLocation origin = this.gameMap.getOrigin();
+        this.uraniumIndex.forEachWithinRadiusSquared(origin.x, origin.y, center.x, center.y, radiusSquared, op);
+    }
+
+    /**
+     * Get the offsets of every location within radiusSquared of the origin,
+     * as (dx, dy) pairs ordered by dx and then by dy. Tables are built on
+     * first use and kept for the rest of the match.
+     *
+     * @return the table, or null if radiusSquared is too big or this world
+     *         already keeps MAX_OFFSET_TABLES tables
+     */
+    private int[] getOffsetTable(int radiusSquared) {
+        int[] offsets = offsetTables.get(radiusSquared);
+        if (offsets != null)
+            return offsets;
+        if (radiusSquared > MAX_OFFSET_TABLE_RADIUS_SQUARED || offsetTables.size() >= MAX_OFFSET_TABLES)
+            return null;
+
+        int radius = (int) Math.sqrt(radiusSquared);
+        int count = 0;
+        int[] buffer = new int[2 * (2 * radius + 1) * (2 * radius + 1)];
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                if (dx * dx + dy * dy <= radiusSquared) {
+                    buffer[count++] = dx;
+                    buffer[count++] = dy;
+                }
+            }
+        }
+        offsets = Arrays.copyOf(buffer, count);
+        offsetTables.put(radiusSquared, offsets);
+        return offsets;
     }
 
-  
     // *********************************
     // ****** GAMEPLAY *****************
     // *********************************
@@ -342,15 +521,9 @@ public strictfp class GameWorld {
     public boolean setWinnerIfNoMoreRobots() {
 
         int[] totalRobots = new int[2];
-        
-        // sum live robots worth
-        for (InternalRobot robot : objectInfo.robotsArray()) {
-            if (robot.getType() == RobotType.CONTROLLER) {
-                continue;
-            }
-            totalRobots[robot.getTeam().ordinal()] += 1;
-        }
-        
+        totalRobots[Team.A.ordinal()] = objectInfo.getRosterSize(Team.A);
+        totalRobots[Team.B.ordinal()] = objectInfo.getRosterSize(Team.B);
+
         if (totalRobots[0] == 0 && totalRobots[1] == 0) {
             initiateTieBreakers();
             return true;
@@ -376,8 +549,10 @@ public strictfp class GameWorld {
         totalUraniumValues[Team.B.ordinal()] += this.teamInfo.getUranium(Team.B);
         
         // sum live robots worth
-        for (InternalRobot robot : objectInfo.robotsArray())
+        objectInfo.eachRobot((robot) -> {
             totalUraniumValues[robot.getTeam().ordinal()] += robot.getHealth();
+            return true;
+        });
         
         if (Math.abs(totalUraniumValues[0] - totalUraniumValues[1]) < GameConstants.FLOAT_EQUALITY_THRESHOLD) {
             return false;
@@ -447,14 +622,18 @@ public strictfp class GameWorld {
 
         // Add uranium resources to the map
         if (this.currentRound % GameConstants.ADD_URANIUM_EVERY_ROUNDS == 0) {
-            for (int i = 0; i < this.uranium.length; i++)
-                if (this.uranium[i] > 0)
-                    this.uranium[i] += GameConstants.ADD_URANIUM;
+            for (int i = 0; i < this.uraniumIndex.size(); i++) {
+                int index = this.uraniumIndex.cellAt(i);
+                setUraniumAtIndex(index, this.uranium.get(index) + GameConstants.ADD_URANIUM);
+            }
         }
 
-        this.matchMaker.addTeamInfo(Team.A, this.teamInfo.getRoundUraniumChange(Team.A), this.teamInfo.getRoundUraniumMined(Team.A), getRobotByID(this.teamInfo.getControllerID(Team.A)).getBytecodesUsed());
-        this.matchMaker.addTeamInfo(Team.B, this.teamInfo.getRoundUraniumChange(Team.B), this.teamInfo.getRoundUraniumMined(Team.B), getRobotByID(this.teamInfo.getControllerID(Team.B)).getBytecodesUsed());
+        if (this.recording) {
+            this.matchMaker.addTeamInfo(Team.A, this.teamInfo.getRoundUraniumChange(Team.A), this.teamInfo.getRoundUraniumMined(Team.A), getRobotByID(this.teamInfo.getControllerID(Team.A)).getBytecodesUsed());
+            this.matchMaker.addTeamInfo(Team.B, this.teamInfo.getRoundUraniumChange(Team.B), this.teamInfo.getRoundUraniumMined(Team.B), getRobotByID(this.teamInfo.getControllerID(Team.B)).getBytecodesUsed());
+        }
         this.teamInfo.processEndOfRound();
+        this.objectInfo.compactRosters();
 
         if (perceivedEndOfRound) {
             setWinnerIfNoMoreRobots();
@@ -481,8 +660,9 @@ public strictfp class GameWorld {
         MapLocation spawnLoc = getSpawnLoc(team);
         InternalRobot robot = new InternalRobot(this, ID, type, spawnLoc, health, team);
         objectInfo.spawnRobot(robot);
-        addRobot(spawnLoc, robot);
-        matchMaker.addSpawnedRobot(robot);
+        worldHash.toggleRobot(robot);
+        if (recording)
+            matchMaker.addSpawnedRobot(robot);
         return ID;
     }
 
@@ -505,9 +685,57 @@ public strictfp class GameWorld {
             return;
         }
 
-        removeRobot(robot.getLocation());
+        worldHash.toggleRobot(robot);
         objectInfo.destroyRobot(id);
-        matchMaker.addDied(id);
+        if (recording)
+            matchMaker.addDied(id);
+    }
+
+    // *********************************
+    // ****** SNAPSHOTS ****************
+    // *********************************
+
+    /**
+     * Capture the state of the world, to go back to later with restore().
+     * Must be called between rounds.
+     *
+     * Uranium shares storage with the world until it changes, and robots
+     * are saved as a compact copy of their mutable fields, so a snapshot is
+     * much smaller than a copy of the world.
+     */
+    public synchronized WorldSnapshot snapshot() {
+        return new WorldSnapshot(this, currentRound, running,
+                gameStats.getWinner(), gameStats.getDominationFactor(),
+                uranium.share(), new TeamInfo(teamInfo), new IDGenerator(idGenerator),
+                rand.getState(), objectInfo.snapshot(), worldHash.get());
+    }
+
+    /**
+     * Go back to the state captured by snapshot(). Must be called between
+     * rounds. A snapshot can be restored any number of times.
+     *
+     * Only the world goes back: the control provider is not told about
+     * robots that come back or disappear, and rounds already written to
+     * the MatchMaker stay written.
+     *
+     * @param snapshot a snapshot of this world
+     * @throws IllegalArgumentException if the snapshot is of another world
+     */
+    public synchronized void restore(WorldSnapshot snapshot) {
+        if (snapshot.world != this)
+            throw new IllegalArgumentException("Snapshot was taken from a different world");
+
+        this.currentRound = snapshot.round;
+        this.running = snapshot.running;
+        this.gameStats.setWinner(snapshot.winner);
+        this.gameStats.setDominationFactor(snapshot.dominationFactor);
+        this.uranium.restore(snapshot.uranium);
+        this.uraniumIndex.rebuild(this.uranium);
+        this.teamInfo.restore(snapshot.teamInfo);
+        this.idGenerator.restore(snapshot.idGenerator);
+        this.rand.setState(snapshot.randState);
+        this.objectInfo.restore(snapshot.objects);
+        this.worldHash.set(snapshot.worldHash);
     }
 
     // *********************************
@@ -1,7 +1,5 @@
 package battlecode.world;
 
-import java.util.Random;
-
 /**
  * Class that generates a sequence of unique pseudorandom
  * positive integer IDs for robots.
@@ -21,14 +19,15 @@ public class IDGenerator {
     public static final int MIN_ID = 10000;
 
     /**
-     * The block of reserved IDs we walk through.
+     * The block of reserved IDs we walk through. A new array is made for
+     * every block, so copies of the generator can share it.
      */
-    private final int[] reservedIDs;
+    private int[] reservedIDs;
 
     /**
      * The random generator used to shuffle blocks.
      */
-    private final Random random;
+    private final RestorableRandom random;
 
     /**
      * Where we are in the current block.
@@ -46,12 +45,33 @@ public class IDGenerator {
      * @param seed the random seed to use.
      */
     public IDGenerator(int seed) {
-        this.random = new Random(seed);
-        this.reservedIDs = new int[ID_BLOCK_SIZE];
+        this.random = new RestorableRandom(seed);
 
         setStart(MIN_ID);
     }
 
+    /**
+     * Create a copy of a generator, which will hand out the same IDs.
+     *
+     * @param other the generator to copy
+     */
+    public IDGenerator(IDGenerator other) {
+        this.random = new RestorableRandom(0);
+        restore(other);
+    }
+
+    /**
+     * Go back to the state of a copy made earlier.
+     *
+     * @param saved a copy of this generator
+     */
+    public void restore(IDGenerator saved) {
+        this.reservedIDs = saved.reservedIDs;
+        this.random.setState(saved.random.getState());
+        this.cursor = saved.cursor;
+        this.nextIDBlock = saved.nextIDBlock;
+    }
+
     /**
      * @return a new ID
      */
@@ -77,18 +97,20 @@ public class IDGenerator {
 
         this.cursor = 0;
 
+        int[] block = new int[ID_BLOCK_SIZE];
         for (int i = 0; i < ID_BLOCK_SIZE; i++) {
-            this.reservedIDs[i] = this.nextIDBlock + i + 1;
+            block[i] = this.nextIDBlock + i + 1;
         }
 
         // fisher-yates shuffle
         for (int i = ID_BLOCK_SIZE - 1; i > 0; i--) {
             int index = this.random.nextInt(i+1);
             // swap
-            int a = this.reservedIDs[index];
-            this.reservedIDs[index] = this.reservedIDs[i];
-            this.reservedIDs[i] = a;
+            int a = block[index];
+            block[index] = block[i];
+            block[i] = a;
         }
+        this.reservedIDs = block;
 
         this.nextIDBlock += ID_BLOCK_SIZE;
     }
@@ -117,6 +117,10 @@ public strictfp class InternalRobot implements Comparable<InternalRobot> {
         return cooldownTurns;
     }
 
+    public String getIndicatorString() {
+        return indicatorString;
+    }
+
     public RobotInfo getRobotInfo() {
         if (cachedRobotInfo != null
                 && cachedRobotInfo.ID == ID
@@ -162,6 +166,7 @@ public strictfp class InternalRobot implements Comparable<InternalRobot> {
      */
     public void setLocation(MapLocation loc) {
         this.gameWorld.getObjectInfo().moveRobot(this, loc);
+        this.gameWorld.getHash().robotMoved(this, this.location, loc);
         this.location = loc;
     }
 
@@ -185,6 +190,7 @@ public strictfp class InternalRobot implements Comparable<InternalRobot> {
      * @param newActionTurns the number of cooldown turns
      */
     public void setCooldownTurns(int newTurns) {
+        this.gameWorld.getHash().robotCooldownChanged(this, this.cooldownTurns, newTurns);
         this.cooldownTurns = newTurns;
     }
 
@@ -197,9 +203,10 @@ public strictfp class InternalRobot implements Comparable<InternalRobot> {
     public void damageHealth(float healthAmount) throws GameActionException {
         float oldHealth = this.health;
         this.health -= healthAmount;
+        this.gameWorld.getHash().robotHealthChanged(this, oldHealth, this.health);
         if (this.health <= 0) {
             this.gameWorld.destroyRobot(this.ID);
-        } else if (this.health != oldHealth) {
+        } else if (this.health != oldHealth && this.gameWorld.isRecording()) {
             this.gameWorld.getMatchMaker().addAction(getID(), Action.CHANGE_HEALTH, (int)((this.health - oldHealth) * 1000));
         }
     }
@@ -250,7 +257,7 @@ public strictfp class InternalRobot implements Comparable<InternalRobot> {
 
     public void processBeginningOfTurn() {
         if (this.type == RobotType.ROBOT) {
-            this.cooldownTurns = Math.max(0, this.cooldownTurns - GameConstants.COOLDOWNS_PER_TURN);
+            setCooldownTurns(Math.max(0, this.cooldownTurns - GameConstants.COOLDOWNS_PER_TURN));
         } else {
             this.currentBytecodeLimit = this.type.bytecodeLimit;
         }
@@ -261,7 +268,7 @@ public strictfp class InternalRobot implements Comparable<InternalRobot> {
         if (this.type == RobotType.CONTROLLER)
             return;
         // indicator strings!
-        if (this.type == RobotType.ROBOT)
+        if (this.type == RobotType.ROBOT && this.gameWorld.isRecording())
             this.gameWorld.getMatchMaker().addIndicatorString(this.ID, this.indicatorString);
     }
 
@@ -304,10 +311,36 @@ public strictfp class InternalRobot implements Comparable<InternalRobot> {
     }
 
     public void die_exception() throws GameActionException {
-        this.gameWorld.getMatchMaker().addAction(getID(), Action.DIE_EXCEPTION, -1);
+        if (this.gameWorld.isRecording())
+            this.gameWorld.getMatchMaker().addAction(getID(), Action.DIE_EXCEPTION, -1);
         this.gameWorld.destroyRobot(getID());
     }
 
+    // *********************************
+    // ****** SNAPSHOT METHODS *********
+    // *********************************
+
+    int getCurrentBytecodeLimit() {
+        return currentBytecodeLimit;
+    }
+
+    /**
+     * Puts back state saved in a world snapshot. The world's spatial index
+     * is not updated; the caller rebuilds it.
+     */
+    void restoreState(MapLocation location, float health, long controlBits, int currentBytecodeLimit,
+                      int bytecodesUsed, int roundsAlive, int cooldownTurns, String indicatorString) {
+        this.location = location;
+        this.health = health;
+        this.controlBits = controlBits;
+        this.currentBytecodeLimit = currentBytecodeLimit;
+        this.bytecodesUsed = bytecodesUsed;
+        this.roundsAlive = roundsAlive;
+        this.cooldownTurns = cooldownTurns;
+        this.indicatorString = indicatorString;
+        this.cachedRobotInfo = null;
+    }
+
     // *****************************************
     // ****** MISC. METHODS ********************
     // *****************************************
@@ -5,18 +5,13 @@ import battlecode.common.MapLocation;
 import battlecode.common.RobotType;
 import battlecode.common.Team;
 
-import gnu.trove.list.array.TIntArrayList;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.procedure.TIntObjectProcedure;
 import gnu.trove.procedure.TIntProcedure;
 
 import gnu.trove.procedure.TObjectProcedure;
-import net.sf.jsi.SpatialIndex;
-import net.sf.jsi.rtree.RTree;
-import net.sf.jsi.Rectangle;
-import net.sf.jsi.Point;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.Map;
@@ -31,11 +26,23 @@ public strictfp class ObjectInfo {
     private final int mapHeight;
     private final MapLocation mapTopLeft;
 
-    private final TIntObjectHashMap<InternalRobot> gameRobotsByID;
+    private final CopyableIntObjectHashMap<InternalRobot> gameRobotsByID;
 
-    private final SpatialIndex robotIndex;
+    /**
+     * Dense grid of the robots on the map, indexed by
+     * (x - origin.x) + (y - origin.y) * width. At most one robot can
+     * occupy a location, so every cell is its own bucket.
+     */
+    private final InternalRobot[] robotGrid;
 
-    private final TIntArrayList dynamicBodyExecOrder;
+    private final ExecOrderList dynamicBodyExecOrder;
+
+    /**
+     * Live robots of each team in spawn order, indexed by team ordinal.
+     * Controllers have no location and are not listed.
+     */
+    private final RobotRoster[] rosters;
+    private int nextSpawnSeq;
 
     private Map<Team, Map<RobotType, Integer>> robotTypeCount = new EnumMap<>(
             Team.class);
@@ -46,13 +53,16 @@ public strictfp class ObjectInfo {
         this.mapHeight = gm.getHeight();
         this.mapTopLeft = gm.getOrigin();
 
-        this.gameRobotsByID = new TIntObjectHashMap<>();
+        this.gameRobotsByID = new CopyableIntObjectHashMap<>();
 
-        robotIndex = new RTree();
+        this.robotGrid = new InternalRobot[mapWidth * mapHeight];
 
-        dynamicBodyExecOrder = new TIntArrayList();
+        dynamicBodyExecOrder = new ExecOrderList();
 
-        robotIndex.init(null);
+        this.rosters = new RobotRoster[Team.values().length];
+        for (int i = 0; i < this.rosters.length; i++)
+            this.rosters[i] = new RobotRoster();
+        this.nextSpawnSeq = 0;
 
         robotTypeCount.put(Team.A, new EnumMap<>(
                 RobotType.class));
@@ -93,21 +103,7 @@ public strictfp class ObjectInfo {
      * @param op a lambda (body) -> void
      */
     public void eachDynamicBodyByExecOrder(TObjectProcedure<InternalRobot> op) {
-        // We can't modify the ArrayList we are looping over
-        int[] spawnOrderArray = dynamicBodyExecOrder.toArray();
-
-        for (int id : spawnOrderArray) {
-            // Check if body still exists.
-            if (existsRobot(id)) {
-                boolean returnedTrue = op.execute(gameRobotsByID.get(id));
-                if (!returnedTrue)
-                    break;
-            } else {
-                // The body does not exist, so it was deleted in an earlier
-                // iteration and should be skipped.
-                continue;
-            }
-        }
+        dynamicBodyExecOrder.forEach(op);
     }
 
     /**
@@ -128,15 +124,133 @@ public strictfp class ObjectInfo {
         return robotCount[team.ordinal()];
     }
 
+    /**
+     * @return the number of robots of the team on the map, i.e. not
+     *         counting its controller
+     */
+    public int getRosterSize(Team team) {
+        return rosters[team.ordinal()].size();
+    }
+
+    /**
+     * Apply an operation to every robot on the map within radiusSquared of
+     * center, in spawn order. Controllers are never included.
+     * Return false to stop iterating.
+     *
+     * This walks the team rosters rather than the map, so it costs time
+     * proportional to the number of robots rather than the area covered.
+     *
+     * @param center the center of the query; need not be on the map
+     * @param radiusSquared the query radius; Integer.MAX_VALUE covers the whole map
+     * @param team only robots of this team, or null for every team
+     * @param op a lambda (robot) -> boolean
+     */
+    public void eachRobotWithinRadiusSquared(MapLocation center, int radiusSquared, Team team,
+                                             TObjectProcedure<InternalRobot> op) {
+        if (team != null) {
+            RobotRoster roster = rosters[team.ordinal()];
+            for (int i = 0; i < roster.length(); i++) {
+                InternalRobot robot = roster.get(i);
+                if (robot != null && inRange(roster, i, center, radiusSquared) && !op.execute(robot))
+                    return;
+            }
+            return;
+        }
+
+        // Merge the rosters back into global spawn order.
+        int[] cursors = new int[rosters.length];
+        while (true) {
+            RobotRoster next = null;
+            int nextTeam = -1;
+            for (int t = 0; t < rosters.length; t++) {
+                if (cursors[t] < rosters[t].length() && (next == null ||
+                        rosters[t].getSpawnSeq(cursors[t]) < next.getSpawnSeq(cursors[nextTeam]))) {
+                    next = rosters[t];
+                    nextTeam = t;
+                }
+            }
+            if (next == null)
+                return;
+            int slot = cursors[nextTeam]++;
+            InternalRobot robot = next.get(slot);
+            if (robot != null && inRange(next, slot, center, radiusSquared) && !op.execute(robot))
+                return;
+        }
+    }
+
+    /**
+     * Drop the slots that dead robots left in the team rosters. Called
+     * once a round, so deaths cost O(1) each. Must not be called while
+     * iterating over robots.
+     */
+    public void compactRosters() {
+        for (RobotRoster roster : rosters)
+            roster.compact();
+    }
+
+    private static boolean inRange(RobotRoster roster, int slot, MapLocation center, int radiusSquared) {
+        long dx = roster.getX(slot) - (long) center.x;
+        long dy = roster.getY(slot) - (long) center.y;
+        return dx * dx + dy * dy <= radiusSquared;
+    }
+
     public InternalRobot getRobotByID(int id) {
         return gameRobotsByID.get(id);
     }
 
+    /**
+     * Moves a robot in the spatial index. Must be called before the robot's
+     * own location is updated.
+     */
     public void moveRobot(InternalRobot robot, MapLocation newLocation) {
-        MapLocation loc = robot.getLocation();
+        int oldIndex = locationToIndex(robot.getLocation());
+        if (robotGrid[oldIndex] == robot)
+            robotGrid[oldIndex] = null;
+        robotGrid[locationToIndex(newLocation)] = robot;
+        rosters[robot.getTeam().ordinal()].move(robot, newLocation);
+    }
 
-        robotIndex.delete(fromPoint(loc),robot.getID());
-        robotIndex.add(fromPoint(newLocation),robot.getID());
+    // ****************************
+    // *** SPATIAL QUERIES ********
+    // ****************************
+
+    public InternalRobot getRobotAt(MapLocation loc) {
+        return robotGrid[locationToIndex(loc)];
+    }
+
+    /**
+     * @param index a cell index, as given by GameWorld.locationToIndex
+     */
+    public InternalRobot getRobotAtIndex(int index) {
+        return robotGrid[index];
+    }
+
+    /**
+     * Puts a robot on a location, replacing whatever was there.
+     * Used while resolving collisions; spawns and moves keep the
+     * grid up to date on their own.
+     */
+    public void placeRobot(MapLocation loc, InternalRobot robot) {
+        robotGrid[locationToIndex(loc)] = robot;
+    }
+
+    public void clearLocation(MapLocation loc) {
+        robotGrid[locationToIndex(loc)] = null;
+    }
+
+    /**
+     * Get every robot on the map, ordered by x and then by y.
+     */
+    public InternalRobot[] getAllRobotsOnMap() {
+        ArrayList<InternalRobot> returnRobots = new ArrayList<>();
+        for (int x = 0; x < mapWidth; x++) {
+            for (int y = 0; y < mapHeight; y++) {
+                InternalRobot robot = robotGrid[x + y * mapWidth];
+                if (robot != null)
+                    returnRobots.add(robot);
+            }
+        }
+        return returnRobots.toArray(new InternalRobot[returnRobots.size()]);
     }
 
     // ****************************
@@ -148,7 +262,7 @@ public strictfp class ObjectInfo {
         incrementRobotTypeCount(robot.getTeam(), robot.getType());
         int id = robot.getID();
         gameRobotsByID.put(id, robot);
-        dynamicBodyExecOrder.add(id);
+        dynamicBodyExecOrder.add(robot);
     }
 
     public void spawnRobot(InternalRobot robot) {
@@ -158,10 +272,10 @@ public strictfp class ObjectInfo {
         int id = robot.getID();
         gameRobotsByID.put(id, robot);
 
-        dynamicBodyExecOrder.add(id);
+        dynamicBodyExecOrder.add(robot);
 
-        MapLocation loc = robot.getLocation();
-        robotIndex.add(fromPoint(loc),robot.getID());
+        robotGrid[locationToIndex(robot.getLocation())] = robot;
+        rosters[robot.getTeam().ordinal()].add(robot, nextSpawnSeq++);
     }
 
     // ****************************
@@ -190,32 +304,123 @@ public strictfp class ObjectInfo {
         decrementRobotCount(robot.getTeam());
         decrementRobotTypeCount(robot.getTeam(), robot.getType());
 
-        MapLocation loc = robot.getLocation();
         gameRobotsByID.remove(id);
         dynamicBodyExecOrder.remove(id);
-        robotIndex.delete(fromPoint(loc),id);
+
+        // A robot that lost a collision may already have been replaced
+        // on its location, so only clear the cell if we still own it.
+        int index = locationToIndex(robot.getLocation());
+        if (robotGrid[index] == robot)
+            robotGrid[index] = null;
+        rosters[robot.getTeam().ordinal()].remove(robot);
     }
-    
+
     // ****************************
-    // *** PLAYER METHODS *********
+    // *** SNAPSHOTS **************
     // ****************************
 
-    private Rectangle fromPoint(float x, float y) {
-        return new Rectangle(x,y,x,y);
+    /**
+     * The live robots and their mutable state, in spawn order.
+     * The grid, rosters and counts are rebuilt from it on restore; the ID
+     * table is copied whole, so eachRobot keeps its order.
+     */
+    static final class Snapshot {
+        private final CopyableIntObjectHashMap<InternalRobot> robotsByID;
+        private final InternalRobot[] robots;
+        private final int[] spawnSeqs;
+        private final int nextSpawnSeq;
+
+        private final MapLocation[] locations;
+        private final float[] healths;
+        private final long[] controlBits;
+        private final int[] bytecodeLimits;
+        private final int[] bytecodesUsed;
+        private final int[] roundsAlive;
+        private final int[] cooldownTurns;
+        private final String[] indicatorStrings;
+
+        private Snapshot(ObjectInfo info) {
+            int size = info.dynamicBodyExecOrder.size();
+            this.robotsByID = info.gameRobotsByID.copy();
+            this.robots = new InternalRobot[size];
+            this.spawnSeqs = new int[size];
+            this.nextSpawnSeq = info.nextSpawnSeq;
+            this.locations = new MapLocation[size];
+            this.healths = new float[size];
+            this.controlBits = new long[size];
+            this.bytecodeLimits = new int[size];
+            this.bytecodesUsed = new int[size];
+            this.roundsAlive = new int[size];
+            this.cooldownTurns = new int[size];
+            this.indicatorStrings = new String[size];
+
+            int[] i = {0};
+            info.dynamicBodyExecOrder.forEach((robot) -> {
+                int slot = i[0]++;
+                robots[slot] = robot;
+                spawnSeqs[slot] = robot.getType() == RobotType.CONTROLLER ? -1
+                        : info.rosters[robot.getTeam().ordinal()].getSpawnSeqOf(robot);
+                locations[slot] = robot.getLocation();
+                healths[slot] = robot.getHealth();
+                controlBits[slot] = robot.getControlBits();
+                bytecodeLimits[slot] = robot.getCurrentBytecodeLimit();
+                bytecodesUsed[slot] = robot.getBytecodesUsed();
+                roundsAlive[slot] = robot.getRoundsAlive();
+                cooldownTurns[slot] = robot.getCooldownTurns();
+                indicatorStrings[slot] = robot.getIndicatorString();
+                return true;
+            });
+        }
     }
 
-    private Rectangle fromPoint(Point p) {
-        return new Rectangle(p.x,p.y,p.x,p.y);
+    /**
+     * Save the robots and their state. Must not be called while
+     * iterating over robots.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
     }
 
-    private Rectangle fromPoint(MapLocation loc) {
-        return new Rectangle(loc.x,loc.y,loc.x,loc.y);
+    /**
+     * Go back to the robots and state in a snapshot of this ObjectInfo.
+     * Robots that have died since come back; robots spawned since are
+     * forgotten. Must not be called while iterating over robots.
+     */
+    public void restore(Snapshot snapshot) {
+        gameRobotsByID.copyFrom(snapshot.robotsByID);
+        dynamicBodyExecOrder.clear();
+        Arrays.fill(robotGrid, null);
+        for (RobotRoster roster : rosters)
+            roster.clear();
+        for (Map<RobotType, Integer> counts : robotTypeCount.values())
+            counts.clear();
+        Arrays.fill(robotCount, 0);
+
+        for (int i = 0; i < snapshot.robots.length; i++) {
+            InternalRobot robot = snapshot.robots[i];
+            robot.restoreState(snapshot.locations[i], snapshot.healths[i], snapshot.controlBits[i],
+                    snapshot.bytecodeLimits[i], snapshot.bytecodesUsed[i], snapshot.roundsAlive[i],
+                    snapshot.cooldownTurns[i], snapshot.indicatorStrings[i]);
+
+            incrementRobotCount(robot.getTeam());
+            incrementRobotTypeCount(robot.getTeam(), robot.getType());
+            dynamicBodyExecOrder.add(robot);
+            if (robot.getType() != RobotType.CONTROLLER) {
+                robotGrid[locationToIndex(robot.getLocation())] = robot;
+                rosters[robot.getTeam().ordinal()].add(robot, snapshot.spawnSeqs[i]);
+            }
+        }
+        this.nextSpawnSeq = snapshot.nextSpawnSeq;
     }
 
     // ****************************
     // *** PRIVATE METHODS ********
     // ****************************
 
+    private int locationToIndex(MapLocation loc) {
+        return (loc.x - mapTopLeft.x) + (loc.y - mapTopLeft.y) * mapWidth;
+    }
+
     private void incrementRobotCount(Team team) {
         robotCount[team.ordinal()]++;
     }
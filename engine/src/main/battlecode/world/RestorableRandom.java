@@ -0,0 +1,46 @@
+package battlecode.world;
+
+import java.util.Random;
+
+/**
+ * A Random whose state can be read and set, so that it can be snapshotted.
+ * Produces exactly the same sequence as java.util.Random for the same seed.
+ *
+ * nextGaussian keeps hidden state in Random that is not captured, so it
+ * should not be used on a generator that gets restored.
+ */
+final class RestorableRandom extends Random {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private static final long serialVersionUID = 1L;
+
+    // Assigned by setSeed, which Random's constructor calls,
+    // so it must not have an initializer.
+    private long state;
+
+    RestorableRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    long getState() {
+        return state;
+    }
+
+    void setState(long state) {
+        this.state = state;
+    }
+}
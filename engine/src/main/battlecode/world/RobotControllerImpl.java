@@ -20,6 +20,16 @@ import java.util.*;
  */
 public final strictfp class RobotControllerImpl implements RobotController {
 
+    /**
+     * Orders robots by x and then by y, the order nearby robots are
+     * returned in.
+     */
+    private static final Comparator<InternalRobot> LOCATION_ORDER = (a, b) -> {
+        MapLocation la = a.getLocation();
+        MapLocation lb = b.getLocation();
+        return la.x != lb.x ? Integer.compare(la.x, lb.x) : Integer.compare(la.y, lb.y);
+    };
+
     /**
      * The world the robot controlled by this controller inhabits.
      */
@@ -33,7 +43,7 @@ public final strictfp class RobotControllerImpl implements RobotController {
     /**
      * An rng based on the world seed.
      */
-    private static Random random;
+    private Random random;
 
     /**
      * Create a new RobotControllerImpl
@@ -318,21 +328,27 @@ public final strictfp class RobotControllerImpl implements RobotController {
         assertNotNull(center);
         int actualRadiusSquared = radiusSquared == -1 ? Integer.MAX_VALUE : radiusSquared;
         if (actualRadiusSquared < 0) throw new GameActionException(CANT_DO_THAT,"Radius squared must be non-negative.");
-        InternalRobot[] allSensedRobots = gameWorld.getAllRobotsWithinRadiusSquared(center, actualRadiusSquared);
         List<RobotInfo> validSensedRobots = new ArrayList<>();
-        for (InternalRobot sensedRobot : allSensedRobots) {
-            // check if this robot
-            if (sensedRobot.equals(getRobotByID(getID())))
-                continue;
-            // check if right team
-            if (team != null && sensedRobot.getTeam() != team)
-                continue;
-            // don't return controllers here
-            if (sensedRobot.getType() == RobotType.CONTROLLER) {
-                continue;
-            }
-            validSensedRobots.add(sensedRobot.getRobotInfo());
-        }
+        if (radiusSquared == -1 || team != null) {
+            // served from the team rosters, then put in the same x-then-y
+            // order that the grid walk below returns
+            List<InternalRobot> sensedRobots = new ArrayList<>();
+            this.gameWorld.getObjectInfo().eachRobotWithinRadiusSquared(center, actualRadiusSquared, team, (sensedRobot) -> {
+                sensedRobots.add(sensedRobot);
+                return true;
+            });
+            sensedRobots.sort(LOCATION_ORDER);
+            for (InternalRobot sensedRobot : sensedRobots)
+                validSensedRobots.add(sensedRobot.getRobotInfo());
+            return validSensedRobots.toArray(new RobotInfo[validSensedRobots.size()]);
+        }
+        this.gameWorld.forEachLocationWithinRadiusSquared(center, actualRadiusSquared, (x, y, index) -> {
+            // controllers have no location, so they are never found here
+            InternalRobot sensedRobot = this.gameWorld.getObjectInfo().getRobotAtIndex(index);
+            if (sensedRobot != null)
+                validSensedRobots.add(sensedRobot.getRobotInfo());
+            return true;
+        });
         return validSensedRobots.toArray(new RobotInfo[validSensedRobots.size()]);
     }
 
@@ -403,16 +419,21 @@ public final strictfp class RobotControllerImpl implements RobotController {
                 "Only controllers may call this function.");
         }
         assertOnTheMap(center);
-        radiusSquared = (radiusSquared == -1) ? Integer.MAX_VALUE : radiusSquared;
-        if (radiusSquared < 0)
+        int actualRadiusSquared = (radiusSquared == -1) ? Integer.MAX_VALUE : radiusSquared;
+        if (actualRadiusSquared < 0)
             throw new GameActionException(CANT_DO_THAT,
                     "Radius squared must be non-negative.");
         ArrayList<MapLocation> locations = new ArrayList<>();
-        for (MapLocation loc : this.gameWorld.getAllLocationsWithinRadiusSquared(center, radiusSquared)) {
-            if (this.gameWorld.getUranium(loc) >= minUranium && onTheMap(loc)) {
-                locations.add(loc);
-            }
-        }
+        GameWorld.LocationProcedure op = (x, y, index) -> {
+            if (this.gameWorld.getUraniumAtIndex(index) >= minUranium)
+                locations.add(new MapLocation(x, y));
+            return true;
+        };
+        // Cells without uranium only count if minUranium lets them
+        if (minUranium > 0)
+            this.gameWorld.forEachLocationWithUraniumWithinRadiusSquared(center, actualRadiusSquared, op);
+        else
+            this.gameWorld.forEachLocationWithinRadiusSquared(center, actualRadiusSquared, op);
         MapLocation[] result = new MapLocation[locations.size()];
         return locations.toArray(result);
     }
@@ -558,15 +579,44 @@ public final strictfp class RobotControllerImpl implements RobotController {
         return getController(id).canMove(dir);
     }
 
+    /**
+     * Non-throwing version of assertCanMove, used by batched commands.
+     *
+     * @return why the move is not possible, or null if it is
+     */
+    private GameActionExceptionType checkCanMove(Direction dir) {
+        if (!checkRobotType())
+            return CANT_DO_THAT;
+        if (!this.robot.isReady())
+            return IS_NOT_READY;
+        MapLocation loc = this.robot.getLocation().add(dir);
+        if (!this.gameWorld.getGameMap().onTheMap(loc))
+            return OUT_OF_RANGE;
+        InternalRobot occupant = this.gameWorld.getRobot(loc);
+        if (occupant != null && occupant.getTeam() == this.robot.getTeam())
+            return CANT_MOVE_THERE;
+        if (this.gameWorld.getWall(loc))
+            return CANT_MOVE_THERE;
+        return null;
+    }
+
     private void move(Direction dir) throws GameActionException {
         if (!checkRobotType()) {
             throw new GameActionException(CANT_DO_THAT,
                 "Only Robots may call this function.");
         }
         this.assertCanMove(dir);
+        doMove(dir);
+    }
+
+    /**
+     * Moves this robot, which must be able to move in the given direction.
+     */
+    private void doMove(Direction dir) throws GameActionException {
         MapLocation center = this.adjacentLocation(dir);
         InternalRobot prevOccupied = this.gameWorld.getRobot(center);
-        this.gameWorld.getMatchMaker().addMoved(this.robot.getID(), center);
+        if (this.gameWorld.isRecording())
+            this.gameWorld.getMatchMaker().addMoved(this.robot.getID(), this.robot.getLocation(), center);
 
         // process collisions
         boolean winner = true;
@@ -575,7 +625,6 @@ public final strictfp class RobotControllerImpl implements RobotController {
         }
         
         if (winner) {
-            this.gameWorld.moveRobot(this.getLocation(), center);
             this.robot.setLocation(center);
             this.robot.resetCooldownTurns();
         } 
@@ -639,7 +688,8 @@ public final strictfp class RobotControllerImpl implements RobotController {
         MapLocation loc = this.gameWorld.getSpawnLoc(this.getTeam());
         InternalRobot prevOccupied = this.gameWorld.getRobot(loc);
         int newId = this.gameWorld.spawnRobot(RobotType.ROBOT, team, health);
-        this.gameWorld.getMatchMaker().addAction(getID(), Action.SPAWN_UNIT, newId);
+        if (this.gameWorld.isRecording())
+            this.gameWorld.getMatchMaker().addAction(getID(), Action.SPAWN_UNIT, newId);
         InternalRobot spawnedBot = this.gameWorld.getRobotByID(newId);
 
         // process collisions (auto-collision with enemy)
@@ -685,12 +735,32 @@ public final strictfp class RobotControllerImpl implements RobotController {
         return getController(id).canExplode();
     }
 
+    /**
+     * Non-throwing version of assertCanExplode, used by batched commands.
+     *
+     * @return why exploding is not possible, or null if it is
+     */
+    private GameActionExceptionType checkCanExplode() {
+        if (!checkRobotType())
+            return CANT_DO_THAT;
+        if (!this.robot.isReady())
+            return IS_NOT_READY;
+        return null;
+    }
+
     private void explode() throws GameActionException {
         if (!checkRobotType()) {
             throw new GameActionException(CANT_DO_THAT,
                 "Only robots may call this function.");
         } 
         assertCanExplode();
+        doExplode();
+    }
+
+    /**
+     * Explodes this robot, which must be able to explode.
+     */
+    private void doExplode() throws GameActionException {
         this.robot.resetCooldownTurns();
         for (Direction dir : Direction.cardinalDirections()){
             MapLocation loc = this.adjacentLocation(dir);
@@ -702,7 +772,8 @@ public final strictfp class RobotControllerImpl implements RobotController {
                 continue;
             bot.damageHealth(this.robot.getHealth() / 2);
         }
-        this.gameWorld.getMatchMaker().addAction(getID(), Action.EXPLODE, -1);
+        if (this.gameWorld.isRecording())
+            this.gameWorld.getMatchMaker().addAction(getID(), Action.EXPLODE, -1);
         this.gameWorld.destroyRobot(getID());
     }
 
@@ -763,17 +834,41 @@ public final strictfp class RobotControllerImpl implements RobotController {
         return getController(id).canMine();
     }
 
+    /**
+     * Non-throwing version of assertCanMine at this robot's location,
+     * used by batched commands.
+     *
+     * @return why mining is not possible, or null if it is
+     */
+    private GameActionExceptionType checkCanMine() {
+        if (!checkRobotType())
+            return CANT_DO_THAT;
+        if (!this.robot.isReady())
+            return IS_NOT_READY;
+        if (this.gameWorld.getUranium(this.robot.getLocation()) < 1)
+            return CANT_DO_THAT;
+        return null;
+    }
+
     private void mine() throws GameActionException {
         if (!checkRobotType()) {
             throw new GameActionException(CANT_DO_THAT,
                 "Only robots may call this function.");
         }
+        assertCanMine(this.robot.getLocation());
+        doMine();
+    }
+
+    /**
+     * Mines at this robot's location, which must be minable.
+     */
+    private void doMine() throws GameActionException {
         MapLocation loc = this.robot.getLocation();
-        assertCanMine(loc);
         this.robot.resetCooldownTurns();
         this.gameWorld.setUranium(loc, this.gameWorld.getUranium(loc) - 1);
         this.gameWorld.getTeamInfo().addUranium(getTeam(), 1);
-        this.gameWorld.getMatchMaker().addAction(getID(), Action.MINE_URANIUM, locationToInt(loc));
+        if (this.gameWorld.isRecording())
+            this.gameWorld.getMatchMaker().addAction(getID(), Action.MINE_URANIUM, locationToInt(loc));
     }
 
     @Override
@@ -790,6 +885,100 @@ public final strictfp class RobotControllerImpl implements RobotController {
         getController(id).mine();
     }
 
+    // ***********************************
+    // ****** BATCHED COMMANDS ***********
+    // ***********************************
+
+    /**
+     * Checks that a robot may be commanded by this controller, in the same
+     * order as assertValidIDUse and the checks of the single commands.
+     *
+     * @return why the robot can't be commanded, or null if it can
+     */
+    private GameActionExceptionType checkCommandable(InternalRobot bot) {
+        if (bot == null)
+            return CANT_SENSE_THAT;
+        if (bot.getTeam() != getTeam())
+            return CANT_DO_THAT;
+        if (bot.getType() == RobotType.CONTROLLER)
+            return CANT_DO_THAT;
+        return null;
+    }
+
+    private void assertCanBatch(int[] ids) throws GameActionException {
+        if (!checkControllerType()) {
+            throw new GameActionException(CANT_DO_THAT,
+                "Only Controllers may call this function.");
+        }
+        assertNotNull(ids);
+    }
+
+    @Override
+    public GameActionExceptionType[] moveAll(int[] ids, Direction[] dirs) throws GameActionException {
+        assertCanBatch(ids);
+        assertNotNull(dirs);
+        if (ids.length != dirs.length)
+            throw new GameActionException(CANT_DO_THAT,
+                    "Must give exactly one direction per robot.");
+        for (Direction dir : dirs)
+            assertNotNull(dir);
+
+        this.gameWorld.chargeBytecodes(this.robot, ids.length * GameConstants.BATCHED_COMMAND_BYTECODE_COST);
+        ObjectInfo objectInfo = this.gameWorld.getObjectInfo();
+        GameActionExceptionType[] statuses = new GameActionExceptionType[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            InternalRobot bot = objectInfo.getRobotByID(ids[i]);
+            GameActionExceptionType status = checkCommandable(bot);
+            if (status == null) {
+                status = bot.getController().checkCanMove(dirs[i]);
+                if (status == null)
+                    bot.getController().doMove(dirs[i]);
+            }
+            statuses[i] = status;
+        }
+        return statuses;
+    }
+
+    @Override
+    public GameActionExceptionType[] mineAll(int[] ids) throws GameActionException {
+        assertCanBatch(ids);
+
+        this.gameWorld.chargeBytecodes(this.robot, ids.length * GameConstants.BATCHED_COMMAND_BYTECODE_COST);
+        ObjectInfo objectInfo = this.gameWorld.getObjectInfo();
+        GameActionExceptionType[] statuses = new GameActionExceptionType[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            InternalRobot bot = objectInfo.getRobotByID(ids[i]);
+            GameActionExceptionType status = checkCommandable(bot);
+            if (status == null) {
+                status = bot.getController().checkCanMine();
+                if (status == null)
+                    bot.getController().doMine();
+            }
+            statuses[i] = status;
+        }
+        return statuses;
+    }
+
+    @Override
+    public GameActionExceptionType[] explodeAll(int[] ids) throws GameActionException {
+        assertCanBatch(ids);
+
+        this.gameWorld.chargeBytecodes(this.robot, ids.length * GameConstants.BATCHED_COMMAND_BYTECODE_COST);
+        ObjectInfo objectInfo = this.gameWorld.getObjectInfo();
+        GameActionExceptionType[] statuses = new GameActionExceptionType[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            InternalRobot bot = objectInfo.getRobotByID(ids[i]);
+            GameActionExceptionType status = checkCommandable(bot);
+            if (status == null) {
+                status = bot.getController().checkCanExplode();
+                if (status == null)
+                    bot.getController().doExplode();
+            }
+            statuses[i] = status;
+        }
+        return statuses;
+    }
+
     // ***********************************
     // ****** COMMUNICATION METHODS ****** 
     // ***********************************
@@ -874,7 +1063,8 @@ public final strictfp class RobotControllerImpl implements RobotController {
                 "Only robots may call this function.");
         } 
         assertNotNull(loc);
-        this.gameWorld.getMatchMaker().addIndicatorDot(getID(), loc, red, green, blue);
+        if (this.gameWorld.isRecording())
+            this.gameWorld.getMatchMaker().addIndicatorDot(getID(), loc, red, green, blue);
     }
 
     @Override
@@ -894,7 +1084,8 @@ public final strictfp class RobotControllerImpl implements RobotController {
         } 
         assertNotNull(startLoc);
         assertNotNull(endLoc);
-        this.gameWorld.getMatchMaker().addIndicatorLine(getID(), startLoc, endLoc, red, green, blue);
+        if (this.gameWorld.isRecording())
+            this.gameWorld.getMatchMaker().addIndicatorLine(getID(), startLoc, endLoc, red, green, blue);
     }
 
     @Override
@@ -0,0 +1,168 @@
+package battlecode.world;
+
+import battlecode.common.MapLocation;
+
+import gnu.trove.map.hash.TIntIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * A compact list of the live robots of one team, in spawn order.
+ * Positions are mirrored into primitive arrays so range filters can
+ * run without touching the robots themselves.
+ *
+ * Removing a robot leaves an empty slot behind, so slots keep their
+ * positions until compact() is called; callers walking the slots skip
+ * the ones where get() returns null.
+ */
+final class RobotRoster {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private InternalRobot[] robots;
+    private int[] xs;
+    private int[] ys;
+
+    /**
+     * Spawn sequence numbers, strictly increasing along the roster.
+     * Used to merge several rosters back into one spawn order.
+     */
+    private int[] spawnSeqs;
+
+    /**
+     * Slots in use, counting empty ones.
+     */
+    private int length;
+
+    /**
+     * Live robots in the roster.
+     */
+    private int size;
+
+    /**
+     * Robot ID to position in the roster.
+     */
+    private final TIntIntHashMap slots;
+
+    RobotRoster() {
+        this.robots = new InternalRobot[INITIAL_CAPACITY];
+        this.xs = new int[INITIAL_CAPACITY];
+        this.ys = new int[INITIAL_CAPACITY];
+        this.spawnSeqs = new int[INITIAL_CAPACITY];
+        this.length = 0;
+        this.size = 0;
+        this.slots = new TIntIntHashMap(INITIAL_CAPACITY, 0.5f, -1, -1);
+    }
+
+    /**
+     * @return the number of live robots in the roster
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of slots, including empty ones
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * @return the robot in a slot, or null if the slot is empty
+     */
+    InternalRobot get(int slot) {
+        return robots[slot];
+    }
+
+    int getX(int slot) {
+        return xs[slot];
+    }
+
+    int getY(int slot) {
+        return ys[slot];
+    }
+
+    int getSpawnSeq(int slot) {
+        return spawnSeqs[slot];
+    }
+
+    /**
+     * @return the spawn sequence number of a robot in the roster
+     */
+    int getSpawnSeqOf(InternalRobot robot) {
+        return spawnSeqs[slots.get(robot.getID())];
+    }
+
+    /**
+     * Append a robot. spawnSeq must be larger than that of any robot
+     * already in the roster.
+     */
+    void add(InternalRobot robot, int spawnSeq) {
+        if (length == robots.length) {
+            int capacity = 2 * length;
+            robots = Arrays.copyOf(robots, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            spawnSeqs = Arrays.copyOf(spawnSeqs, capacity);
+        }
+        MapLocation loc = robot.getLocation();
+        robots[length] = robot;
+        xs[length] = loc.x;
+        ys[length] = loc.y;
+        spawnSeqs[length] = spawnSeq;
+        slots.put(robot.getID(), length);
+        length++;
+        size++;
+    }
+
+    /**
+     * Remove a robot, leaving its slot empty until the next compact().
+     */
+    void remove(InternalRobot robot) {
+        int slot = slots.remove(robot.getID());
+        if (slot < 0)
+            return;
+        robots[slot] = null;
+        size--;
+    }
+
+    /**
+     * Drop the empty slots, keeping the robots in spawn order. Must not be
+     * called while walking the slots.
+     */
+    void compact() {
+        if (size == length)
+            return;
+        int live = 0;
+        for (int i = 0; i < length; i++) {
+            InternalRobot robot = robots[i];
+            if (robot == null)
+                continue;
+            if (live != i) {
+                robots[live] = robot;
+                xs[live] = xs[i];
+                ys[live] = ys[i];
+                spawnSeqs[live] = spawnSeqs[i];
+                slots.put(robot.getID(), live);
+            }
+            live++;
+        }
+        Arrays.fill(robots, live, length, null);
+        length = live;
+    }
+
+    void clear() {
+        Arrays.fill(robots, 0, length, null);
+        length = 0;
+        size = 0;
+        slots.clear();
+    }
+
+    void move(InternalRobot robot, MapLocation loc) {
+        int slot = slots.get(robot.getID());
+        if (slot < 0)
+            return;
+        xs[slot] = loc.x;
+        ys[slot] = loc.y;
+    }
+}
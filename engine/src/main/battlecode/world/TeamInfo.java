@@ -33,6 +33,32 @@ public class TeamInfo {
         this.oldUraniumMined = new int[2];
         this.controllerIDs = controllerIDs.clone();
     }
+
+    /**
+     * Create a copy of a TeamInfo, for snapshots.
+     *
+     * @param other the TeamInfo to copy
+     */
+    public TeamInfo(TeamInfo other) {
+        this.gameWorld = other.gameWorld;
+        this.uraniumCounts = other.uraniumCounts.clone();
+        this.uraniumMined = other.uraniumMined.clone();
+        this.oldUraniumCounts = other.oldUraniumCounts.clone();
+        this.oldUraniumMined = other.oldUraniumMined.clone();
+        this.controllerIDs = other.controllerIDs;
+    }
+
+    /**
+     * Go back to the values of a copy made earlier.
+     *
+     * @param saved a copy of this TeamInfo
+     */
+    public void restore(TeamInfo saved) {
+        System.arraycopy(saved.uraniumCounts, 0, this.uraniumCounts, 0, 2);
+        System.arraycopy(saved.uraniumMined, 0, this.uraniumMined, 0, 2);
+        System.arraycopy(saved.oldUraniumCounts, 0, this.oldUraniumCounts, 0, 2);
+        System.arraycopy(saved.oldUraniumMined, 0, this.oldUraniumMined, 0, 2);
+    }
     
     // *********************************
     // ***** GETTER METHODS ************
@@ -83,6 +109,8 @@ public class TeamInfo {
         if (this.uraniumCounts[team.ordinal()] + amount < 0) {
             throw new IllegalArgumentException("Invalid uranium change");
         }
+        this.gameWorld.getHash().teamUraniumChanged(team, this.uraniumCounts[team.ordinal()],
+                this.uraniumCounts[team.ordinal()] + amount);
         this.uraniumCounts[team.ordinal()] += amount;
     }
 
@@ -97,6 +125,8 @@ public class TeamInfo {
         if (amount < 0) {
             throw new IllegalArgumentException("Invalid uranium change");
         }
+        this.gameWorld.getHash().teamUraniumMinedChanged(team, this.uraniumMined[team.ordinal()],
+                this.uraniumMined[team.ordinal()] + amount);
         this.uraniumMined[team.ordinal()] += amount;
     }
 
@@ -0,0 +1,144 @@
+package battlecode.world;
+
+import java.util.Arrays;
+
+/**
+ * The set of cells that have uranium, kept as a bitset for queries by area
+ * and as a dense list for visiting them all. Deposits are few compared to
+ * cells, so both cost time in the number of deposits rather than the map
+ * area.
+ *
+ * Cells are identified by their index, as given by
+ * GameWorld.locationToIndex, and x and y are relative to the map origin.
+ */
+final class UraniumIndex {
+    private final int width;
+    private final int height;
+
+    /**
+     * Bit x * height + y is set if the cell at (x, y) has uranium, so that
+     * the bits of a column are next to each other.
+     */
+    private final long[] bits;
+
+    /**
+     * The indices of the cells with uranium, in no particular order.
+     */
+    private final int[] cells;
+
+    /**
+     * The position of each cell in cells, or -1 if it has no uranium.
+     */
+    private final int[] positions;
+
+    private int size;
+
+    UraniumIndex(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(width * height + 63) >>> 6];
+        this.cells = new int[width * height];
+        this.positions = new int[width * height];
+        Arrays.fill(this.positions, -1);
+        this.size = 0;
+    }
+
+    /**
+     * Mark whether a cell has uranium.
+     */
+    void set(int index, boolean hasUranium) {
+        if (hasUranium == (positions[index] >= 0))
+            return;
+        int bit = (index % width) * height + index / width;
+        if (hasUranium) {
+            bits[bit >>> 6] |= 1L << bit;
+            positions[index] = size;
+            cells[size++] = index;
+        } else {
+            bits[bit >>> 6] &= ~(1L << bit);
+            int last = cells[--size];
+            cells[positions[index]] = last;
+            positions[last] = positions[index];
+            positions[index] = -1;
+        }
+    }
+
+    /**
+     * Forget all cells, and add the ones with uranium in the given array.
+     */
+    void rebuild(ChunkedIntArray uranium) {
+        Arrays.fill(bits, 0);
+        Arrays.fill(positions, -1);
+        size = 0;
+        for (int i = 0; i < uranium.length(); i++)
+            if (uranium.get(i) > 0)
+                set(i, true);
+    }
+
+    /**
+     * @return the number of cells with uranium
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param i a position between 0 and size() - 1
+     * @return the index of the cell at that position of the dense list;
+     *         positions change when cells are removed
+     */
+    int cellAt(int i) {
+        return cells[i];
+    }
+
+    /**
+     * Apply an operation to every cell with uranium within radiusSquared
+     * of (centerX, centerY), ordered by x and then by y like
+     * GameWorld.forEachLocationWithinRadiusSquared.
+     *
+     * @param originX the x coordinate of the map origin, added to x
+     * @param originY the y coordinate of the map origin, added to y
+     * @param op called with world coordinates and the cell index
+     */
+    void forEachWithinRadiusSquared(int originX, int originY, int centerX, int centerY, int radiusSquared,
+                                    GameWorld.LocationProcedure op) {
+        if (radiusSquared < 0 || size == 0)
+            return;
+        long cx = (long) centerX - originX;
+        long cy = (long) centerY - originY;
+        long radius = (long) Math.ceil(Math.sqrt(radiusSquared));
+        int minX = (int) Math.max(cx - radius, 0);
+        int maxX = (int) Math.min(cx + radius, width - 1);
+        int minY = (int) Math.max(cy - radius, 0);
+        int maxY = (int) Math.min(cy + radius, height - 1);
+
+        for (int x = minX; x <= maxX; x++) {
+            long dx = x - cx;
+            int columnStart = x * height;
+            int from = columnStart + minY;
+            int to = columnStart + maxY;
+            if (from > to)
+                return;
+            int w = from >>> 6;
+            long word = bits[w] & (-1L << from);
+            while (true) {
+                while (word == 0) {
+                    if (++w > to >>> 6)
+                        break;
+                    word = bits[w];
+                }
+                if (word == 0)
+                    break;
+                int bit = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (bit > to)
+                    break;
+                word &= word - 1;
+                int y = bit - columnStart;
+                long dy = y - cy;
+                if (dx * dx + dy * dy <= radiusSquared)
+                    if (!op.execute(originX + x, originY + y, x + y * width))
+                        return;
+            }
+        }
+    }
+}
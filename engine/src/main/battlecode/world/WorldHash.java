@@ -0,0 +1,137 @@
+package battlecode.world;
+
+import battlecode.common.MapLocation;
+import battlecode.common.RobotType;
+import battlecode.common.Team;
+
+/**
+ * A 64-bit Zobrist-style hash of the world state that decides a match:
+ * where each robot is, its health and cooldown, the uranium on each cell
+ * and each team's uranium. It is updated on every change, so it is free to
+ * read, and the same state gives the same hash on every machine.
+ *
+ * Each piece of state contributes a key made from what it is and its
+ * value, and a change xors out the key of the old value and xors in the
+ * new one. Keys come from a fixed mixing function rather than a random
+ * table, since values like health don't have a small range.
+ */
+final class WorldHash {
+    private static final int ROBOT_TEAM = 1;
+    private static final int ROBOT_LOCATION = 2;
+    private static final int ROBOT_HEALTH = 3;
+    private static final int ROBOT_COOLDOWN = 4;
+    private static final int URANIUM = 5;
+    private static final int TEAM_URANIUM = 6;
+    private static final int TEAM_URANIUM_MINED = 7;
+
+    private long hash;
+
+    /**
+     * Creates the hash of a world with no robots, no uranium on the map
+     * and no team uranium.
+     *
+     * @param numCells the number of cells on the map
+     */
+    WorldHash(int numCells) {
+        this.hash = 0;
+        for (int i = 0; i < numCells; i++)
+            this.hash ^= key(URANIUM, i, 0);
+        for (int t = 0; t < 2; t++)
+            this.hash ^= key(TEAM_URANIUM, t, 0) ^ key(TEAM_URANIUM_MINED, t, 0);
+    }
+
+    /**
+     * Hash the state of a world from scratch, without using any hash it
+     * has kept. Used to check the incremental hash.
+     */
+    static long of(GameWorld world) {
+        int numCells = world.getGameMap().getWidth() * world.getGameMap().getHeight();
+        WorldHash result = new WorldHash(numCells);
+        for (int i = 0; i < numCells; i++)
+            result.uraniumChanged(i, 0, world.getUraniumAtIndex(i));
+        for (Team team : new Team[]{Team.A, Team.B}) {
+            result.teamUraniumChanged(team, 0, world.getTeamInfo().getUranium(team));
+            result.teamUraniumMinedChanged(team, 0, world.getTeamInfo().getUraniumMined(team));
+        }
+        world.getObjectInfo().eachRobot((robot) -> {
+            result.toggleRobot(robot);
+            return true;
+        });
+        return result.hash;
+    }
+
+    long get() {
+        return hash;
+    }
+
+    void set(long hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * Add a robot to the hash, or remove it if it is already in.
+     * Controllers aren't on the map and aren't hashed.
+     */
+    void toggleRobot(InternalRobot robot) {
+        if (robot.getType() == RobotType.CONTROLLER)
+            return;
+        int id = robot.getID();
+        hash ^= key(ROBOT_TEAM, id, robot.getTeam().ordinal())
+                ^ key(ROBOT_LOCATION, id, robot.getGameWorld().locationToIndex(robot.getLocation()))
+                ^ key(ROBOT_HEALTH, id, Float.floatToIntBits(robot.getHealth()))
+                ^ key(ROBOT_COOLDOWN, id, robot.getCooldownTurns());
+    }
+
+    void robotMoved(InternalRobot robot, MapLocation from, MapLocation to) {
+        if (robot.getType() == RobotType.CONTROLLER)
+            return;
+        GameWorld world = robot.getGameWorld();
+        hash ^= key(ROBOT_LOCATION, robot.getID(), world.locationToIndex(from))
+                ^ key(ROBOT_LOCATION, robot.getID(), world.locationToIndex(to));
+    }
+
+    void robotHealthChanged(InternalRobot robot, float from, float to) {
+        if (robot.getType() == RobotType.CONTROLLER)
+            return;
+        hash ^= key(ROBOT_HEALTH, robot.getID(), Float.floatToIntBits(from))
+                ^ key(ROBOT_HEALTH, robot.getID(), Float.floatToIntBits(to));
+    }
+
+    void robotCooldownChanged(InternalRobot robot, int from, int to) {
+        if (robot.getType() == RobotType.CONTROLLER)
+            return;
+        hash ^= key(ROBOT_COOLDOWN, robot.getID(), from) ^ key(ROBOT_COOLDOWN, robot.getID(), to);
+    }
+
+    void uraniumChanged(int index, int from, int to) {
+        hash ^= key(URANIUM, index, from) ^ key(URANIUM, index, to);
+    }
+
+    void teamUraniumChanged(Team team, int from, int to) {
+        hash ^= key(TEAM_URANIUM, team.ordinal(), from) ^ key(TEAM_URANIUM, team.ordinal(), to);
+    }
+
+    void teamUraniumMinedChanged(Team team, int from, int to) {
+        hash ^= key(TEAM_URANIUM_MINED, team.ordinal(), from) ^ key(TEAM_URANIUM_MINED, team.ordinal(), to);
+    }
+
+    /**
+     * The key for one piece of state having a value.
+     *
+     * @param kind what the state is
+     * @param id which robot, cell or team it belongs to
+     * @param value its value
+     */
+    private static long key(int kind, int id, int value) {
+        return mix(mix(((long) kind << 32) | (id & 0xFFFFFFFFL)) ^ value);
+    }
+
+    /**
+     * The finalizer of SplitMix64; spreads every input bit over the output.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
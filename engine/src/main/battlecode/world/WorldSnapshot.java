@@ -0,0 +1,46 @@
+package battlecode.world;
+
+import battlecode.common.Team;
+
+/**
+ * The state of a GameWorld between two rounds, as captured by
+ * GameWorld.snapshot() and put back by GameWorld.restore().
+ * Snapshots are immutable and only valid for the world they came from.
+ */
+public final class WorldSnapshot {
+    final GameWorld world;
+    final int round;
+    final boolean running;
+    final Team winner;
+    final DominationFactor dominationFactor;
+    final int[][] uranium;
+    final TeamInfo teamInfo;
+    final IDGenerator idGenerator;
+    final long randState;
+    final ObjectInfo.Snapshot objects;
+    final long worldHash;
+
+    WorldSnapshot(GameWorld world, int round, boolean running,
+                  Team winner, DominationFactor dominationFactor,
+                  int[][] uranium, TeamInfo teamInfo, IDGenerator idGenerator,
+                  long randState, ObjectInfo.Snapshot objects, long worldHash) {
+        this.world = world;
+        this.round = round;
+        this.running = running;
+        this.winner = winner;
+        this.dominationFactor = dominationFactor;
+        this.uranium = uranium;
+        this.teamInfo = teamInfo;
+        this.idGenerator = idGenerator;
+        this.randState = randState;
+        this.objects = objects;
+        this.worldHash = worldHash;
+    }
+
+    /**
+     * @return the round the snapshot was taken after
+     */
+    public int getRound() {
+        return round;
+    }
+}
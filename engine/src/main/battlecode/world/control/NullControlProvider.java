@@ -35,6 +35,9 @@ public class NullControlProvider implements RobotControlProvider {
         return 0;
     }
 
+    @Override
+    public void chargeBytecodes(InternalRobot robot, int numBytecodes) {}
+
     @Override
     public boolean getTerminated(InternalRobot robot) {
         return false;
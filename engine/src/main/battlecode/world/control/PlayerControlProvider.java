@@ -5,9 +5,13 @@ import battlecode.common.GameActionException;
 import battlecode.instrumenter.InstrumentationException;
 import battlecode.instrumenter.TeamClassLoaderFactory;
 import battlecode.instrumenter.SandboxedRobotPlayer;
+import battlecode.instrumenter.SystemClassCache;
 import battlecode.instrumenter.profiler.Profiler;
 import battlecode.instrumenter.profiler.ProfilerCollection;
+import battlecode.instrumenter.stream.OutputLimit;
+import battlecode.server.Config;
 import battlecode.server.ErrorReporter;
+import battlecode.server.Server;
 import battlecode.world.GameWorld;
 import battlecode.world.InternalRobot;
 
@@ -15,6 +19,7 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Controls robots with instrumented player code.
@@ -55,6 +60,12 @@ public class PlayerControlProvider implements RobotControlProvider {
      */
     private final OutputStream robotOut;
 
+    /**
+     * How much more the team may write to robotOut. The limit is per
+     * replay file, so it is shared by every match of the game.
+     */
+    private final OutputLimit outputLimit;
+
     /**
      * The team this control provider controls.
      */
@@ -90,6 +101,15 @@ public class PlayerControlProvider implements RobotControlProvider {
         this.factory = new TeamClassLoaderFactory(teamURL);
         this.robotOut = robotOut;
         this.team = team;
+        this.outputLimit = new OutputLimit(Config.getGlobalConfig()
+                .getInt("bc.server.robot-player-replay-file-per-team-limit-bytes"));
+
+        if (Config.getGlobalConfig().getBoolean("bc.engine.eager-instrumentation")) {
+            long start = System.nanoTime();
+            int count = factory.instrumentAll(profilingEnabled, ForkJoinPool.commonPool());
+            Server.debug(String.format("team %s: instrumented %d classes ahead of time in %.1f ms",
+                    team, count, (System.nanoTime() - start) / 1e6));
+        }
 
         if (profilingEnabled) {
             profilerCollection = new ProfilerCollection();
@@ -99,6 +119,7 @@ public class PlayerControlProvider implements RobotControlProvider {
     @Override
     public void matchStarted(GameWorld gameWorld) {
         this.gameWorld = gameWorld;
+        factory.getSystemClassStats().reset();
         matchId++;
     }
 
@@ -117,6 +138,15 @@ public class PlayerControlProvider implements RobotControlProvider {
 
         this.sandboxes.clear();
         this.gameWorld = null;
+
+        SystemClassCache.Stats stats = factory.getSystemClassStats();
+        if (stats.getClassesInstrumented() + stats.getClassesReused() > 0) {
+            Server.debug(String.format(
+                    "team %s reused %d instrumented system classes and instrumented %d; " +
+                    "saved %.1f ms, spent %.1f ms",
+                    team, stats.getClassesReused(), stats.getClassesInstrumented(),
+                    stats.getNanosSaved() / 1e6, stats.getNanosSpent() / 1e6));
+        }
     }
 
     @Override
@@ -133,6 +163,7 @@ public class PlayerControlProvider implements RobotControlProvider {
                     robot.getID(),
                     factory.createLoader(profiler != null),
                     robotOut,
+                    outputLimit,
                     profiler
             );
             this.sandboxes.put(robot.getID(), player);
@@ -191,6 +222,17 @@ public class PlayerControlProvider implements RobotControlProvider {
         }
     }
 
+    @Override
+    public void chargeBytecodes(InternalRobot robot, int numBytecodes) {
+        assert this.sandboxes.containsKey(robot.getID());
+
+        final SandboxedRobotPlayer player = this.sandboxes.get(robot.getID());
+
+        if (player != null) {
+            player.chargeBytecodes(numBytecodes);
+        }
+    }
+
     @Override
     public boolean getTerminated(InternalRobot robot) {
         assert this.sandboxes.containsKey(robot.getID());
@@ -80,6 +80,15 @@ public interface RobotControlProvider {
      */
     int getBytecodesUsed(InternalRobot robot);
 
+    /**
+     * Charge the given robot bytecodes for work done on its behalf while
+     * it is running, on top of the fixed cost of the method it called.
+     *
+     * @param robot the running robot
+     * @param numBytecodes the number of bytecodes to charge
+     */
+    void chargeBytecodes(InternalRobot robot, int numBytecodes);
+
     /**
      * Determine whether the computation thread for the given
      * robot has terminated
@@ -110,6 +110,14 @@ public final class TeamControlProvider implements RobotControlProvider {
         return teamProviderMap.get(team).getBytecodesUsed(robot);
     }
 
+    @Override
+    public void chargeBytecodes(InternalRobot robot, int numBytecodes) {
+        Team team = robot.getTeam();
+        assert teamProviderMap.containsKey(team);
+
+        teamProviderMap.get(team).chargeBytecodes(robot, numBytecodes);
+    }
+
     @Override
     public boolean getTerminated(InternalRobot robot) {
         Team team = robot.getTeam();
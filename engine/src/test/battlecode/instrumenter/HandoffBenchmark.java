@@ -0,0 +1,51 @@
+package battlecode.instrumenter;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Measures the round-trip latency of each ThreadHandoff: the engine running
+ * a player that immediately pauses, as a robot that does nothing would.
+ * Not run as part of the test suite; run it by hand.
+ */
+@Ignore
+public class HandoffBenchmark {
+    private static final int WARMUP = 20000;
+    private static final int TURNS = 200000;
+
+    private static volatile boolean stop;
+
+    private static double measure(String kind) throws InterruptedException {
+        ThreadHandoff handoff = ThreadHandoff.create(kind);
+        stop = false;
+        Thread player = new Thread(() -> {
+            try {
+                while (!stop)
+                    handoff.pausePlayer();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                handoff.playerFinished();
+            }
+        });
+
+        handoff.startPlayer(player);
+        for (int i = 0; i < WARMUP; i++)
+            handoff.runPlayer();
+        long start = System.nanoTime();
+        for (int i = 0; i < TURNS; i++)
+            handoff.runPlayer();
+        long elapsed = System.nanoTime() - start;
+
+        stop = true;
+        handoff.runPlayer();
+        player.join();
+        return elapsed / 1000.0 / TURNS;
+    }
+
+    @Test
+    public void benchmarkHandoff() throws InterruptedException {
+        for (String kind : new String[]{"monitor", "park", "monitor", "park"})
+            System.out.printf("%s: %.2f us per turn%n", kind, measure(kind));
+    }
+}
@@ -0,0 +1,75 @@
+package battlecode.instrumenter;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class InstrumentationCacheTest {
+
+    @Test
+    public void testStoresAndChecksEntries() throws Exception {
+        InstrumentationCache cache = new InstrumentationCache(Files.createTempDirectory("bc-cache"));
+        byte[] team = new byte[32];
+        String key = InstrumentationCache.key("a.B", new byte[]{1, 2, 3}, team, false, false);
+
+        assertNull(cache.get(key));
+        cache.put(key, new byte[]{4, 5, 6});
+        assertArrayEquals(new byte[]{4, 5, 6}, cache.get(key));
+
+        // A damaged entry is a miss, and can be written again
+        Path entry = cache.entryPath(key);
+        byte[] damaged = Files.readAllBytes(entry);
+        damaged[damaged.length - 1] ^= 1;
+        Files.write(entry, damaged);
+        assertNull(cache.get(key));
+        cache.put(key, new byte[]{4, 5, 6});
+        assertArrayEquals(new byte[]{4, 5, 6}, cache.get(key));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testKeyCoversEveryInput() {
+        byte[] bytes = {1, 2, 3};
+        byte[] team = new byte[32];
+        byte[] otherTeam = new byte[32];
+        otherTeam[0] = 1;
+        String key = InstrumentationCache.key("a.B", bytes, team, false, false);
+
+        assertEquals(key, InstrumentationCache.key("a.B", bytes.clone(), team.clone(), false, false));
+        assertNotEquals(key, InstrumentationCache.key("a.C", bytes, team, false, false));
+        assertNotEquals(key, InstrumentationCache.key("a.B", new byte[]{1, 2, 4}, team, false, false));
+        assertNotEquals(key, InstrumentationCache.key("a.B", bytes, otherTeam, false, false));
+        assertNotEquals(key, InstrumentationCache.key("a.B", bytes, team, true, false));
+        assertNotEquals(key, InstrumentationCache.key("a.B", bytes, team, false, true));
+    }
+
+    @Test
+    public void testFactoriesShareInstrumentedClasses() throws Exception {
+        String folder = URLUtils.toTempFolder(
+                "instrumentertest/Outer.class",
+                "instrumentertest/Outer$Inner.class"
+        );
+        InstrumentationCache cache = new InstrumentationCache(Files.createTempDirectory("bc-cache"));
+
+        TeamClassLoaderFactory first = new TeamClassLoaderFactory(folder, cache);
+        first.createLoader(false).loadClass("instrumentertest.Outer");
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        TeamClassLoaderFactory second = new TeamClassLoaderFactory(folder, cache);
+        second.createLoader(false).loadClass("instrumentertest.Outer");
+        assertEquals(1, cache.getHits());
+        assertArrayEquals(first.getCached("instrumentertest.Outer"),
+                second.getCached("instrumentertest.Outer"));
+
+        // The profiler changes the instrumented code, so it needs its own entry
+        new TeamClassLoaderFactory(folder, cache).createLoader(true).loadClass("instrumentertest.Outer");
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+}
@@ -1,6 +1,7 @@
 package battlecode.instrumenter;
 
 import battlecode.instrumenter.profiler.Profiler;
+import battlecode.server.Config;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -14,6 +15,7 @@ import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author james
@@ -45,6 +47,7 @@ public class LoaderTest {
             "instrumentertest/OverridesToString.class",
             "instrumentertest/Reflection.class",
             "instrumentertest/StringFormat.class",
+            "instrumentertest/TightLoop.class",
             "instrumentertest/UsesEnumMap.class",
             "instrumentertest/UsesLambda.class",
             "instrumentertest/UsesThrowable.class"
@@ -403,6 +406,54 @@ public class LoaderTest {
         );
     }
 
+    @Test
+    public void testInstrumentAllAhead() throws Exception {
+        TeamClassLoaderFactory factory = new TeamClassLoaderFactory(tempClassFolder);
+        int count = factory.instrumentAll(false, ForkJoinPool.commonPool());
+
+        // Everything but the classes that don't pass instrumentation
+        assertTrue(count > 0);
+        assertTrue(factory.hasCached("instrumentertest.Outer"));
+        assertTrue(factory.hasCached("instrumentertest.Outer$Inner"));
+        assertFalse(factory.hasCached("instrumentertest.IllegalMethodReference"));
+        assertFalse(factory.getError());
+
+        byte[] ahead = factory.getCached("instrumentertest.Outer");
+        TeamClassLoaderFactory.Loader loader = setupLoader(factory);
+        loader.loadClass("instrumentertest.Outer");
+        assertSame(ahead, factory.getCached("instrumentertest.Outer"));
+
+        // A bad class is still reported when it's loaded
+        try {
+            loader.loadClass("instrumentertest.IllegalMethodReference");
+            fail("Loaded a class that references an illegal method");
+        } catch (InstrumentationException e) {
+            assertTrue(factory.getError());
+        }
+    }
+
+    @Test
+    public void testFastMonitorCountsTheSame() throws Exception {
+        Config config = Config.getGlobalConfig();
+        boolean debugMethods = config.getBoolean("bc.engine.debug-methods");
+        int[] counts = new int[2];
+        try {
+            // Debug methods make the instrumenter use the slow path
+            for (int i = 0; i < 2; i++) {
+                config.setBoolean("bc.engine.debug-methods", i == 0);
+                TeamClassLoaderFactory.Loader loader = setupLoader(new TeamClassLoaderFactory(tempClassFolder));
+                loader.loadClass("instrumentertest.TightLoop").getMethod("run", int.class).invoke(null, 1000);
+                counts[i] = (Integer) loader.loadClass("battlecode.instrumenter.inject.RobotMonitor")
+                        .getMethod("getBytecodeNum").invoke(null);
+            }
+        } finally {
+            config.setBoolean("bc.engine.debug-methods", debugMethods);
+        }
+
+        assertTrue(counts[0] > 1000);
+        assertEquals(counts[0], counts[1]);
+    }
+
     @Test
     public void testMaliciousURLs() {
         for (String badURL : new String[] {
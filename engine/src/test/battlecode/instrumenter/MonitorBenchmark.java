@@ -0,0 +1,71 @@
+package battlecode.instrumenter;
+
+import battlecode.instrumenter.profiler.Profiler;
+import battlecode.server.Config;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+/**
+ * Measures how much bytecode counting slows down a tight loop of player
+ * code: uninstrumented, instrumented with RobotMonitor.incrementBytecodes
+ * (what debug methods get), and with RobotMonitor.incrementBytecodesFast.
+ * Not run as part of the test suite; run it by hand.
+ */
+@Ignore
+public class MonitorBenchmark {
+    private static final int ITERATIONS = 1000000;
+    private static final int WARMUP = 50;
+    private static final int RUNS = 200;
+
+    /**
+     * Load a sample class into a new robot with no bytecode limit.
+     *
+     * @return the class's static run(int) method
+     */
+    static Method instrumentedRun(String folder, String className, boolean debugMethods) throws Exception {
+        Config config = Config.getGlobalConfig();
+        boolean old = config.getBoolean("bc.engine.debug-methods");
+        config.setBoolean("bc.engine.debug-methods", debugMethods);
+        try {
+            TeamClassLoaderFactory.Loader loader = new TeamClassLoaderFactory(folder).createLoader(false);
+            Class<?> monitor = loader.loadClass("battlecode.instrumenter.inject.RobotMonitor");
+            SandboxedRobotPlayer.Pauser pauser = () -> {};
+            SandboxedRobotPlayer.Killer killer = () -> {};
+            monitor.getMethod("init",
+                    SandboxedRobotPlayer.Pauser.class,
+                    SandboxedRobotPlayer.Killer.class,
+                    int.class,
+                    Profiler.class)
+                    .invoke(null, pauser, killer, 0, null);
+            monitor.getMethod("setBytecodeLimit", int.class).invoke(null, Integer.MAX_VALUE);
+            return loader.loadClass(className).getMethod("run", int.class);
+        } finally {
+            config.setBoolean("bc.engine.debug-methods", old);
+        }
+    }
+
+    private static double measure(Method loop) throws Exception {
+        for (int i = 0; i < WARMUP; i++)
+            loop.invoke(null, ITERATIONS);
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++)
+            loop.invoke(null, ITERATIONS);
+        return (double) (System.nanoTime() - start) / RUNS / ITERATIONS;
+    }
+
+    @Test
+    public void benchmarkMonitor() throws Exception {
+        String folder = URLUtils.toTempFolder("instrumentertest/TightLoop.class");
+        Method plain = Class.forName("instrumentertest.TightLoop").getMethod("run", int.class);
+        Method slow = instrumentedRun(folder, "instrumentertest.TightLoop", true);
+        Method fast = instrumentedRun(folder, "instrumentertest.TightLoop", false);
+
+        for (int round = 0; round < 2; round++) {
+            System.out.printf("uninstrumented:         %.2f ns per iteration%n", measure(plain));
+            System.out.printf("incrementBytecodes:     %.2f ns per iteration%n", measure(slow));
+            System.out.printf("incrementBytecodesFast: %.2f ns per iteration%n", measure(fast));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package battlecode.instrumenter;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+/**
+ * Measures player code that hashes its own objects, where every hashCode
+ * call goes through ObjectMethods. Not run as part of the test suite; run
+ * it by hand.
+ */
+@Ignore
+public class ObjectMethodsBenchmark {
+    private static final int ITERATIONS = 100000;
+    private static final int WARMUP = 100;
+    private static final int RUNS = 500;
+
+    @Test
+    public void benchmarkHashing() throws Exception {
+        String folder = URLUtils.toTempFolder(
+                "instrumentertest/HashesObjects.class",
+                "instrumentertest/HashesObjects$Node.class"
+        );
+        Method run = MonitorBenchmark.instrumentedRun(folder, "instrumentertest.HashesObjects", false);
+
+        for (int i = 0; i < WARMUP; i++)
+            run.invoke(null, ITERATIONS);
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++)
+                run.invoke(null, ITERATIONS);
+            System.out.printf("%.2f ns per HashMap lookup and update%n",
+                    (double) (System.nanoTime() - start) / RUNS / ITERATIONS);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package battlecode.instrumenter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RobotMonitorBridgeTest {
+    /**
+     * Stands in for a player's RobotMonitor.
+     */
+    public static final class FakeMonitor {
+        static int limit;
+        static boolean killed;
+        static int charged;
+
+        public static void killRobot() {
+            killed = true;
+        }
+
+        public static void setBytecodeLimit(int limit) {
+            FakeMonitor.limit = limit;
+        }
+
+        public static int getBytecodeNum() {
+            return limit - 1;
+        }
+
+        public static void incrementBytecodesWithoutInterrupt(int numBytecodes) {
+            charged += numBytecodes;
+        }
+    }
+
+    /**
+     * Has the wrong signature for setBytecodeLimit.
+     */
+    public static final class BadMonitor {
+        public static void killRobot() {
+        }
+
+        public static void setBytecodeLimit(long limit) {
+        }
+
+        public static int getBytecodeNum() {
+            return 0;
+        }
+
+        public static void incrementBytecodesWithoutInterrupt(int numBytecodes) {
+        }
+    }
+
+    @Test
+    public void testCallsMonitor() throws ReflectiveOperationException {
+        RobotMonitorBridge bridge = new RobotMonitorBridge(FakeMonitor.class);
+        bridge.setBytecodeLimit(7500);
+        assertEquals(7500, FakeMonitor.limit);
+        assertEquals(7499, bridge.getBytecodeNum());
+        assertFalse(FakeMonitor.killed);
+        bridge.killRobot();
+        assertTrue(FakeMonitor.killed);
+        bridge.incrementBytecodesWithoutInterrupt(12);
+        assertEquals(12, FakeMonitor.charged);
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testWrongSignature() throws ReflectiveOperationException {
+        new RobotMonitorBridge(BadMonitor.class);
+    }
+}
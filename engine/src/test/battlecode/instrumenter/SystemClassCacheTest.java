@@ -0,0 +1,35 @@
+package battlecode.instrumenter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SystemClassCacheTest {
+
+    @Test
+    public void testTeamsShareInstrumentedSystemClasses() throws Exception {
+        String folderA = URLUtils.toTempFolder("instrumentertest/Nothing.class");
+        String folderB = URLUtils.toTempFolder("instrumentertest/Outer.class");
+        TeamClassLoaderFactory a = new TeamClassLoaderFactory(folderA);
+        TeamClassLoaderFactory b = new TeamClassLoaderFactory(folderB);
+
+        Class<?> fromA = a.createLoader(false).loadClass("instrumented.java.util.ArrayList");
+        Class<?> fromB = b.createLoader(false).loadClass("instrumented.java.util.ArrayList");
+
+        // Each team still gets its own class, but from the same bytes
+        assertNotSame(fromA, fromB);
+        assertSame(a.getCached("instrumented.java.util.ArrayList"),
+                b.getCached("instrumented.java.util.ArrayList"));
+
+        assertEquals(0, b.getSystemClassStats().getClassesInstrumented());
+        assertTrue(b.getSystemClassStats().getClassesReused() > 0);
+        assertTrue(SystemClassCache.getTotalStats().getClassesReused() >= 1);
+
+        // The profiler adds calls, so those classes are kept apart
+        new TeamClassLoaderFactory(folderA).createLoader(true).loadClass("instrumented.java.util.ArrayList");
+        TeamClassLoaderFactory c = new TeamClassLoaderFactory(folderA);
+        c.createLoader(true).loadClass("instrumented.java.util.ArrayList");
+        assertNotSame(a.getCached("instrumented.java.util.ArrayList"),
+                c.getCached("instrumented.java.util.ArrayList"));
+    }
+}
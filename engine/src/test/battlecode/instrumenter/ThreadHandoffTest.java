@@ -0,0 +1,60 @@
+package battlecode.instrumenter;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that each ThreadHandoff lets exactly one thread run at a time.
+ */
+public class ThreadHandoffTest {
+    private static final int TURNS = 10000;
+
+    private static void checkAlternates(ThreadHandoff handoff) throws InterruptedException {
+        // Even while the engine runs, odd while the player runs
+        AtomicInteger step = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        Thread player = new Thread(() -> {
+            try {
+                for (int turn = 0; turn < TURNS; turn++) {
+                    if (step.getAndIncrement() % 2 != 0)
+                        failures.incrementAndGet();
+                    handoff.pausePlayer();
+                }
+            } catch (InterruptedException e) {
+                failures.incrementAndGet();
+            } finally {
+                handoff.playerFinished();
+            }
+        });
+
+        handoff.startPlayer(player);
+        for (int turn = 0; turn < TURNS; turn++) {
+            if (step.getAndIncrement() % 2 != 1)
+                failures.incrementAndGet();
+            handoff.runPlayer();
+        }
+        player.join();
+
+        assertEquals(0, failures.get());
+        assertEquals(2 * TURNS, step.get());
+    }
+
+    @Test
+    public void testMonitorHandoff() throws InterruptedException {
+        checkAlternates(ThreadHandoff.create("monitor"));
+    }
+
+    @Test
+    public void testParkingHandoff() throws InterruptedException {
+        checkAlternates(ThreadHandoff.create("park"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownHandoff() {
+        ThreadHandoff.create("semaphore");
+    }
+}
@@ -0,0 +1,38 @@
+package battlecode.instrumenter.inject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WeakIdentityIntMapTest {
+
+    @Test
+    public void testComparesByIdentity() {
+        WeakIdentityIntMap map = new WeakIdentityIntMap();
+        String a = new String("same");
+        String b = new String("same");
+
+        map.putNew(a, 1);
+        assertEquals(1, map.get(a, -1));
+        assertEquals(-1, map.get(b, -1));
+
+        map.putNew(b, 2);
+        assertEquals(1, map.get(a, -1));
+        assertEquals(2, map.get(b, -1));
+    }
+
+    @Test
+    public void testKeepsValuesThroughResizes() {
+        WeakIdentityIntMap map = new WeakIdentityIntMap();
+        Object[] keys = new Object[10000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Object();
+            map.putNew(keys[i], i);
+        }
+
+        assertEquals(keys.length, map.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, map.get(keys[i], -1));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package instrumentertest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts objects that don't override hashCode in a HashMap, so every
+ * lookup goes through ObjectMethods.hashCode.
+ */
+public class HashesObjects {
+    static class Node {
+        int visits;
+    }
+
+    public static int run(int n) {
+        Node[] nodes = new Node[256];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node();
+        }
+
+        Map<Node, Integer> counts = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Node node = nodes[(i * 31) & 255];
+            Integer count = counts.get(node);
+            counts.put(node, count == null ? 1 : count + 1);
+            node.visits++;
+        }
+        return counts.size();
+    }
+}
@@ -0,0 +1,20 @@
+package instrumentertest;
+
+/**
+ * Mostly short basic blocks, so the cost of counting bytecodes shows.
+ */
+public class TightLoop {
+    public static int run(int n) {
+        int[] a = new int[16];
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            a[i & 15] += i;
+            if ((a[(i * 7) & 15] & 1) == 0) {
+                sum ^= a[(i * 7) & 15];
+            } else {
+                sum += i;
+            }
+        }
+        return sum;
+    }
+}
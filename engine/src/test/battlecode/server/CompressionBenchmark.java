@@ -0,0 +1,71 @@
+package battlecode.server;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures how fast a replay-sized buffer is compressed by one
+ * GZIPOutputStream and by a ParallelDeflater on 1, 2, 4... threads, up to
+ * the number of cores. Not run as part of the test suite; run it by hand.
+ */
+@Ignore
+public class CompressionBenchmark {
+    private static final int SIZE = 64 * 1024 * 1024;
+    private static final int RUNS = 5;
+
+    private interface Compressor {
+        long compress(byte[] data) throws IOException;
+    }
+
+    private static void measure(String name, byte[] data, Compressor compressor) throws IOException {
+        long compressed = compressor.compress(data); // warm up
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            compressor.compress(data);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-22s %7.1f MB/s, %5.1f%% of original%n", name,
+                data.length / (best / 1e9) / (1 << 20), 100.0 * compressed / data.length);
+    }
+
+    @Test
+    public void benchmarkCompression() throws Exception {
+        byte[] data = ParallelDeflaterTest.sampleData(SIZE, 3);
+
+        measure("GZIPOutputStream", data, bytes -> {
+            CountingOutputStream out = new CountingOutputStream(new NullOutputStream());
+            try (GZIPOutputStream zipper = new GZIPOutputStream(out)) {
+                zipper.write(bytes);
+            }
+            return out.getByteCount();
+        });
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            final int n = threads;
+            ExecutorService pool = Executors.newFixedThreadPool(n);
+            try {
+                measure("ParallelDeflater x" + n, data, bytes -> {
+                    CountingOutputStream out = new CountingOutputStream(new NullOutputStream());
+                    ParallelDeflater deflater = new ParallelDeflater(out, pool, n);
+                    deflater.write(bytes);
+                    deflater.finish();
+                    return out.getByteCount();
+                });
+            } finally {
+                pool.shutdown();
+            }
+            if (threads == cores) {
+                break;
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package battlecode.server;
 
+import battlecode.common.Direction;
 import battlecode.common.GameConstants;
 import battlecode.common.MapLocation;
 import battlecode.common.RobotType;
@@ -7,12 +8,19 @@ import battlecode.common.Team;
 import battlecode.schema.Event;
 import battlecode.schema.GameHeader;
 import battlecode.schema.GameWrapper;
+import battlecode.schema.Keyframe;
+import battlecode.schema.Round;
 import battlecode.util.TeamMapping;
+import battlecode.world.DominationFactor;
+import battlecode.world.GameWorld;
 import battlecode.world.TestMapBuilder;
+import battlecode.world.control.RobotControlProvider;
 
 import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 
@@ -39,9 +47,264 @@ public class GameMakerTest {
 
     @Test(expected=RuntimeException.class)
     public void testStateExceptions() {
-        GameMaker gm = new GameMaker(info, null, true);
+        try (GameMaker gm = new GameMaker(info, null, true)) {
+            gm.makeGameFooter(Team.A);
+        }
+    }
+
+    @Test
+    public void testSummaryRecordsOnlyResults() {
+        try (GameMaker gm = new GameMaker(info, null, true, RecordMode.SUMMARY)) {
+            GameMaker.MatchMaker mm = gm.getMatchMaker();
+            assertFalse(mm.isRecording());
+
+            gm.makeGameHeader();
+            mm.makeMatchHeader(new TestMapBuilder("honolulu", 0, 0, 20, 20, 0).build());
+            mm.addMoved(1, new MapLocation(0, 0));
+            mm.makeRound(1, 0x1234L);
+            mm.makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, 1, 0x1234L, new ArrayList<>());
+            gm.makeGameFooter(Team.B);
+
+            assertEquals("teams\torg.bananas\torg.yellow\n"
+                    + "match\thonolulu\tB\tANNIHILATION\t1\t0000000000001234\n"
+                    + "winner\tB\n", gm.getSummary());
+        }
+    }
+
+    @Test(expected=RuntimeException.class)
+    public void testSummaryHasNoReplay() {
+        try (GameMaker gm = new GameMaker(info, null, true, RecordMode.SUMMARY)) {
+            gm.makeGameHeader();
+            gm.makeGameFooter(Team.B);
+            gm.toBytes();
+        }
+    }
+
+    @Test
+    public void testPacketsAreTheReplayEvents() throws Exception {
+        NetServer mockServer = Mockito.mock(NetServer.class);
+        try (GameMaker gm = new GameMaker(info, mockServer, true)) {
+            gm.makeGameHeader();
+            GameMaker.MatchMaker mm = gm.getMatchMaker();
+            mm.makeMatchHeader(new TestMapBuilder("honolulu", 0, 0, 20, 20, 0)
+                    .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                    .addSpawnLoc(Team.B, new MapLocation(19, 19))
+                    .build());
+            mm.addMoved(1, new MapLocation(1, 1));
+            mm.makeRound(1, 0x1234L);
+            mm.addDied(1);
+            mm.makeRound(2, 0x1234L);
+            mm.makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, 2, 0x1234L, new ArrayList<>());
+            gm.makeGameFooter(Team.B);
+
+            ArgumentCaptor<byte[]> packets = ArgumentCaptor.forClass(byte[].class);
+            verify(mockServer, times(6)).addEvent(packets.capture());
+
+            // Each event is encoded once, so every packet is in the replay as is
+            byte[] replay = ungzip(gm.toBytes());
+            int from = 0;
+            for (byte[] packet : packets.getAllValues()) {
+                int at = indexOf(replay, packet, from);
+                assertTrue("packet missing from replay", at >= 0);
+                from = at + packet.length;
+            }
+
+            GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(replay));
+            assertEquals(6, output.eventsLength());
+            assertEquals(Event.Round, output.events(3).eType());
+        }
+    }
+
+    @Test
+    public void testStepsAreDirectionCoded() throws Exception {
+        try (GameMaker gm = new GameMaker(info, null, true)) {
+            gm.makeGameHeader();
+            GameMaker.MatchMaker mm = gm.getMatchMaker();
+            mm.makeMatchHeader(new TestMapBuilder("honolulu", 0, 0, 20, 20, 0)
+                    .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                    .addSpawnLoc(Team.B, new MapLocation(19, 19))
+                    .build());
+
+            // Single steps are written as directions
+            mm.addMoved(1, new MapLocation(5, 5), new MapLocation(5, 6));
+            mm.addMoved(2, new MapLocation(5, 5), new MapLocation(4, 4));
+            mm.makeRound(1, 0);
+            // Anything else falls back to locations for the whole round
+            mm.addMoved(1, new MapLocation(5, 6), new MapLocation(6, 6));
+            mm.addMoved(2, new MapLocation(4, 4), new MapLocation(7, 4));
+            mm.makeRound(2, 0);
+            mm.makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, 2, 0, new ArrayList<>());
+            gm.makeGameFooter(Team.B);
+
+            GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(ungzip(gm.toBytes())));
+
+            Round steps = (Round) output.events(2).e(new Round());
+            assertNull(steps.movedLocs());
+            assertEquals(2, steps.movedDirsLength());
+            assertEquals(Direction.NORTH.ordinal(), steps.movedDirs(0));
+            assertEquals(Direction.SOUTHWEST.ordinal(), steps.movedDirs(1));
+
+            Round jump = (Round) output.events(3).e(new Round());
+            assertEquals(0, jump.movedDirsLength());
+            assertEquals(2, jump.movedIDsLength());
+            assertEquals(6, jump.movedLocs().xs(0));
+            assertEquals(7, jump.movedLocs().xs(1));
+        }
+    }
+
+    @Test
+    public void testIndicatorStringsAreInterned() throws Exception {
+        try (GameMaker gm = new GameMaker(info, null, true)) {
+            gm.makeGameHeader();
+            GameMaker.MatchMaker mm = gm.getMatchMaker();
+            for (int match = 0; match < 2; match++) {
+                mm.makeMatchHeader(new TestMapBuilder("honolulu", 0, 0, 20, 20, 0)
+                        .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                        .addSpawnLoc(Team.B, new MapLocation(19, 19))
+                        .build());
+                mm.addIndicatorString(1, "mining");
+                mm.addIndicatorString(2, "");
+                mm.addIndicatorString(3, "mining");
+                mm.makeRound(1, 0);
+                // Only changes are sent, and known strings aren't sent again
+                mm.addIndicatorString(1, "mining");
+                mm.addIndicatorString(2, "mining");
+                mm.addIndicatorString(3, "");
+                mm.makeRound(2, 0);
+                mm.makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, 2, 0, new ArrayList<>());
+            }
+            gm.makeGameFooter(Team.B);
+
+            GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(ungzip(gm.toBytes())));
+            for (int match = 0; match < 2; match++) {
+                // Each match has a table of its own
+                int header = output.matchHeaders(match);
+                Round first = (Round) output.events(header + 1).e(new Round());
+                assertEquals(2, first.indicatorStringIDsLength());
+                assertEquals(1, first.indicatorStringIDs(0));
+                assertEquals(3, first.indicatorStringIDs(1));
+                assertEquals(0, first.indicatorStringIndices(0));
+                assertEquals(0, first.indicatorStringIndices(1));
+                assertEquals(1, first.newIndicatorStringsLength());
+                assertEquals("mining", first.newIndicatorStrings(0));
+                assertEquals(0, first.indicatorStringsLength());
+
+                Round second = (Round) output.events(header + 2).e(new Round());
+                assertEquals(2, second.indicatorStringIDsLength());
+                assertEquals(2, second.indicatorStringIDs(0));
+                assertEquals(0, second.indicatorStringIndices(0));
+                assertEquals(3, second.indicatorStringIDs(1));
+                assertEquals(1, second.indicatorStringIndices(1));
+                assertEquals(1, second.newIndicatorStringsLength());
+                assertEquals("", second.newIndicatorStrings(0));
+            }
+        }
+    }
+
+    @Test
+    public void testIndicatorStringTableIsBounded() throws Exception {
+        try (GameMaker gm = new GameMaker(info, null, true)) {
+            gm.makeGameHeader();
+            GameMaker.MatchMaker mm = gm.getMatchMaker();
+            mm.makeMatchHeader(new TestMapBuilder("honolulu", 0, 0, 20, 20, 0)
+                    .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                    .addSpawnLoc(Team.B, new MapLocation(19, 19))
+                    .build());
+            int rounds = 2500;
+            mm.addIndicatorString(2, "steady");
+            for (int round = 1; round <= rounds; round++) {
+                mm.addIndicatorString(1, "round " + round);
+                mm.makeRound(round, 0);
+            }
+            mm.makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, rounds, 0, new ArrayList<>());
+            gm.makeGameFooter(Team.B);
+
+            // Read it as the client does
+            GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(ungzip(gm.toBytes())));
+            List<String> table = new ArrayList<>();
+            String[] shown = {"", "", ""};
+            int resets = 0;
+            int largest = 0;
+            for (int round = 1; round <= rounds; round++) {
+                Round delta = (Round) output.events(output.matchHeaders(0) + round).e(new Round());
+                if (delta.resetIndicatorStrings()) {
+                    table.clear();
+                    resets++;
+                }
+                for (int i = 0; i < delta.newIndicatorStringsLength(); i++) {
+                    table.add(delta.newIndicatorStrings(i));
+                }
+                largest = Math.max(largest, table.size());
+                for (int i = 0; i < delta.indicatorStringIDsLength(); i++) {
+                    shown[delta.indicatorStringIDs(i)] = table.get(delta.indicatorStringIndices(i));
+                }
+                assertEquals("round " + round, shown[1]);
+                assertEquals("steady", shown[2]);
+            }
+            assertEquals(2, resets);
+            assertTrue(largest + " strings", largest <= 1024);
+        }
+    }
+
+    @Test
+    public void testKeyframesAreIndexed() throws Exception {
+        try (GameMaker gm = new GameMaker(info, null, true, RecordMode.FULL, 4)) {
+            gm.makeGameHeader();
+            GameWorld world = new GameWorld(new TestMapBuilder("honolulu", 0, 0, 20, 20, 0)
+                    .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                    .addSpawnLoc(Team.B, new MapLocation(19, 19))
+                    .setUranium(3, 2, 50)
+                    .build(), Mockito.mock(RobotControlProvider.class), gm.getMatchMaker());
+            int id = world.spawnRobot(RobotType.ROBOT, Team.B, GameConstants.INITIAL_ROBOT_HEALTH);
+            for (int round = 1; round <= 10; round++) {
+                world.runRound();
+            }
+            gm.getMatchMaker().makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, 10, 0, new ArrayList<>());
+            gm.makeGameFooter(Team.B);
+            assertTrue(gm.getKeyframeOverhead() > 0);
+
+            GameWrapper output = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(ungzip(gm.toBytes())));
+            assertEquals(2, output.keyframesLength());
+            assertEquals(2, output.keyframeRoundsLength());
+            for (int i = 0; i < 2; i++) {
+                int index = output.keyframes(i);
+                assertEquals(4 * (i + 1), output.keyframeRounds(i));
+
+                // Each keyframe comes right after its round
+                Round round = (Round) output.events(index - 1).e(new Round());
+                assertEquals(output.keyframeRounds(i), round.roundID());
+                assertEquals(Event.Keyframe, output.events(index).eType());
+
+                Keyframe keyframe = (Keyframe) output.events(index).e(new Keyframe());
+                assertEquals(output.keyframeRounds(i), keyframe.roundID());
+                int body = 0;
+                while (keyframe.bodies().robotIDs(body) != id) {
+                    body++;
+                }
+                assertEquals(19, keyframe.bodies().locs().xs(body));
+                assertEquals(19, keyframe.bodies().locs().ys(body));
+                assertEquals(TeamMapping.id(Team.B), keyframe.bodies().teamIDs(body));
+                assertEquals(20 * 20, keyframe.uraniumLength());
+                assertEquals(world.getUranium(new MapLocation(3, 2)) > 0, keyframe.uranium(3 + 2 * 20) > 0);
+                assertEquals(TeamMapping.id(Team.A), keyframe.teamIDs(0));
+                assertEquals(2, keyframe.teamUraniumLength());
+            }
+            assertEquals(world.getTeamInfo().getUranium(Team.A), ((Keyframe) output.events(output.keyframes(1))
+                    .e(new Keyframe())).teamUranium(0) + 2 * GameConstants.PASSIVE_URANIUM_INCREASE);
+        }
+    }
 
-        gm.makeGameFooter(Team.A);
+    private static int indexOf(byte[] haystack, byte[] needle, int from) {
+        outer:
+        for (int i = from; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
     }
 
     // @Test(expected=RuntimeException.class)
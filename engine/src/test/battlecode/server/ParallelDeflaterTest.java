@@ -0,0 +1,85 @@
+package battlecode.server;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.*;
+
+public class ParallelDeflaterTest {
+
+    /**
+     * Something like a replay: repetitive, with some noise.
+     */
+    static byte[] sampleData(int length, long seed) {
+        Random random = new Random(seed);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = random.nextInt(8) == 0 ? (byte) random.nextInt() : (byte) (i % 61);
+        }
+        return data;
+    }
+
+    private static byte[] inflate(byte[] deflated) throws Exception {
+        return IOUtils.toByteArray(new InflaterInputStream(
+                new ByteArrayInputStream(deflated), new Inflater(true)));
+    }
+
+    private static void checkRoundTrip(byte[] data, ParallelDeflater deflater,
+                                       ByteArrayOutputStream out) throws Exception {
+        // Write in odd-sized pieces, so they straddle blocks
+        for (int i = 0; i < data.length; i += 10007) {
+            deflater.write(data, i, Math.min(10007, data.length - i));
+        }
+        deflater.finish();
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        assertEquals(crc.getValue(), deflater.getCrc());
+        assertEquals(data.length, deflater.getLength());
+        assertArrayEquals(data, inflate(out.toByteArray()));
+    }
+
+    @Test
+    public void testBlocksMakeOneDeflateStream() throws Exception {
+        byte[] data = sampleData(10 * ParallelDeflater.BLOCK_SIZE + 12345, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            checkRoundTrip(data, new ParallelDeflater(out, pool, 3), out);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameOutputOnAnyNumberOfThreads() throws Exception {
+        byte[] data = sampleData(5 * ParallelDeflater.BLOCK_SIZE, 2);
+
+        ByteArrayOutputStream direct = new ByteArrayOutputStream();
+        checkRoundTrip(data, new ParallelDeflater(direct, Runnable::run, 1), direct);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            ByteArrayOutputStream pooled = new ByteArrayOutputStream();
+            checkRoundTrip(data, new ParallelDeflater(pooled, pool, 4), pooled);
+            assertArrayEquals(direct.toByteArray(), pooled.toByteArray());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        checkRoundTrip(new byte[0], new ParallelDeflater(out, Runnable::run, 1), out);
+    }
+}
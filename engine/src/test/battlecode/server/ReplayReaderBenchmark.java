@@ -0,0 +1,108 @@
+package battlecode.server;
+
+import battlecode.common.*;
+import battlecode.schema.Round;
+import battlecode.world.DominationFactor;
+import battlecode.world.GameWorld;
+import battlecode.world.InternalRobot;
+import battlecode.world.TestMapBuilder;
+import battlecode.world.control.RobotControlProvider;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how many rounds a second a ReplayReader applies. Reads the
+ * replay named by -Dbc.benchmark.replay if given, or else a game of
+ * robots pacing back and forth on a full map. Not run as part of the test
+ * suite; run it by hand.
+ */
+@Ignore
+public class ReplayReaderBenchmark {
+    private static final int ROUNDS = 1500;
+    private static final int RUNS = 20;
+
+    private static File makeReplay() throws Exception {
+        GameMaker gm = new GameMaker(new GameInfo(
+                "bananas", "org.bananas", null,
+                "yellow", "org.yellow", null,
+                new String[] {"bench"}, null, false), null, true);
+        gm.makeGameHeader();
+
+        int width = GameConstants.MAP_MAX_WIDTH;
+        int height = GameConstants.MAP_MAX_HEIGHT;
+        TestMapBuilder builder = new TestMapBuilder("bench", 0, 0, width, height, 1337)
+                .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                .addSpawnLoc(Team.B, new MapLocation(width - 1, height - 1));
+        for (int x = 0; x < width; x += 3)
+            for (int y = 0; y < height; y += 3)
+                builder.setUranium(x, y, 10);
+        GameWorld world = new GameWorld(builder.build(), Mockito.mock(RobotControlProvider.class),
+                gm.getMatchMaker());
+
+        // every other column of every fourth row, so each robot can pace
+        List<InternalRobot> robots = new ArrayList<>();
+        for (int x = 0; x < width; x += 2) {
+            for (int y = 2; y < height - 2; y += 4) {
+                int id = world.spawnRobot(RobotType.ROBOT, x < width / 2 ? Team.A : Team.B,
+                        GameConstants.INITIAL_ROBOT_HEALTH);
+                InternalRobot robot = world.getRobotByID(id);
+                robot.setLocation(new MapLocation(x, y));
+                robots.add(robot);
+            }
+        }
+        System.out.println(robots.size() + " robots");
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            Direction dir = round % 2 == 1 ? Direction.EAST : Direction.WEST;
+            for (InternalRobot robot : robots) {
+                MapLocation from = robot.getLocation();
+                MapLocation to = from.add(dir);
+                robot.setLocation(to);
+                gm.getMatchMaker().addMoved(robot.getID(), from, to);
+            }
+            world.runRound();
+        }
+        gm.getMatchMaker().makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, ROUNDS, 0, new ArrayList<>());
+        gm.makeGameFooter(Team.B);
+
+        File replay = File.createTempFile("bench", ".bc22");
+        replay.deleteOnExit();
+        gm.writeGame(replay);
+        return replay;
+    }
+
+    @Test
+    public void benchmarkReplayReader() throws Exception {
+        String path = System.getProperty("bc.benchmark.replay");
+        File replay = path != null ? new File(path) : makeReplay();
+
+        try (ReplayReader reader = ReplayReader.open(replay)) {
+            long[] rounds = {0};
+            ReplayVisitor counter = new ReplayVisitor() {
+                @Override
+                public void visitRound(int match, Round round, ReplayState state) {
+                    rounds[0]++;
+                }
+            };
+            // warm up long enough for the JIT to settle
+            for (int i = 0; i < 3 * RUNS; i++) {
+                reader.accept(counter);
+            }
+            long perRun = rounds[0] / (3 * RUNS);
+
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                reader.accept(counter);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%d rounds in %.1f ms, %.0f rounds/s%n",
+                    perRun, best / 1e6, perRun / (best / 1e9));
+        }
+    }
+}
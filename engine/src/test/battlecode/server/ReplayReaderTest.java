@@ -0,0 +1,282 @@
+package battlecode.server;
+
+import battlecode.common.Direction;
+import battlecode.common.GameActionException;
+import battlecode.common.GameConstants;
+import battlecode.common.MapLocation;
+import battlecode.common.RobotType;
+import battlecode.common.Team;
+import battlecode.schema.MatchFooter;
+import battlecode.schema.Round;
+import battlecode.util.TeamMapping;
+import battlecode.world.DominationFactor;
+import battlecode.world.GameWorld;
+import battlecode.world.InternalRobot;
+import battlecode.world.TestMapBuilder;
+import battlecode.world.control.RobotControlProvider;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class ReplayReaderTest {
+    private static final int ROUNDS = 30;
+
+    private final GameInfo info = new GameInfo(
+                    "bananas", "org.bananas", null,
+                    "yellow","org.yellow", null,
+                    new String[] {"honolulu"}, null, false
+    );
+
+    /**
+     * Play a match where team A spawns a robot every round for a while and
+     * walks them east, so that the replay has spawns, moves, deaths and
+     * health changes.
+     */
+    private GameWorld play(GameMaker gm) throws GameActionException {
+        gm.makeGameHeader();
+        GameWorld world = new GameWorld(new TestMapBuilder("honolulu", 0, 0, 20, 20, 0)
+                .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                .addSpawnLoc(Team.B, new MapLocation(19, 19))
+                .setUranium(3, 2, 50)
+                .setUranium(10, 0, 5)
+                .build(), Mockito.mock(RobotControlProvider.class), gm.getMatchMaker());
+
+        List<Integer> walkers = new ArrayList<>();
+        for (int round = 1; round <= ROUNDS; round++) {
+            if (round <= 5) {
+                walkers.add(world.spawnRobot(RobotType.ROBOT, Team.A, GameConstants.INITIAL_ROBOT_HEALTH));
+            }
+            if (round == 12) {
+                world.destroyRobot(walkers.remove(0));
+            }
+            for (int id : walkers) {
+                if (round > 15) {
+                    break;
+                }
+                InternalRobot robot = world.getRobotByID(id);
+                MapLocation from = robot.getLocation();
+                MapLocation to = from.add(Direction.EAST);
+                robot.setLocation(to);
+                gm.getMatchMaker().addMoved(id, from, to);
+            }
+            world.runRound();
+        }
+        gm.getMatchMaker().makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, ROUNDS, 0, new ArrayList<>());
+        gm.makeGameFooter(Team.B);
+        return world;
+    }
+
+    /**
+     * Play a match where half the robots on team A show a string they have
+     * never shown before every turn, so the string table fills up and
+     * starts over, and the other half keep theirs for a while.
+     */
+    private void playWithStrings(GameMaker gm, int rounds, int robots) throws GameActionException {
+        gm.makeGameHeader();
+        GameWorld[] world = {null};
+        RobotControlProvider provider = Mockito.mock(RobotControlProvider.class);
+        Mockito.doAnswer((invocation) -> {
+            InternalRobot controller = (InternalRobot) invocation.getArguments()[0];
+            world[0].getObjectInfo().eachRobot((robot) -> {
+                if (robot.getType() == RobotType.ROBOT && robot.getTeam() == controller.getTeam()) {
+                    int round = world[0].getCurrentRound();
+                    robot.setIndicatorString(robot.getID() + " in round "
+                            + (robot.getID() % 2 == 0 ? round : round / 12 * 12));
+                }
+                return true;
+            });
+            return null;
+        }).when(provider).runRobot(Mockito.any());
+        world[0] = new GameWorld(new TestMapBuilder("honolulu", 0, 0, 20, 20, 0)
+                .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                .addSpawnLoc(Team.B, new MapLocation(19, 19))
+                .build(), provider, gm.getMatchMaker());
+        for (int i = 0; i < robots; i++) {
+            world[0].spawnRobot(RobotType.ROBOT, Team.A, GameConstants.INITIAL_ROBOT_HEALTH);
+        }
+        for (int round = 1; round <= rounds; round++) {
+            world[0].runRound();
+        }
+        gm.getMatchMaker().makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, rounds, 0, new ArrayList<>());
+        gm.makeGameFooter(Team.B);
+    }
+
+    private static ByteBuffer ungzip(byte[] in) throws Exception {
+        return ByteBuffer.wrap(IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(in))));
+    }
+
+    /**
+     * Copies the state after every round, so reads can be compared.
+     */
+    private static class Recorder extends ReplayVisitor {
+        final List<String> rounds = new ArrayList<>();
+        ReplayState last;
+
+        @Override
+        public void visitRound(int match, Round round, ReplayState state) {
+            assertEquals(round.roundID(), state.getRound());
+            rounds.add(describe(state));
+        }
+
+        @Override
+        public void visitMatchFooter(int match, MatchFooter footer, ReplayState state) {
+            last = state;
+        }
+    }
+
+    private static String describe(ReplayState state) {
+        StringBuilder result = new StringBuilder("round " + state.getRound());
+        int[] ids = Arrays.copyOf(state.ids(), state.size());
+        Arrays.sort(ids);
+        for (int id : ids) {
+            int i = state.indexOf(id);
+            result.append(String.format(" %d:%d:%d@%d,%d/%.3f'%s'", id, state.teams()[i], state.types()[i],
+                    state.xs()[i], state.ys()[i], state.healths()[i], state.indicatorStrings()[i]));
+        }
+        result.append(" uranium ").append(Arrays.toString(state.uranium()));
+        for (int team = 0; team < 3; team++) {
+            result.append(" ").append(state.getTeamUranium(team)).append("/").append(state.getTeamUraniumMined(team));
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void testRebuildsTheWorld() throws Exception {
+        try (GameMaker gm = new GameMaker(info, null, true)) {
+            GameWorld world = play(gm);
+
+            ReplayReader reader = new ReplayReader(ungzip(gm.toBytes()));
+            assertEquals(1, reader.getMatchCount());
+            Recorder recorder = new Recorder();
+            reader.accept(recorder);
+            assertEquals(ROUNDS, recorder.rounds.size());
+
+            ReplayState state = recorder.last;
+            assertEquals(ROUNDS, state.getRound());
+            assertEquals(20, state.getWidth());
+            assertEquals(20, state.getHeight());
+
+            int[] bodies = {0};
+            world.getObjectInfo().eachRobot((robot) -> {
+                if (robot.getType() == RobotType.CONTROLLER) {
+                    return true;
+                }
+                bodies[0]++;
+                int i = state.indexOf(robot.getID());
+                assertTrue("missing " + robot.getID(), i >= 0);
+                assertEquals(TeamMapping.id(robot.getTeam()), state.teams()[i]);
+                assertEquals(robot.getLocation().x, state.xs()[i]);
+                assertEquals(robot.getLocation().y, state.ys()[i]);
+                // Health changes are rounded to thousandths in the replay
+                assertEquals(robot.getHealth(), state.healths()[i], 1);
+                return true;
+            });
+            assertEquals(bodies[0], state.size());
+
+            for (int i = 0; i < 20 * 20; i++) {
+                assertEquals(world.getUraniumAtIndex(i), state.uranium()[i]);
+            }
+            for (Team team : new Team[] {Team.A, Team.B}) {
+                assertEquals(world.getTeamInfo().getUranium(team), state.getTeamUranium(TeamMapping.id(team)));
+            }
+        }
+    }
+
+    @Test
+    public void testMovingUnknownBodyFails() throws Exception {
+        try (GameMaker gm = new GameMaker(info, null, true)) {
+            gm.makeGameHeader();
+            GameMaker.MatchMaker mm = gm.getMatchMaker();
+            mm.makeMatchHeader(new TestMapBuilder("honolulu", 0, 0, 20, 20, 0)
+                    .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                    .addSpawnLoc(Team.B, new MapLocation(19, 19))
+                    .build());
+            mm.addMoved(12345, new MapLocation(5, 5), new MapLocation(5, 6));
+            mm.makeRound(1, 0);
+            mm.makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, 1, 0, new ArrayList<>());
+            gm.makeGameFooter(Team.B);
+
+            ReplayReader reader = new ReplayReader(ungzip(gm.toBytes()));
+            try {
+                reader.accept(new Recorder());
+                fail("moved a body that doesn't exist");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("12345"));
+            }
+        }
+    }
+
+    @Test
+    public void testSeekAcrossIndicatorStringResets() throws Exception {
+        try (GameMaker gm = new GameMaker(info, null, true, RecordMode.FULL, 4)) {
+            int rounds = 150;
+            playWithStrings(gm, rounds, 30);
+
+            ReplayReader reader = new ReplayReader(ungzip(gm.toBytes()));
+            int[] resets = {0};
+            Recorder full = new Recorder() {
+                @Override
+                public void visitRound(int match, Round round, ReplayState state) {
+                    super.visitRound(match, round, state);
+                    if (round.resetIndicatorStrings()) {
+                        resets[0]++;
+                    }
+                    // Team A has the odd rounds
+                    int turn = round.roundID() % 2 == 1 ? round.roundID() : round.roundID() - 1;
+                    for (int i = 0; i < state.size(); i++) {
+                        int id = state.ids()[i];
+                        if (state.teams()[i] == TeamMapping.id(Team.A)) {
+                            assertEquals(id + " in round " + (id % 2 == 0 ? turn : turn / 12 * 12),
+                                    state.indicatorStrings()[i]);
+                        }
+                    }
+                }
+            };
+            reader.accept(full);
+            assertEquals(rounds, full.rounds.size());
+            assertTrue(resets[0] > 0);
+
+            for (int from = 1; from <= rounds; from += 5) {
+                Recorder seek = new Recorder();
+                reader.accept(seek, 0, from);
+                assertEquals("seeking to " + from, full.rounds.subList(from - 1, rounds), seek.rounds);
+            }
+        }
+    }
+
+    @Test
+    public void testSeekMatchesFullRead() throws Exception {
+        try (GameMaker gm = new GameMaker(info, null, true, RecordMode.FULL, 4)) {
+            play(gm);
+
+            File saved = File.createTempFile("replay", ".bc22");
+            try {
+                gm.writeGame(saved);
+                try (ReplayReader reader = ReplayReader.open(saved)) {
+                    Recorder full = new Recorder();
+                    reader.accept(full);
+                    assertEquals(ROUNDS, full.rounds.size());
+
+                    for (int from = 1; from <= ROUNDS; from += 3) {
+                        Recorder seek = new Recorder();
+                        reader.accept(seek, 0, from);
+                        assertEquals("seeking to " + from,
+                                full.rounds.subList(from - 1, ROUNDS), seek.rounds);
+                    }
+                }
+            } finally {
+                saved.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package battlecode.server;
+
+import battlecode.common.MapLocation;
+import battlecode.common.Team;
+import battlecode.schema.Event;
+import battlecode.schema.GameHeader;
+import battlecode.schema.GameWrapper;
+import battlecode.schema.MatchHeader;
+import battlecode.schema.Round;
+import battlecode.world.DominationFactor;
+import battlecode.world.TestMapBuilder;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class ReplayWriterTest {
+    private final GameInfo info = new GameInfo(
+            "bananas", "org.bananas", null,
+            "yellow", "org.yellow", null,
+            new String[] {"honolulu", "argentina"}, null, false
+    );
+
+    @Test
+    public void testCrc32Combine() {
+        Random random = new Random(42);
+        for (int length : new int[] {0, 1, 7, 100, 65536}) {
+            byte[] first = new byte[37];
+            byte[] second = new byte[length];
+            random.nextBytes(first);
+            random.nextBytes(second);
+
+            CRC32 whole = new CRC32();
+            whole.update(first);
+            whole.update(second);
+            CRC32 a = new CRC32();
+            a.update(first);
+            CRC32 b = new CRC32();
+            b.update(second);
+
+            assertEquals(whole.getValue(), ReplayWriter.crc32Combine(a.getValue(), b.getValue(), length));
+        }
+    }
+
+    @Test
+    public void testStreamedGameReadsAsGameWrapper() throws Exception {
+        try (GameMaker gm = new GameMaker(info, null, true)) {
+            gm.makeGameHeader();
+            for (int match = 0; match < 2; match++) {
+                GameMaker.MatchMaker mm = gm.getMatchMaker();
+                mm.makeMatchHeader(new TestMapBuilder(info.getMaps()[match], 0, 0, 20, 20, 0)
+                        .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                        .addSpawnLoc(Team.B, new MapLocation(19, 19))
+                        .build());
+                for (int round = 1; round <= 50; round++) {
+                    mm.addMoved(round, new MapLocation(round % 20, match));
+                    mm.makeRound(round, round);
+                }
+                mm.makeMatchFooter(Team.B, DominationFactor.ANNIHILATION, 50, 50, new ArrayList<>());
+            }
+            gm.makeGameFooter(Team.B);
+
+            byte[] bytes = gm.toBytes();
+            File saved = File.createTempFile("replay", ".bc22");
+            try {
+                gm.writeGame(saved);
+                assertArrayEquals(bytes, FileUtils.readFileToByteArray(saved));
+            } finally {
+                saved.delete();
+            }
+
+            byte[] raw = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(bytes)));
+            GameWrapper wrapper = GameWrapper.getRootAsGameWrapper(ByteBuffer.wrap(raw));
+
+            assertEquals(2 + 2 * 52, wrapper.eventsLength());
+            assertEquals(2, wrapper.matchHeadersLength());
+            assertEquals(1, wrapper.matchHeaders(0));
+            assertEquals(53, wrapper.matchHeaders(1));
+            assertEquals(2, wrapper.matchFootersLength());
+            assertEquals(52, wrapper.matchFooters(0));
+            assertEquals(104, wrapper.matchFooters(1));
+
+            assertEquals(Event.GameHeader, wrapper.events(0).eType());
+            GameHeader header = (GameHeader) wrapper.events(0).e(new GameHeader());
+            assertEquals("yellow", header.teams(1).name());
+
+            MatchHeader matchHeader = (MatchHeader) wrapper.events(53).e(new MatchHeader());
+            assertEquals("argentina", matchHeader.map().name());
+
+            for (int round = 1; round <= 50; round++) {
+                assertEquals(Event.Round, wrapper.events(53 + round).eType());
+                Round r = (Round) wrapper.events(53 + round).e(new Round());
+                assertEquals(round, r.roundID());
+                assertEquals(round, r.movedIDs(0));
+                assertEquals(round % 20, r.movedLocs().xs(0));
+                assertEquals(1, r.movedLocs().ys(0));
+            }
+            assertEquals(Event.GameFooter, wrapper.events(105).eType());
+        }
+    }
+}
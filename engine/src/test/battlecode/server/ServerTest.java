@@ -0,0 +1,190 @@
+package battlecode.server;
+
+import battlecode.common.Team;
+import battlecode.schema.GameFooter;
+import battlecode.schema.MatchFooter;
+import battlecode.world.GameWorld;
+import battlecode.world.control.NullControlProvider;
+import battlecode.world.control.RobotControlProvider;
+import battlecode.world.control.TeamControlProvider;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ServerTest {
+    private final List<File> saveFiles = new ArrayList<>();
+
+    /**
+     * Runs games with robots that do nothing, so no players are loaded.
+     * A game whose team A is named "broken" fails before its first match,
+     * and one whose team A is named "crashing" fails in its first match.
+     */
+    private static class IdleServer extends Server {
+        private final CountDownLatch started;
+
+        IdleServer(Config options, CountDownLatch started) {
+            super(options, false);
+            this.started = started;
+        }
+
+        @Override
+        RobotControlProvider createControlProvider(GameInfo game, GameMaker gameMaker, boolean profilingEnabled) {
+            if (game.getTeamAName().equals("broken"))
+                throw new IllegalStateException("can't set up " + game);
+            TeamControlProvider provider = new TeamControlProvider();
+            provider.registerControlProvider(Team.A, new NullControlProvider() {
+                @Override
+                public void matchStarted(GameWorld world) {
+                    if (game.getTeamAName().equals("crashing"))
+                        throw new IllegalStateException("can't run " + game);
+                    // hold every match until they have all started
+                    started.countDown();
+                    try {
+                        assertTrue("matches didn't overlap", started.await(1, TimeUnit.MINUTES));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            provider.registerControlProvider(Team.B, new NullControlProvider());
+            provider.registerControlProvider(Team.NEUTRAL, new NullControlProvider());
+            return provider;
+        }
+    }
+
+    private Config config;
+
+    @Before
+    public void setUp() {
+        config = new Config(new String[] {"-c", "-"});
+        config.setBoolean("bc.server.websocket", false);
+        config.set("bc.server.match-workers", "2");
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : saveFiles) {
+            file.delete();
+            Server.summaryFile(file).delete();
+        }
+    }
+
+    private GameInfo game(String teamA) throws IOException {
+        File saveFile = File.createTempFile("server", ".bc22");
+        saveFile.delete();
+        saveFiles.add(saveFile);
+        return new GameInfo(teamA, "org." + teamA, null, "yellow", "org.yellow", null,
+                new String[] {"maptestsmall"}, saveFile, false);
+    }
+
+    /**
+     * @return the replay spools in the temporary directory
+     */
+    private static Set<String> spools() {
+        Set<String> spools = new HashSet<>();
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith("replay") && file.getName().endsWith(".spool"))
+                    spools.add(file.getName());
+            }
+        }
+        return spools;
+    }
+
+    private static byte[] winners(File replay) throws IOException {
+        byte[] winners = {-1, -1};
+        try (ReplayReader reader = ReplayReader.open(replay)) {
+            reader.accept(new ReplayVisitor() {
+                @Override
+                public void visitMatchFooter(int match, MatchFooter footer, ReplayState state) {
+                    winners[0] = footer.winner();
+                }
+
+                @Override
+                public void visitGameFooter(GameFooter footer) {
+                    winners[1] = footer.winner();
+                }
+            });
+        }
+        return winners;
+    }
+
+    @Test(timeout = 120000)
+    public void testRunsGamesInParallel() throws Exception {
+        IdleServer server = new IdleServer(config, new CountDownLatch(2));
+        GameInfo first = game("bananas");
+        GameInfo second = game("apples");
+        server.addGameNotification(first);
+        server.addGameNotification(second);
+        server.terminateNotification();
+        server.run();
+
+        assertEquals(ServerState.FINISHED, server.getState());
+        byte[] firstWinners = winners(first.getSaveFile());
+        byte[] secondWinners = winners(second.getSaveFile());
+        assertNotEquals(-1, firstWinners[0]);
+        assertEquals(firstWinners[0], firstWinners[1]);
+        // same map, same idle robots, so the same result
+        assertArrayEquals(firstWinners, secondWinners);
+    }
+
+    @Test(timeout = 120000)
+    public void testReportsFailedGame() throws Exception {
+        Set<String> spools = spools();
+        IdleServer server = new IdleServer(config, new CountDownLatch(1));
+        GameInfo broken = game("broken");
+        GameInfo working = game("bananas");
+        server.addGameNotification(broken);
+        server.addGameNotification(working);
+        server.terminateNotification();
+        server.run();
+
+        assertEquals(ServerState.ERROR, server.getState());
+        assertFalse(broken.getSaveFile().exists());
+        assertNotEquals(-1, winners(working.getSaveFile())[0]);
+        assertEquals(spools, spools());
+    }
+
+    @Test(timeout = 120000)
+    public void testFailedMatchDeletesSpool() throws Exception {
+        Set<String> spools = spools();
+        IdleServer server = new IdleServer(config, new CountDownLatch(1));
+        GameInfo crashing = game("crashing");
+        server.addGameNotification(crashing);
+        server.terminateNotification();
+        server.run();
+
+        assertEquals(ServerState.ERROR, server.getState());
+        assertFalse(crashing.getSaveFile().exists());
+        assertEquals(spools, spools());
+    }
+
+    @Test(timeout = 120000)
+    public void testSummaryLeavesSaveFileAlone() throws Exception {
+        config.set("bc.server.record", "summary");
+        IdleServer server = new IdleServer(config, new CountDownLatch(1));
+        GameInfo game = game("bananas");
+        server.addGameNotification(game);
+        server.terminateNotification();
+        server.run();
+
+        assertEquals(ServerState.FINISHED, server.getState());
+        assertFalse(game.getSaveFile().exists());
+        String summary = FileUtils.readFileToString(Server.summaryFile(game.getSaveFile()), StandardCharsets.UTF_8);
+        assertTrue(summary, summary.startsWith("teams\torg.bananas\torg.yellow\nmatch\tmaptestsmall\t"));
+    }
+}
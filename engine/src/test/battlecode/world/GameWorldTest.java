@@ -0,0 +1,263 @@
+package battlecode.world;
+
+import battlecode.common.*;
+
+import org.junit.Test;
+
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the spatial queries in GameWorld.
+ */
+public class GameWorldTest {
+
+    private static GameWorld makeWorld(int oX, int oY, int width, int height) throws GameActionException {
+        LiveMap map = new TestMapBuilder("test", oX, oY, width, height, 1337)
+                .addSpawnLoc(Team.A, new MapLocation(oX + 2, oY + 2))
+                .addSpawnLoc(Team.B, new MapLocation(oX + width - 3, oY + height - 3))
+                .build();
+        return new TestGame(map).getWorld();
+    }
+
+    private static MapLocation[] bruteForce(LiveMap map, MapLocation center, int radiusSquared) {
+        List<MapLocation> result = new ArrayList<>();
+        MapLocation origin = map.getOrigin();
+        for (int x = origin.x; x < origin.x + map.getWidth(); x++) {
+            for (int y = origin.y; y < origin.y + map.getHeight(); y++) {
+                long dx = x - center.x;
+                long dy = y - center.y;
+                if (dx * dx + dy * dy <= radiusSquared)
+                    result.add(new MapLocation(x, y));
+            }
+        }
+        return result.toArray(new MapLocation[result.size()]);
+    }
+
+    @Test
+    public void testLocationsWithinRadiusSquared() throws GameActionException {
+        GameWorld world = makeWorld(3, 7, 30, 25);
+        LiveMap map = world.getGameMap();
+
+        MapLocation[] centers = {
+                new MapLocation(3, 7),
+                new MapLocation(17, 20),
+                new MapLocation(32, 31),
+                new MapLocation(0, 0),
+                new MapLocation(-20, 50),
+        };
+        int[] radii = {0, 1, 2, 5, 8, 13, 20, 50, 100, 1000, 2000, 3042, 3043, 10000, Integer.MAX_VALUE};
+        for (MapLocation center : centers) {
+            for (int radiusSquared : radii) {
+                assertArrayEquals(center + " " + radiusSquared,
+                        bruteForce(map, center, radiusSquared),
+                        world.getAllLocationsWithinRadiusSquared(center, radiusSquared));
+            }
+        }
+    }
+
+    @Test
+    public void testLocationsWithinManyRadiiSquared() throws GameActionException {
+        // more distinct radii than a world keeps offset tables for
+        GameWorld world = makeWorld(0, 0, 20, 20);
+        LiveMap map = world.getGameMap();
+        MapLocation center = new MapLocation(6, 11);
+        for (int pass = 0; pass < 2; pass++) {
+            for (int radiusSquared = 0; radiusSquared < 100; radiusSquared++) {
+                assertArrayEquals(center + " " + radiusSquared,
+                        bruteForce(map, center, radiusSquared),
+                        world.getAllLocationsWithinRadiusSquared(center, radiusSquared));
+            }
+        }
+    }
+
+    @Test
+    public void testLocationsWithinRadiusSquaredCellIndex() throws GameActionException {
+        GameWorld world = makeWorld(0, 0, 20, 20);
+        world.forEachLocationWithinRadiusSquared(new MapLocation(4, 9), 20, (x, y, index) -> {
+            assertEquals(world.locationToIndex(new MapLocation(x, y)), index);
+            return true;
+        });
+
+        int[] visited = new int[1];
+        world.forEachLocationWithinRadiusSquared(new MapLocation(4, 9), 20, (x, y, index) -> {
+            visited[0]++;
+            return visited[0] < 3;
+        });
+        assertEquals(3, visited[0]);
+    }
+
+    @Test
+    public void testRobotsWithinRadiusSquared() throws GameActionException {
+        GameWorld world = makeWorld(0, 0, 20, 20);
+
+        InternalRobot[] near = world.getAllRobotsWithinRadiusSquared(new MapLocation(0, 0), 8);
+        assertEquals(1, near.length);
+        assertEquals(Team.A, near[0].getTeam());
+
+        assertEquals(0, world.getAllRobotsWithinRadiusSquared(new MapLocation(10, 10), 4).length);
+        assertEquals(2, world.getAllRobotsWithinRadiusSquared(new MapLocation(10, 10), Integer.MAX_VALUE).length);
+    }
+
+    /**
+     * Has both controllers build robots and move and mine with them at random.
+     */
+    private static void playRandomRounds(TestGame game, Random random, int rounds) throws GameActionException {
+        for (int round = 0; round < rounds; round++) {
+            game.round((id, rc) -> {
+                if (rc.getType() != RobotType.CONTROLLER)
+                    return;
+                if (rc.canBuildRobot(1 + random.nextInt(3)))
+                    rc.buildRobot(1 + random.nextInt(3));
+
+                TIntArrayList ids = new TIntArrayList();
+                List<Direction> dirs = new ArrayList<>();
+                for (RobotInfo robot : rc.senseNearbyRobots(new MapLocation(0, 0), -1, rc.getTeam())) {
+                    ids.add(robot.ID);
+                    dirs.add(Direction.values()[random.nextInt(Direction.values().length)]);
+                }
+                rc.mineAll(ids.toArray());
+                rc.moveAll(ids.toArray(), dirs.toArray(new Direction[dirs.size()]));
+            });
+        }
+    }
+
+    private static String describe(GameWorld world) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(world.getCurrentRound()).append(' ').append(world.isRunning())
+                .append(' ').append(world.getWinner()).append('\n');
+        for (Team team : new Team[]{Team.A, Team.B})
+            sb.append(world.getTeamInfo().getUranium(team)).append(' ')
+                    .append(world.getTeamInfo().getUraniumMined(team)).append('\n');
+        sb.append(new IDGenerator(world.idGenerator).nextID()).append('\n');
+        for (int i = 0; i < world.getGameMap().getWidth() * world.getGameMap().getHeight(); i++)
+            sb.append(world.getUraniumAtIndex(i)).append(',');
+        sb.append('\n');
+        world.getObjectInfo().eachDynamicBodyByExecOrder((robot) -> {
+            sb.append(robot.getID()).append(' ').append(robot.getTeam()).append(' ')
+                    .append(robot.getLocation()).append(' ').append(robot.getHealth()).append(' ')
+                    .append(robot.getCooldownTurns()).append(' ').append(robot.getRoundsAlive()).append('\n');
+            if (robot.getLocation() != null)
+                assertSame(robot, world.getRobot(robot.getLocation()));
+            return true;
+        });
+        sb.append(world.getObjectInfo().getRosterSize(Team.A)).append(' ')
+                .append(world.getObjectInfo().getRosterSize(Team.B)).append('\n');
+        // the ID table order, which eachRobot follows, must come back too
+        world.getObjectInfo().eachRobot((robot) -> {
+            sb.append(robot.getID()).append(',');
+            return true;
+        });
+        return sb.toString();
+    }
+
+    @Test
+    public void testSnapshotRestore() throws GameActionException {
+        TestMapBuilder builder = new TestMapBuilder("test", 0, 0, 20, 20, 1337)
+                .addSpawnLoc(Team.A, new MapLocation(5, 5))
+                .addSpawnLoc(Team.B, new MapLocation(9, 9));
+        for (int x = 0; x < 20; x++)
+            builder.setUranium(x, 7, 5);
+        TestGame game = new TestGame(builder.build());
+        GameWorld world = game.getWorld();
+
+        playRandomRounds(game, new Random(1), 30);
+        WorldSnapshot snapshot = world.snapshot();
+        String before = describe(world);
+
+        playRandomRounds(game, new Random(2), 60);
+        String after = describe(world);
+        assertNotEquals(before, after);
+
+        // restoring brings back robots that died and forgets ones that
+        // spawned, and replaying the same orders ends up in the same place
+        world.restore(snapshot);
+        assertEquals(30, snapshot.getRound());
+        assertEquals(before, describe(world));
+        playRandomRounds(game, new Random(2), 60);
+        assertEquals(after, describe(world));
+
+        world.restore(snapshot);
+        assertEquals(before, describe(world));
+    }
+
+    @Test
+    public void testWorldHash() throws GameActionException {
+        TestMapBuilder builder = new TestMapBuilder("test", 0, 0, 20, 20, 1337)
+                .addSpawnLoc(Team.A, new MapLocation(5, 5))
+                .addSpawnLoc(Team.B, new MapLocation(9, 9));
+        for (int x = 0; x < 20; x++)
+            builder.setUranium(x, 7, 5);
+        LiveMap map = builder.build();
+
+        TestGame game = new TestGame(map);
+        GameWorld world = game.getWorld();
+        Random random = new Random(1);
+        long[] hashes = new long[50];
+        for (int round = 0; round < hashes.length; round++) {
+            playRandomRounds(game, random, 1);
+            hashes[round] = world.getWorldHash();
+            assertEquals(WorldHash.of(world), hashes[round]);
+        }
+        assertNotEquals(hashes[0], hashes[hashes.length - 1]);
+
+        // the same game gives the same hashes
+        TestGame other = new TestGame(map);
+        random = new Random(1);
+        for (int round = 0; round < hashes.length; round++) {
+            playRandomRounds(other, random, 1);
+            assertEquals(hashes[round], other.getWorld().getWorldHash());
+        }
+
+        WorldSnapshot snapshot = world.snapshot();
+        playRandomRounds(game, new Random(2), 10);
+        assertNotEquals(hashes[hashes.length - 1], world.getWorldHash());
+        world.restore(snapshot);
+        assertEquals(hashes[hashes.length - 1], world.getWorldHash());
+        assertEquals(WorldHash.of(world), world.getWorldHash());
+    }
+
+    private static List<MapLocation> locationsWithUranium(GameWorld world, MapLocation center, int radiusSquared,
+                                                          boolean useIndex) {
+        List<MapLocation> result = new ArrayList<>();
+        GameWorld.LocationProcedure op = (x, y, index) -> {
+            if (world.getUraniumAtIndex(index) > 0)
+                result.add(new MapLocation(x, y));
+            return true;
+        };
+        if (useIndex)
+            world.forEachLocationWithUraniumWithinRadiusSquared(center, radiusSquared, op);
+        else
+            world.forEachLocationWithinRadiusSquared(center, radiusSquared, op);
+        return result;
+    }
+
+    @Test
+    public void testUraniumIndexMatchesScan() throws GameActionException {
+        Random random = new Random(5);
+        TestMapBuilder builder = new TestMapBuilder("test", 3, 4, 23, 31, 1337)
+                .addSpawnLoc(Team.A, new MapLocation(5, 5))
+                .addSpawnLoc(Team.B, new MapLocation(9, 9));
+        for (int x = 0; x < 23; x++)
+            for (int y = 0; y < 31; y++)
+                if (random.nextInt(4) == 0)
+                    builder.setUranium(x, y, 1 + random.nextInt(3));
+        GameWorld world = new TestGame(builder.build()).getWorld();
+
+        for (int i = 0; i < 500; i++) {
+            // mine some deposits out and grow some new ones
+            MapLocation loc = new MapLocation(3 + random.nextInt(23), 4 + random.nextInt(31));
+            world.setUranium(loc, random.nextBoolean() ? 0 : random.nextInt(3));
+
+            MapLocation center = new MapLocation(random.nextInt(40) - 5, random.nextInt(45) - 5);
+            int radiusSquared = random.nextInt(10) == 0 ? Integer.MAX_VALUE : random.nextInt(120);
+            assertEquals(locationsWithUranium(world, center, radiusSquared, false),
+                    locationsWithUranium(world, center, radiusSquared, true));
+        }
+    }
+}
@@ -3,7 +3,9 @@ package battlecode.world;
 import org.junit.Test;
 
 import java.util.BitSet;
+import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 /**
@@ -23,4 +25,35 @@ public class IDGeneratorTest {
             seen.set(nextID, true);
         }
     }
+
+    @Test
+    public void testCopyAndRestore() {
+        IDGenerator gen = new IDGenerator(0);
+        for (int i = 0; i < IDGenerator.ID_BLOCK_SIZE - 10; i++)
+            gen.nextID();
+
+        // the copy has to carry over into the next block too
+        IDGenerator copy = new IDGenerator(gen);
+        int[] expected = new int[IDGenerator.ID_BLOCK_SIZE];
+        for (int i = 0; i < expected.length; i++)
+            expected[i] = gen.nextID();
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], copy.nextID());
+
+        gen.restore(copy);
+        assertEquals(copy.nextID(), gen.nextID());
+    }
+
+    @Test
+    public void testRestorableRandomMatchesRandom() {
+        Random expected = new Random(1337);
+        RestorableRandom random = new RestorableRandom(1337);
+        for (int i = 0; i < 1000; i++)
+            assertEquals(expected.nextInt(i + 1), random.nextInt(i + 1));
+
+        long state = random.getState();
+        int next = random.nextInt();
+        random.setState(state);
+        assertEquals(next, random.nextInt());
+    }
 }
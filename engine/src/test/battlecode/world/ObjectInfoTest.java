@@ -0,0 +1,139 @@
+package battlecode.world;
+
+import battlecode.common.*;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the bookkeeping in ObjectInfo.
+ */
+public class ObjectInfoTest {
+
+    private GameWorld world;
+    private ObjectInfo objectInfo;
+
+    @Before
+    public void setupWorld() throws GameActionException {
+        LiveMap map = new TestMapBuilder("test", 0, 0, 20, 20, 1337)
+                .addSpawnLoc(Team.A, new MapLocation(2, 2))
+                .addSpawnLoc(Team.B, new MapLocation(17, 17))
+                .build();
+        world = new TestGame(map).getWorld();
+        objectInfo = world.getObjectInfo();
+    }
+
+    private int spawnAt(Team team, int x, int y) throws GameActionException {
+        // spawning covers whatever stands on the spawn location; put it back afterwards
+        InternalRobot standing = world.getRobot(world.getSpawnLoc(team));
+        int id = world.spawnRobot(RobotType.ROBOT, team, 10);
+        objectInfo.getRobotByID(id).setLocation(new MapLocation(x, y));
+        if (standing != null)
+            world.addRobot(standing.getLocation(), standing);
+        return id;
+    }
+
+    private TIntArrayList sensed(MapLocation center, int radiusSquared, Team team) {
+        TIntArrayList ids = new TIntArrayList();
+        objectInfo.eachRobotWithinRadiusSquared(center, radiusSquared, team, (robot) -> {
+            ids.add(robot.getID());
+            return true;
+        });
+        return ids;
+    }
+
+    @Test
+    public void testRostersFollowSpawnsMovesAndDeaths() throws GameActionException {
+        int initialA = world.getRobot(new MapLocation(2, 2)).getID();
+        int initialB = world.getRobot(new MapLocation(17, 17)).getID();
+        assertEquals(1, objectInfo.getRosterSize(Team.A));
+        assertEquals(1, objectInfo.getRosterSize(Team.B));
+
+        int a1 = spawnAt(Team.A, 5, 5);
+        int b1 = spawnAt(Team.B, 6, 5);
+        int a2 = spawnAt(Team.A, 10, 10);
+
+        // unbounded queries are in spawn order across teams
+        assertEquals(new TIntArrayList(new int[]{initialA, initialB, a1, b1, a2}),
+                sensed(new MapLocation(0, 0), Integer.MAX_VALUE, null));
+        assertEquals(new TIntArrayList(new int[]{initialA, a1, a2}),
+                sensed(new MapLocation(0, 0), Integer.MAX_VALUE, Team.A));
+
+        // moves are reflected in range checks
+        assertEquals(new TIntArrayList(new int[]{a1, b1}), sensed(new MapLocation(5, 5), 1, null));
+        objectInfo.getRobotByID(a1).setLocation(new MapLocation(4, 5));
+        assertEquals(new TIntArrayList(new int[]{a1}), sensed(new MapLocation(5, 5), 1, Team.A));
+        assertEquals(new TIntArrayList(new int[]{b1}), sensed(new MapLocation(6, 6), 1, null));
+
+        // deaths keep the remaining order
+        world.destroyRobot(a1);
+        assertEquals(new TIntArrayList(new int[]{initialA, initialB, b1, a2}),
+                sensed(new MapLocation(0, 0), Integer.MAX_VALUE, null));
+        assertEquals(2, objectInfo.getRosterSize(Team.A));
+        assertNull(world.getRobot(new MapLocation(4, 5)));
+    }
+
+    private TIntArrayList execOrder() {
+        TIntArrayList ids = new TIntArrayList();
+        objectInfo.eachDynamicBodyByExecOrder((robot) -> {
+            ids.add(robot.getID());
+            return true;
+        });
+        return ids;
+    }
+
+    @Test
+    public void testExecOrderSurvivesRemovalAndCompaction() throws GameActionException {
+        TIntArrayList expected = execOrder();
+        int[] spawned = new int[200];
+        for (int i = 0; i < spawned.length; i++) {
+            spawned[i] = spawnAt(i % 2 == 0 ? Team.A : Team.B, i % 20, 5 + i / 20);
+            expected.add(spawned[i]);
+        }
+        assertEquals(expected, execOrder());
+
+        // enough removals to trigger compaction
+        for (int i = 0; i < spawned.length; i += 3) {
+            world.destroyRobot(spawned[i]);
+            expected.remove(spawned[i]);
+        }
+        assertEquals(expected, execOrder());
+
+        int extra = spawnAt(Team.A, 19, 19);
+        expected.add(extra);
+        assertEquals(expected, execOrder());
+    }
+
+    @Test
+    public void testExecOrderChangesDuringIteration() throws GameActionException {
+        int a1 = spawnAt(Team.A, 5, 5);
+        int a2 = spawnAt(Team.A, 6, 5);
+        int a3 = spawnAt(Team.A, 7, 5);
+
+        TIntArrayList visited = new TIntArrayList();
+        TIntArrayList spawnedDuringIteration = new TIntArrayList();
+        objectInfo.eachDynamicBodyByExecOrder((robot) -> {
+            visited.add(robot.getID());
+            try {
+                if (robot.getID() == a1) {
+                    // removing a robot that has not run yet skips it
+                    world.destroyRobot(a2);
+                    // robots spawned now wait for the next iteration
+                    spawnedDuringIteration.add(spawnAt(Team.B, 8, 8));
+                }
+            } catch (GameActionException e) {
+                throw new RuntimeException(e);
+            }
+            return true;
+        });
+
+        assertTrue(visited.contains(a1));
+        assertFalse(visited.contains(a2));
+        assertTrue(visited.contains(a3));
+        assertFalse(visited.contains(spawnedDuringIteration.get(0)));
+        assertTrue(execOrder().contains(spawnedDuringIteration.get(0)));
+    }
+}
@@ -5,6 +5,11 @@ import battlecode.common.*;
 import gnu.trove.list.array.TIntArrayList;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 /**
@@ -304,4 +309,210 @@ public class RobotControllerTest {
     //         }
     //     });
     // }
-}
\ No newline at end of file
+
+    private static LiveMap batchTestMap() {
+        TestMapBuilder builder = new TestMapBuilder("batch", 0, 0, 20, 20, 1337)
+                .addSpawnLoc(Team.A, new MapLocation(5, 5))
+                .addSpawnLoc(Team.B, new MapLocation(8, 8))
+                .setWall(6, 7, true);
+        for (int x = 3; x < 11; x++)
+            builder.setUranium(x, 6, 3);
+        return builder.build();
+    }
+
+    /**
+     * Has both controllers build robots and give them random orders for a
+     * number of rounds, either one command at a time or in batches.
+     *
+     * @return the outcome of every command, in the order they were issued
+     */
+    private static List<GameActionExceptionType> playRandomOrders(TestGame game, boolean batched)
+            throws GameActionException {
+        Random random = new Random(42);
+        List<GameActionExceptionType> outcomes = new ArrayList<>();
+        for (int round = 0; round < 40; round++) {
+            game.round((id, rc) -> {
+                if (rc.getType() != RobotType.CONTROLLER)
+                    return;
+                if (rc.canBuildRobot(1))
+                    rc.buildRobot(1);
+
+                // order every robot on the map, including ones we can't control
+                RobotInfo[] robots = rc.senseAllRobots();
+                TIntArrayList moveIds = new TIntArrayList();
+                List<Direction> moveDirs = new ArrayList<>();
+                TIntArrayList mineIds = new TIntArrayList();
+                TIntArrayList explodeIds = new TIntArrayList();
+                for (RobotInfo robot : robots) {
+                    int order = random.nextInt(10);
+                    if (order < 6) {
+                        moveIds.add(robot.ID);
+                        moveDirs.add(Direction.values()[random.nextInt(Direction.values().length)]);
+                    } else if (order < 9) {
+                        mineIds.add(robot.ID);
+                    } else {
+                        explodeIds.add(robot.ID);
+                    }
+                }
+                explodeIds.add(-1);
+
+                if (batched) {
+                    outcomes.addAll(Arrays.asList(rc.moveAll(moveIds.toArray(),
+                            moveDirs.toArray(new Direction[moveDirs.size()]))));
+                    outcomes.addAll(Arrays.asList(rc.mineAll(mineIds.toArray())));
+                    outcomes.addAll(Arrays.asList(rc.explodeAll(explodeIds.toArray())));
+                } else {
+                    for (int i = 0; i < moveIds.size(); i++) {
+                        try {
+                            rc.move(moveIds.get(i), moveDirs.get(i));
+                            outcomes.add(null);
+                        } catch (GameActionException e) {
+                            outcomes.add(e.getType());
+                        }
+                    }
+                    for (int i = 0; i < mineIds.size(); i++) {
+                        try {
+                            rc.mine(mineIds.get(i));
+                            outcomes.add(null);
+                        } catch (GameActionException e) {
+                            outcomes.add(e.getType());
+                        }
+                    }
+                    for (int i = 0; i < explodeIds.size(); i++) {
+                        try {
+                            rc.explode(explodeIds.get(i));
+                            outcomes.add(null);
+                        } catch (GameActionException e) {
+                            outcomes.add(e.getType());
+                        }
+                    }
+                }
+            });
+        }
+        return outcomes;
+    }
+
+    private static List<String> describeRobots(GameWorld world) {
+        List<String> robots = new ArrayList<>();
+        for (InternalRobot robot : world.getObjectInfo().robotsArray())
+            robots.add(robot.getID() + " " + robot.getTeam() + " " + robot.getLocation()
+                    + " " + robot.getHealth() + " " + robot.getCooldownTurns());
+        robots.sort(null);
+        return robots;
+    }
+
+    @Test
+    public void testBatchedCommandsMatchSingleCommands() throws GameActionException {
+        TestGame single = new TestGame(batchTestMap());
+        TestGame batched = new TestGame(batchTestMap());
+
+        List<GameActionExceptionType> singleOutcomes = playRandomOrders(single, false);
+        List<GameActionExceptionType> batchedOutcomes = playRandomOrders(batched, true);
+
+        assertEquals(singleOutcomes, batchedOutcomes);
+        assertTrue(singleOutcomes.contains(null));
+        assertTrue(singleOutcomes.contains(GameActionExceptionType.CANT_SENSE_THAT));
+        assertTrue(singleOutcomes.contains(GameActionExceptionType.CANT_DO_THAT));
+        assertTrue(singleOutcomes.contains(GameActionExceptionType.IS_NOT_READY));
+
+        assertEquals(describeRobots(single.getWorld()), describeRobots(batched.getWorld()));
+        for (Team team : new Team[]{Team.A, Team.B})
+            assertEquals(single.getWorld().getTeamInfo().getUranium(team),
+                    batched.getWorld().getTeamInfo().getUranium(team));
+    }
+
+    @Test
+    public void testBatchedCommandsCostPerCommand() throws GameActionException {
+        TestGame game = new TestGame(batchTestMap());
+        int[] charged = new int[3];
+        game.round((id, rc) -> {
+            if (rc.getType() != RobotType.CONTROLLER || rc.getTeam() != Team.A)
+                return;
+            InternalRobot self = game.getBot(id);
+            int before = self.getBytecodesUsed();
+            rc.mineAll(new int[] {-1, -2, -3, -4, -5});
+            charged[0] = self.getBytecodesUsed() - before;
+            rc.explodeAll(new int[0]);
+            charged[1] = self.getBytecodesUsed() - before;
+            rc.moveAll(new int[] {-1, -2}, new Direction[] {Direction.NORTH, Direction.EAST});
+            charged[2] = self.getBytecodesUsed() - before;
+        });
+        int cost = GameConstants.BATCHED_COMMAND_BYTECODE_COST;
+        assertArrayEquals(new int[] {5 * cost, 5 * cost, 7 * cost}, charged);
+    }
+
+    @Test
+    public void testMoveAllWithNullDirectionMovesNoRobot() throws GameActionException {
+        TestGame game = new TestGame(batchTestMap());
+        List<String> before = describeRobots(game.getWorld());
+        boolean[] threw = new boolean[1];
+        game.round((id, rc) -> {
+            if (rc.getTeam() != Team.A)
+                return;
+            int robotId = -1;
+            for (RobotInfo robot : rc.senseAllRobots())
+                if (robot.team == Team.A && robot.type == RobotType.ROBOT)
+                    robotId = robot.ID;
+            assertTrue(rc.canMove(robotId, Direction.NORTH));
+            try {
+                rc.moveAll(new int[] {robotId, robotId}, new Direction[] {Direction.NORTH, null});
+            } catch (NullPointerException e) {
+                threw[0] = true;
+            }
+        });
+        assertTrue(threw[0]);
+        assertEquals(before, describeRobots(game.getWorld()));
+    }
+
+    private static List<Integer> ids(RobotInfo[] robots) {
+        List<Integer> ids = new ArrayList<>();
+        for (RobotInfo robot : robots)
+            ids.add(robot.ID);
+        return ids;
+    }
+
+    @Test
+    public void testSenseNearbyRobotsOrderDoesNotDependOnFilter() throws GameActionException {
+        TestGame game = new TestGame(batchTestMap());
+        // clear the spawn locations, so spawned robots never share a tile
+        List<Integer> spawned = new ArrayList<>();
+        int parked = 18;
+        for (InternalRobot robot : game.getWorld().getObjectInfo().robotsArray()) {
+            if (robot.getType() != RobotType.CONTROLLER) {
+                robot.setLocation(new MapLocation(parked--, 19));
+                spawned.add(robot.getID());
+            }
+        }
+        // spawn in an order unrelated to location, alternating teams
+        int[][] spots = {{15, 2}, {3, 9}, {15, 1}, {0, 0}, {9, 9}, {3, 4}, {12, 17}, {7, 3}};
+        for (int i = 0; i < spots.length; i++) {
+            int id = game.spawn(RobotType.ROBOT, i % 2 == 0 ? Team.A : Team.B);
+            game.getBot(id).setLocation(new MapLocation(spots[i][0], spots[i][1]));
+            spawned.add(id);
+        }
+        // leave a dead robot's slot in the middle of a roster
+        game.getWorld().destroyRobot(spawned.get(2));
+
+        List<List<Integer>> checked = new ArrayList<>();
+        game.round((id, rc) -> {
+            if (rc.getType() != RobotType.CONTROLLER || rc.getTeam() != Team.A)
+                return;
+            MapLocation center = new MapLocation(8, 8);
+            RobotInfo[] everyone = rc.senseNearbyRobots(center, 10000, null);
+            assertEquals(spawned.size() - 1, everyone.length);
+            assertEquals(ids(everyone), ids(rc.senseNearbyRobots(center, -1, null)));
+            for (int radiusSquared : new int[] {-1, 50, 10000}) {
+                for (Team team : new Team[] {Team.A, Team.B}) {
+                    List<Integer> expected = new ArrayList<>();
+                    for (RobotInfo robot : rc.senseNearbyRobots(center, radiusSquared == -1 ? 10000 : radiusSquared, null))
+                        if (robot.team == team)
+                            expected.add(robot.ID);
+                    List<Integer> filtered = ids(rc.senseNearbyRobots(center, radiusSquared, team));
+                    assertEquals(expected, filtered);
+                    checked.add(filtered);
+                }
+            }
+        });
+        assertEquals(6, checked.size());
+    }
+}
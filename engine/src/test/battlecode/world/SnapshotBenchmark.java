@@ -0,0 +1,63 @@
+package battlecode.world;
+
+import battlecode.common.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Measures how long GameWorld.snapshot() and GameWorld.restore() take on a
+ * full map. Not run as part of the test suite; run it by hand.
+ */
+@Ignore
+public class SnapshotBenchmark {
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void benchmarkSnapshotRestore() throws GameActionException {
+        int width = GameConstants.MAP_MAX_WIDTH;
+        int height = GameConstants.MAP_MAX_HEIGHT;
+        TestMapBuilder builder = new TestMapBuilder("bench", 0, 0, width, height, 1337)
+                .addSpawnLoc(Team.A, new MapLocation(0, 0))
+                .addSpawnLoc(Team.B, new MapLocation(width - 1, height - 1));
+        for (int x = 0; x < width; x++)
+            for (int y = 0; y < height; y++)
+                builder.setUranium(x, y, 10);
+        TestGame game = new TestGame(builder.build());
+        GameWorld world = game.getWorld();
+
+        // fill every other row with robots
+        for (int x = 0; x < width; x++) {
+            for (int y = 2; y < height - 2; y += 2) {
+                int id = game.spawn(RobotType.ROBOT, x < width / 2 ? Team.A : Team.B);
+                world.getObjectInfo().getRobotByID(id).setLocation(new MapLocation(x, y));
+            }
+        }
+        System.out.println(world.getObjectInfo().getRobotCount(Team.A)
+                + world.getObjectInfo().getRobotCount(Team.B) + " robots");
+
+        WorldSnapshot snapshot = null;
+        for (int i = 0; i < WARMUP; i++) {
+            snapshot = world.snapshot();
+            world.setUranium(new MapLocation(i % width, 0), i);
+            world.restore(snapshot);
+        }
+
+        long snapshotNanos = 0;
+        long restoreNanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            snapshot = world.snapshot();
+            long mid = System.nanoTime();
+            // dirty one chunk, as a round of mining would
+            world.setUranium(new MapLocation(i % width, 0), i);
+            long resume = System.nanoTime();
+            world.restore(snapshot);
+            long end = System.nanoTime();
+            snapshotNanos += mid - start;
+            restoreNanos += end - resume;
+        }
+        System.out.printf("snapshot: %.1f us, restore: %.1f us%n",
+                snapshotNanos / 1000.0 / ITERATIONS, restoreNanos / 1000.0 / ITERATIONS);
+    }
+}
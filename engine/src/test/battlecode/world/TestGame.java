@@ -176,6 +176,11 @@ public class TestGame {
             return robot.getBytecodesUsed();
         }
 
+        @Override
+        public void chargeBytecodes(InternalRobot robot, int numBytecodes) {
+            robot.setBytecodesUsed(robot.getBytecodesUsed() + numBytecodes);
+        }
+
         @Override
         public boolean getTerminated(InternalRobot robot) {
             return false;
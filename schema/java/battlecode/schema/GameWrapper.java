@@ -15,6 +15,11 @@ import com.google.flatbuffers.*;
  * matchHeaders[0] is the index of the 0th match header in the event stream,
  * corresponding to matchFooters[0]. These indices allow quick traversal of
  * the file.
+ * If there are keyframes, keyframes[i] is the index of one, and
+ * keyframeRounds[i] its roundID. Every round of a match is sent, so the
+ * Round with roundID r comes (r - keyframeRounds[i]) events after the
+ * keyframe: to seek to it, find the last keyframe of its match at or
+ * before r and apply the rounds from there.
  */
 public final class GameWrapper extends Table {
   public static GameWrapper getRootAsGameWrapper(ByteBuffer _bb) { return getRootAsGameWrapper(_bb, new GameWrapper()); }
@@ -42,19 +47,37 @@ public final class GameWrapper extends Table {
   public int matchFootersLength() { int o = __offset(8); return o != 0 ? __vector_len(o) : 0; }
   public ByteBuffer matchFootersAsByteBuffer() { return __vector_as_bytebuffer(8, 4); }
   public ByteBuffer matchFootersInByteBuffer(ByteBuffer _bb) { return __vector_in_bytebuffer(_bb, 8, 4); }
+  /**
+   * The indices of the keyframes, in order.
+   */
+  public int keyframes(int j) { int o = __offset(10); return o != 0 ? bb.getInt(__vector(o) + j * 4) : 0; }
+  public int keyframesLength() { int o = __offset(10); return o != 0 ? __vector_len(o) : 0; }
+  public ByteBuffer keyframesAsByteBuffer() { return __vector_as_bytebuffer(10, 4); }
+  public ByteBuffer keyframesInByteBuffer(ByteBuffer _bb) { return __vector_in_bytebuffer(_bb, 10, 4); }
+  /**
+   * The roundID of each keyframe.
+   */
+  public int keyframeRounds(int j) { int o = __offset(12); return o != 0 ? bb.getInt(__vector(o) + j * 4) : 0; }
+  public int keyframeRoundsLength() { int o = __offset(12); return o != 0 ? __vector_len(o) : 0; }
+  public ByteBuffer keyframeRoundsAsByteBuffer() { return __vector_as_bytebuffer(12, 4); }
+  public ByteBuffer keyframeRoundsInByteBuffer(ByteBuffer _bb) { return __vector_in_bytebuffer(_bb, 12, 4); }
 
   public static int createGameWrapper(FlatBufferBuilder builder,
       int eventsOffset,
       int matchHeadersOffset,
-      int matchFootersOffset) {
-    builder.startObject(3);
+      int matchFootersOffset,
+      int keyframesOffset,
+      int keyframeRoundsOffset) {
+    builder.startObject(5);
+    GameWrapper.addKeyframeRounds(builder, keyframeRoundsOffset);
+    GameWrapper.addKeyframes(builder, keyframesOffset);
     GameWrapper.addMatchFooters(builder, matchFootersOffset);
     GameWrapper.addMatchHeaders(builder, matchHeadersOffset);
     GameWrapper.addEvents(builder, eventsOffset);
     return GameWrapper.endGameWrapper(builder);
   }
 
-  public static void startGameWrapper(FlatBufferBuilder builder) { builder.startObject(3); }
+  public static void startGameWrapper(FlatBufferBuilder builder) { builder.startObject(5); }
   public static void addEvents(FlatBufferBuilder builder, int eventsOffset) { builder.addOffset(0, eventsOffset, 0); }
   public static int createEventsVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addOffset(data[i]); return builder.endVector(); }
   public static void startEventsVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
@@ -64,6 +87,12 @@ public final class GameWrapper extends Table {
   public static void addMatchFooters(FlatBufferBuilder builder, int matchFootersOffset) { builder.addOffset(2, matchFootersOffset, 0); }
   public static int createMatchFootersVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
   public static void startMatchFootersVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
+  public static void addKeyframes(FlatBufferBuilder builder, int keyframesOffset) { builder.addOffset(3, keyframesOffset, 0); }
+  public static int createKeyframesVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
+  public static void startKeyframesVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
+  public static void addKeyframeRounds(FlatBufferBuilder builder, int keyframeRoundsOffset) { builder.addOffset(4, keyframeRoundsOffset, 0); }
+  public static int createKeyframeRoundsVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
+  public static void startKeyframeRoundsVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
   public static int endGameWrapper(FlatBufferBuilder builder) {
     int o = builder.endObject();
     return o;
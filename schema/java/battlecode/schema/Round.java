@@ -57,6 +57,7 @@ public final class Round extends Table {
   public ByteBuffer movedIDsInByteBuffer(ByteBuffer _bb) { return __vector_in_bytebuffer(_bb, 12, 4); }
   /**
    * The new locations of bodies that have moved.
+   * Absent if the moves are given by movedDirs instead.
    */
   public VecTable movedLocs() { return movedLocs(new VecTable()); }
   public VecTable movedLocs(VecTable obj) { int o = __offset(14); return o != 0 ? obj.__assign(__indirect(o + bb_pos), bb) : null; }
@@ -102,7 +103,8 @@ public final class Round extends Table {
   public ByteBuffer indicatorStringIDsAsByteBuffer() { return __vector_as_bytebuffer(26, 4); }
   public ByteBuffer indicatorStringIDsInByteBuffer(ByteBuffer _bb) { return __vector_in_bytebuffer(_bb, 26, 4); }
   /**
-   * The messages of the robots who changed their indicator strings
+   * The messages of the robots who changed their indicator strings.
+   * Older replays only; the engine now sends indicatorStringIndices.
    */
   public String indicatorStrings(int j) { int o = __offset(28); return o != 0 ? __string(__vector(o) + j * 4) : null; }
   public int indicatorStringsLength() { int o = __offset(28); return o != 0 ? __vector_len(o) : 0; }
@@ -151,6 +153,49 @@ public final class Round extends Table {
    * It should increase by one for each following round.
    */
   public int roundID() { int o = __offset(44); return o != 0 ? bb.getInt(o + bb_pos) : 0; }
+  /**
+   * A hash of the world state at the end of the round: robot locations,
+   * health and cooldowns, uranium on the map and team uranium. Equal
+   * states have equal hashes, so two runs can be compared round by round.
+   * 0 if not recorded.
+   */
+  public long worldHash() { int o = __offset(46); return o != 0 ? bb.getLong(o + bb_pos) : 0L; }
+  /**
+   * The direction of each move in movedIDs, when every move is a single
+   * step: 0 north, then clockwise to 7 northwest, in the order of
+   * battlecode.common.Direction. Each body's new location is its old
+   * location plus the step, applied in order after the round's
+   * spawnedBodies are placed. Absent if movedLocs is given instead.
+   */
+  public byte movedDirs(int j) { int o = __offset(48); return o != 0 ? bb.get(__vector(o) + j * 1) : 0; }
+  public int movedDirsLength() { int o = __offset(48); return o != 0 ? __vector_len(o) : 0; }
+  public ByteBuffer movedDirsAsByteBuffer() { return __vector_as_bytebuffer(48, 1); }
+  public ByteBuffer movedDirsInByteBuffer(ByteBuffer _bb) { return __vector_in_bytebuffer(_bb, 48, 1); }
+  /**
+   * The message of each robot in indicatorStringIDs, as an index into
+   * the match's string table. A robot keeps its message until it's sent
+   * again; one that's never been sent is the empty string.
+   */
+  public int indicatorStringIndices(int j) { int o = __offset(50); return o != 0 ? bb.getInt(__vector(o) + j * 4) : 0; }
+  public int indicatorStringIndicesLength() { int o = __offset(50); return o != 0 ? __vector_len(o) : 0; }
+  public ByteBuffer indicatorStringIndicesAsByteBuffer() { return __vector_as_bytebuffer(50, 4); }
+  public ByteBuffer indicatorStringIndicesInByteBuffer(ByteBuffer _bb) { return __vector_in_bytebuffer(_bb, 50, 4); }
+  /**
+   * Strings to add to the end of the match's string table, before
+   * indicatorStringIndices are looked up. The table starts out empty at
+   * each MatchHeader and is only added to until resetIndicatorStrings
+   * empties it, so a reader that skips rounds has to start from a
+   * Keyframe, which holds the whole table.
+   */
+  public String newIndicatorStrings(int j) { int o = __offset(52); return o != 0 ? __string(__vector(o) + j * 4) : null; }
+  public int newIndicatorStringsLength() { int o = __offset(52); return o != 0 ? __vector_len(o) : 0; }
+  /**
+   * Whether the match's string table is emptied before
+   * newIndicatorStrings are added. The engine does this whenever the
+   * table gets large, and adds the strings robots are showing back in the
+   * same round. Robots keep their messages.
+   */
+  public boolean resetIndicatorStrings() { int o = __offset(54); return o != 0 ? 0!=bb.get(o + bb_pos) : false; }
 
   public static int createRound(FlatBufferBuilder builder,
       int teamIDsOffset,
@@ -173,8 +218,17 @@ public final class Round extends Table {
       int indicatorLineStartLocsOffset,
       int indicatorLineEndLocsOffset,
       int indicatorLineRGBsOffset,
-      int roundID) {
-    builder.startObject(21);
+      int roundID,
+      long worldHash,
+      int movedDirsOffset,
+      int indicatorStringIndicesOffset,
+      int newIndicatorStringsOffset,
+      boolean resetIndicatorStrings) {
+    builder.startObject(26);
+    Round.addWorldHash(builder, worldHash);
+    Round.addNewIndicatorStrings(builder, newIndicatorStringsOffset);
+    Round.addIndicatorStringIndices(builder, indicatorStringIndicesOffset);
+    Round.addMovedDirs(builder, movedDirsOffset);
     Round.addRoundID(builder, roundID);
     Round.addIndicatorLineRGBs(builder, indicatorLineRGBsOffset);
     Round.addIndicatorLineEndLocs(builder, indicatorLineEndLocsOffset);
@@ -196,10 +250,11 @@ public final class Round extends Table {
     Round.addTeamUraniumMined(builder, teamUraniumMinedOffset);
     Round.addTeamUraniumChanges(builder, teamUraniumChangesOffset);
     Round.addTeamIDs(builder, teamIDsOffset);
+    Round.addResetIndicatorStrings(builder, resetIndicatorStrings);
     return Round.endRound(builder);
   }
 
-  public static void startRound(FlatBufferBuilder builder) { builder.startObject(21); }
+  public static void startRound(FlatBufferBuilder builder) { builder.startObject(26); }
   public static void addTeamIDs(FlatBufferBuilder builder, int teamIDsOffset) { builder.addOffset(0, teamIDsOffset, 0); }
   public static int createTeamIDsVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
   public static void startTeamIDsVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
@@ -247,6 +302,17 @@ public final class Round extends Table {
   public static void addIndicatorLineEndLocs(FlatBufferBuilder builder, int indicatorLineEndLocsOffset) { builder.addOffset(18, indicatorLineEndLocsOffset, 0); }
   public static void addIndicatorLineRGBs(FlatBufferBuilder builder, int indicatorLineRGBsOffset) { builder.addOffset(19, indicatorLineRGBsOffset, 0); }
   public static void addRoundID(FlatBufferBuilder builder, int roundID) { builder.addInt(20, roundID, 0); }
+  public static void addWorldHash(FlatBufferBuilder builder, long worldHash) { builder.addLong(21, worldHash, 0L); }
+  public static void addMovedDirs(FlatBufferBuilder builder, int movedDirsOffset) { builder.addOffset(22, movedDirsOffset, 0); }
+  public static int createMovedDirsVector(FlatBufferBuilder builder, byte[] data) { builder.startVector(1, data.length, 1); for (int i = data.length - 1; i >= 0; i--) builder.addByte(data[i]); return builder.endVector(); }
+  public static void startMovedDirsVector(FlatBufferBuilder builder, int numElems) { builder.startVector(1, numElems, 1); }
+  public static void addIndicatorStringIndices(FlatBufferBuilder builder, int indicatorStringIndicesOffset) { builder.addOffset(23, indicatorStringIndicesOffset, 0); }
+  public static int createIndicatorStringIndicesVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addInt(data[i]); return builder.endVector(); }
+  public static void startIndicatorStringIndicesVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
+  public static void addNewIndicatorStrings(FlatBufferBuilder builder, int newIndicatorStringsOffset) { builder.addOffset(24, newIndicatorStringsOffset, 0); }
+  public static int createNewIndicatorStringsVector(FlatBufferBuilder builder, int[] data) { builder.startVector(4, data.length, 4); for (int i = data.length - 1; i >= 0; i--) builder.addOffset(data[i]); return builder.endVector(); }
+  public static void startNewIndicatorStringsVector(FlatBufferBuilder builder, int numElems) { builder.startVector(4, numElems, 4); }
+  public static void addResetIndicatorStrings(FlatBufferBuilder builder, boolean resetIndicatorStrings) { builder.addBoolean(25, resetIndicatorStrings, false); }
   public static int endRound(FlatBufferBuilder builder) {
     int o = builder.endObject();
     return o;
@@ -91,7 +91,13 @@ export enum Event{
   /**
    * There should only be one GameFooter, at the end of the stream.
    */
-  GameFooter= 5
+  GameFooter= 5,
+
+  /**
+   * The whole state of a match at the end of a round. Only written if
+   * the server was asked for them; see GameWrapper.keyframes.
+   */
+  Keyframe= 6
 }};
 
 /**
@@ -2657,6 +2663,7 @@ movedIDsArray():Int32Array|null {
 
 /**
  * The new locations of bodies that have moved.
+ * Absent if the moves are given by movedDirs instead.
  *
  * @param battlecode.schema.VecTable= obj
  * @returns battlecode.schema.VecTable|null
@@ -2814,7 +2821,8 @@ indicatorStringIDsArray():Int32Array|null {
 };
 
 /**
- * The messages of the robots who changed their indicator strings
+ * The messages of the robots who changed their indicator strings.
+ * Older replays only; the engine now sends indicatorStringIndices.
  *
  * @param number index
  * @param flatbuffers.Encoding= optionalEncoding
@@ -2956,11 +2964,123 @@ roundID():number {
   return offset ? this.bb!.readInt32(this.bb_pos + offset) : 0;
 };
 
+/**
+ * A hash of the world state at the end of the round: robot locations,
+ * health and cooldowns, uranium on the map and team uranium. Equal
+ * states have equal hashes, so two runs can be compared round by round.
+ * 0 if not recorded.
+ *
+ * @returns flatbuffers.Long
+ */
+worldHash():flatbuffers.Long {
+  var offset = this.bb!.__offset(this.bb_pos, 46);
+  return offset ? this.bb!.readInt64(this.bb_pos + offset) : this.bb!.createLong(0, 0);
+};
+
+/**
+ * The direction of each move in movedIDs, when every move is a single
+ * step: 0 north, then clockwise to 7 northwest, in the order of
+ * battlecode.common.Direction. Each body's new location is its old
+ * location plus the step, applied in order after the round's
+ * spawnedBodies are placed. Absent if movedLocs is given instead.
+ *
+ * @param number index
+ * @returns number
+ */
+movedDirs(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 48);
+  return offset ? this.bb!.readInt8(this.bb!.__vector(this.bb_pos + offset) + index) : 0;
+};
+
+/**
+ * @returns number
+ */
+movedDirsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 48);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int8Array
+ */
+movedDirsArray():Int8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 48);
+  return offset ? new Int8Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The message of each robot in indicatorStringIDs, as an index into
+ * the match's string table. A robot keeps its message until it's sent
+ * again; one that's never been sent is the empty string.
+ *
+ * @param number index
+ * @returns number
+ */
+indicatorStringIndices(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 50);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+indicatorStringIndicesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 50);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+indicatorStringIndicesArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 50);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * Strings to add to the end of the match's string table, before
+ * indicatorStringIndices are looked up. The table starts out empty at
+ * each MatchHeader and is only added to until resetIndicatorStrings
+ * empties it, so a reader that skips rounds has to start from a
+ * Keyframe, which holds the whole table.
+ *
+ * @param number index
+ * @param flatbuffers.Encoding= optionalEncoding
+ * @returns string|Uint8Array
+ */
+newIndicatorStrings(index: number):string
+newIndicatorStrings(index: number,optionalEncoding:flatbuffers.Encoding):string|Uint8Array
+newIndicatorStrings(index: number,optionalEncoding?:any):string|Uint8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 52);
+  return offset ? this.bb!.__string(this.bb!.__vector(this.bb_pos + offset) + index * 4, optionalEncoding) : null;
+};
+
+/**
+ * @returns number
+ */
+newIndicatorStringsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 52);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * Whether the match's string table is emptied before
+ * newIndicatorStrings are added. The engine does this whenever the
+ * table gets large, and adds the strings robots are showing back in the
+ * same round. Robots keep their messages.
+ *
+ * @returns boolean
+ */
+resetIndicatorStrings():boolean {
+  var offset = this.bb!.__offset(this.bb_pos, 54);
+  return offset ? !!this.bb!.readInt8(this.bb_pos + offset) : false;
+};
+
 /**
  * @param flatbuffers.Builder builder
  */
 static startRound(builder:flatbuffers.Builder) {
-  builder.startObject(21);
+  builder.startObject(26);
 };
 
 /**
@@ -3406,148 +3526,167 @@ static addRoundID(builder:flatbuffers.Builder, roundID:number) {
 
 /**
  * @param flatbuffers.Builder builder
+ * @param flatbuffers.Long worldHash
+ */
+static addWorldHash(builder:flatbuffers.Builder, worldHash:flatbuffers.Long) {
+  builder.addFieldInt64(21, worldHash, builder.createLong(0, 0));
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset movedDirsOffset
+ */
+static addMovedDirs(builder:flatbuffers.Builder, movedDirsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(22, movedDirsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
  * @returns flatbuffers.Offset
  */
-static endRound(builder:flatbuffers.Builder):flatbuffers.Offset {
-  var offset = builder.endObject();
-  return offset;
+static createMovedDirsVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(1, data.length, 1);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt8(data[i]);
+  }
+  return builder.endVector();
 };
 
-static createRound(builder:flatbuffers.Builder, teamIDsOffset:flatbuffers.Offset, teamUraniumChangesOffset:flatbuffers.Offset, teamUraniumMinedOffset:flatbuffers.Offset, teamBytecodesUsedOffset:flatbuffers.Offset, movedIDsOffset:flatbuffers.Offset, movedLocsOffset:flatbuffers.Offset, spawnedBodiesOffset:flatbuffers.Offset, diedIDsOffset:flatbuffers.Offset, actionIDsOffset:flatbuffers.Offset, actionsOffset:flatbuffers.Offset, actionTargetsOffset:flatbuffers.Offset, indicatorStringIDsOffset:flatbuffers.Offset, indicatorStringsOffset:flatbuffers.Offset, indicatorDotIDsOffset:flatbuffers.Offset, indicatorDotLocsOffset:flatbuffers.Offset, indicatorDotRGBsOffset:flatbuffers.Offset, indicatorLineIDsOffset:flatbuffers.Offset, indicatorLineStartLocsOffset:flatbuffers.Offset, indicatorLineEndLocsOffset:flatbuffers.Offset, indicatorLineRGBsOffset:flatbuffers.Offset, roundID:number):flatbuffers.Offset {
-  Round.startRound(builder);
-  Round.addTeamIDs(builder, teamIDsOffset);
-  Round.addTeamUraniumChanges(builder, teamUraniumChangesOffset);
-  Round.addTeamUraniumMined(builder, teamUraniumMinedOffset);
-  Round.addTeamBytecodesUsed(builder, teamBytecodesUsedOffset);
-  Round.addMovedIDs(builder, movedIDsOffset);
-  Round.addMovedLocs(builder, movedLocsOffset);
-  Round.addSpawnedBodies(builder, spawnedBodiesOffset);
-  Round.addDiedIDs(builder, diedIDsOffset);
-  Round.addActionIDs(builder, actionIDsOffset);
-  Round.addActions(builder, actionsOffset);
-  Round.addActionTargets(builder, actionTargetsOffset);
-  Round.addIndicatorStringIDs(builder, indicatorStringIDsOffset);
-  Round.addIndicatorStrings(builder, indicatorStringsOffset);
-  Round.addIndicatorDotIDs(builder, indicatorDotIDsOffset);
-  Round.addIndicatorDotLocs(builder, indicatorDotLocsOffset);
-  Round.addIndicatorDotRGBs(builder, indicatorDotRGBsOffset);
-  Round.addIndicatorLineIDs(builder, indicatorLineIDsOffset);
-  Round.addIndicatorLineStartLocs(builder, indicatorLineStartLocsOffset);
-  Round.addIndicatorLineEndLocs(builder, indicatorLineEndLocsOffset);
-  Round.addIndicatorLineRGBs(builder, indicatorLineRGBsOffset);
-  Round.addRoundID(builder, roundID);
-  return Round.endRound(builder);
-}
-}
-}
 /**
- * Necessary due to flatbuffers requiring unions to be wrapped in tables.
- *
- * @constructor
+ * @param flatbuffers.Builder builder
+ * @param number numElems
  */
-export namespace battlecode.schema{
-export class EventWrapper {
-  bb: flatbuffers.ByteBuffer|null = null;
+static startMovedDirsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(1, numElems, 1);
+};
 
-  bb_pos:number = 0;
 /**
- * @param number i
- * @param flatbuffers.ByteBuffer bb
- * @returns EventWrapper
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset indicatorStringIndicesOffset
  */
-__init(i:number, bb:flatbuffers.ByteBuffer):EventWrapper {
-  this.bb_pos = i;
-  this.bb = bb;
-  return this;
+static addIndicatorStringIndices(builder:flatbuffers.Builder, indicatorStringIndicesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(23, indicatorStringIndicesOffset, 0);
 };
 
 /**
- * @param flatbuffers.ByteBuffer bb
- * @param EventWrapper= obj
- * @returns EventWrapper
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
  */
-static getRootAsEventWrapper(bb:flatbuffers.ByteBuffer, obj?:EventWrapper):EventWrapper {
-  return (obj || new EventWrapper).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+static createIndicatorStringIndicesVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
 };
 
 /**
- * @returns battlecode.schema.Event
+ * @param flatbuffers.Builder builder
+ * @param number numElems
  */
-eType():battlecode.schema.Event {
-  var offset = this.bb!.__offset(this.bb_pos, 4);
-  return offset ? /**  */ (this.bb!.readUint8(this.bb_pos + offset)) : battlecode.schema.Event.NONE;
+static startIndicatorStringIndicesVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
 };
 
 /**
- * @param flatbuffers.Table obj
- * @returns ?flatbuffers.Table
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset newIndicatorStringsOffset
  */
-e<T extends flatbuffers.Table>(obj:T):T|null {
-  var offset = this.bb!.__offset(this.bb_pos, 6);
-  return offset ? this.bb!.__union(obj, this.bb_pos + offset) : null;
+static addNewIndicatorStrings(builder:flatbuffers.Builder, newIndicatorStringsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(24, newIndicatorStringsOffset, 0);
 };
 
 /**
  * @param flatbuffers.Builder builder
+ * @param Array.<flatbuffers.Offset> data
+ * @returns flatbuffers.Offset
  */
-static startEventWrapper(builder:flatbuffers.Builder) {
-  builder.startObject(2);
+static createNewIndicatorStringsVector(builder:flatbuffers.Builder, data:flatbuffers.Offset[]):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addOffset(data[i]);
+  }
+  return builder.endVector();
 };
 
 /**
  * @param flatbuffers.Builder builder
- * @param battlecode.schema.Event eType
+ * @param number numElems
  */
-static addEType(builder:flatbuffers.Builder, eType:battlecode.schema.Event) {
-  builder.addFieldInt8(0, eType, battlecode.schema.Event.NONE);
+static startNewIndicatorStringsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
 };
 
 /**
  * @param flatbuffers.Builder builder
- * @param flatbuffers.Offset eOffset
+ * @param boolean resetIndicatorStrings
  */
-static addE(builder:flatbuffers.Builder, eOffset:flatbuffers.Offset) {
-  builder.addFieldOffset(1, eOffset, 0);
+static addResetIndicatorStrings(builder:flatbuffers.Builder, resetIndicatorStrings:boolean) {
+  builder.addFieldInt8(25, +resetIndicatorStrings, +false);
 };
 
 /**
  * @param flatbuffers.Builder builder
  * @returns flatbuffers.Offset
  */
-static endEventWrapper(builder:flatbuffers.Builder):flatbuffers.Offset {
+static endRound(builder:flatbuffers.Builder):flatbuffers.Offset {
   var offset = builder.endObject();
   return offset;
 };
 
-static createEventWrapper(builder:flatbuffers.Builder, eType:battlecode.schema.Event, eOffset:flatbuffers.Offset):flatbuffers.Offset {
-  EventWrapper.startEventWrapper(builder);
-  EventWrapper.addEType(builder, eType);
-  EventWrapper.addE(builder, eOffset);
-  return EventWrapper.endEventWrapper(builder);
+static createRound(builder:flatbuffers.Builder, teamIDsOffset:flatbuffers.Offset, teamUraniumChangesOffset:flatbuffers.Offset, teamUraniumMinedOffset:flatbuffers.Offset, teamBytecodesUsedOffset:flatbuffers.Offset, movedIDsOffset:flatbuffers.Offset, movedLocsOffset:flatbuffers.Offset, spawnedBodiesOffset:flatbuffers.Offset, diedIDsOffset:flatbuffers.Offset, actionIDsOffset:flatbuffers.Offset, actionsOffset:flatbuffers.Offset, actionTargetsOffset:flatbuffers.Offset, indicatorStringIDsOffset:flatbuffers.Offset, indicatorStringsOffset:flatbuffers.Offset, indicatorDotIDsOffset:flatbuffers.Offset, indicatorDotLocsOffset:flatbuffers.Offset, indicatorDotRGBsOffset:flatbuffers.Offset, indicatorLineIDsOffset:flatbuffers.Offset, indicatorLineStartLocsOffset:flatbuffers.Offset, indicatorLineEndLocsOffset:flatbuffers.Offset, indicatorLineRGBsOffset:flatbuffers.Offset, roundID:number, worldHash:flatbuffers.Long, movedDirsOffset:flatbuffers.Offset, indicatorStringIndicesOffset:flatbuffers.Offset, newIndicatorStringsOffset:flatbuffers.Offset, resetIndicatorStrings:boolean):flatbuffers.Offset {
+  Round.startRound(builder);
+  Round.addTeamIDs(builder, teamIDsOffset);
+  Round.addTeamUraniumChanges(builder, teamUraniumChangesOffset);
+  Round.addTeamUraniumMined(builder, teamUraniumMinedOffset);
+  Round.addTeamBytecodesUsed(builder, teamBytecodesUsedOffset);
+  Round.addMovedIDs(builder, movedIDsOffset);
+  Round.addMovedLocs(builder, movedLocsOffset);
+  Round.addSpawnedBodies(builder, spawnedBodiesOffset);
+  Round.addDiedIDs(builder, diedIDsOffset);
+  Round.addActionIDs(builder, actionIDsOffset);
+  Round.addActions(builder, actionsOffset);
+  Round.addActionTargets(builder, actionTargetsOffset);
+  Round.addIndicatorStringIDs(builder, indicatorStringIDsOffset);
+  Round.addIndicatorStrings(builder, indicatorStringsOffset);
+  Round.addIndicatorDotIDs(builder, indicatorDotIDsOffset);
+  Round.addIndicatorDotLocs(builder, indicatorDotLocsOffset);
+  Round.addIndicatorDotRGBs(builder, indicatorDotRGBsOffset);
+  Round.addIndicatorLineIDs(builder, indicatorLineIDsOffset);
+  Round.addIndicatorLineStartLocs(builder, indicatorLineStartLocsOffset);
+  Round.addIndicatorLineEndLocs(builder, indicatorLineEndLocsOffset);
+  Round.addIndicatorLineRGBs(builder, indicatorLineRGBsOffset);
+  Round.addRoundID(builder, roundID);
+  Round.addWorldHash(builder, worldHash);
+  Round.addMovedDirs(builder, movedDirsOffset);
+  Round.addIndicatorStringIndices(builder, indicatorStringIndicesOffset);
+  Round.addNewIndicatorStrings(builder, newIndicatorStringsOffset);
+  Round.addResetIndicatorStrings(builder, resetIndicatorStrings);
+  return Round.endRound(builder);
 }
 }
 }
 /**
- * If events are not otherwise delimited, this wrapper structure
- * allows a game to be stored in a single buffer.
- * The first event will be a GameHeader; the last event will be a GameFooter.
- * matchHeaders[0] is the index of the 0th match header in the event stream,
- * corresponding to matchFooters[0]. These indices allow quick traversal of
- * the file.
+ * The state of a match at the end of a round, as it would be after
+ * applying every Round up to and including it. Comes right after that
+ * Round, and changes nothing if applied on top of it, so a reader going
+ * through the rounds in order can skip it.
  *
  * @constructor
  */
 export namespace battlecode.schema{
-export class GameWrapper {
+export class Keyframe {
   bb: flatbuffers.ByteBuffer|null = null;
 
   bb_pos:number = 0;
 /**
  * @param number i
  * @param flatbuffers.ByteBuffer bb
- * @returns GameWrapper
+ * @returns Keyframe
  */
-__init(i:number, bb:flatbuffers.ByteBuffer):GameWrapper {
+__init(i:number, bb:flatbuffers.ByteBuffer):Keyframe {
   this.bb_pos = i;
   this.bb = bb;
   return this;
@@ -3555,68 +3694,652 @@ __init(i:number, bb:flatbuffers.ByteBuffer):GameWrapper {
 
 /**
  * @param flatbuffers.ByteBuffer bb
- * @param GameWrapper= obj
- * @returns GameWrapper
+ * @param Keyframe= obj
+ * @returns Keyframe
  */
-static getRootAsGameWrapper(bb:flatbuffers.ByteBuffer, obj?:GameWrapper):GameWrapper {
-  return (obj || new GameWrapper).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+static getRootAsKeyframe(bb:flatbuffers.ByteBuffer, obj?:Keyframe):Keyframe {
+  return (obj || new Keyframe).__init(bb.readInt32(bb.position()) + bb.position(), bb);
 };
 
 /**
- * The series of events comprising the game.
+ * The round this is the state at the end of.
  *
- * @param number index
- * @param battlecode.schema.EventWrapper= obj
- * @returns battlecode.schema.EventWrapper
+ * @returns number
  */
-events(index: number, obj?:battlecode.schema.EventWrapper):battlecode.schema.EventWrapper|null {
+roundID():number {
   var offset = this.bb!.__offset(this.bb_pos, 4);
-  return offset ? (obj || new battlecode.schema.EventWrapper).__init(this.bb!.__indirect(this.bb!.__vector(this.bb_pos + offset) + index * 4), this.bb!) : null;
+  return offset ? this.bb!.readInt32(this.bb_pos + offset) : 0;
 };
 
 /**
- * @returns number
+ * Every body on the map, with its location and health.
+ *
+ * @param battlecode.schema.SpawnedBodyTable= obj
+ * @returns battlecode.schema.SpawnedBodyTable|null
  */
-eventsLength():number {
-  var offset = this.bb!.__offset(this.bb_pos, 4);
-  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+bodies(obj?:battlecode.schema.SpawnedBodyTable):battlecode.schema.SpawnedBodyTable|null {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? (obj || new battlecode.schema.SpawnedBodyTable).__init(this.bb!.__indirect(this.bb_pos + offset), this.bb!) : null;
 };
 
 /**
- * The indices of the headers of the matches, in order.
+ * The uranium at each location, in the same order as GameMap.uranium.
  *
  * @param number index
  * @returns number
  */
-matchHeaders(index: number):number|null {
-  var offset = this.bb!.__offset(this.bb_pos, 6);
+uranium(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
   return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
 
 /**
  * @returns number
  */
-matchHeadersLength():number {
-  var offset = this.bb!.__offset(this.bb_pos, 6);
+uraniumLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
   return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
 };
 
 /**
  * @returns Int32Array
  */
-matchHeadersArray():Int32Array|null {
-  var offset = this.bb!.__offset(this.bb_pos, 6);
+uraniumArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
   return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
 /**
- * The indices of the footers of the matches, in order.
+ * The IDs of teams in the Game.
  *
  * @param number index
  * @returns number
  */
-matchFooters(index: number):number|null {
-  var offset = this.bb!.__offset(this.bb_pos, 8);
+teamIDs(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+teamIDsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+teamIDsArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The amount of uranium each team has.
+ *
+ * @param number index
+ * @returns number
+ */
+teamUranium(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+teamUraniumLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+teamUraniumArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The total amount of uranium each team has mined so far.
+ *
+ * @param number index
+ * @returns number
+ */
+teamUraniumMined(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 14);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+teamUraniumMinedLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 14);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+teamUraniumMinedArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 14);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The match's indicator string table, which the rounds after this one
+ * add to.
+ *
+ * @param number index
+ * @param flatbuffers.Encoding= optionalEncoding
+ * @returns string|Uint8Array
+ */
+indicatorStrings(index: number):string
+indicatorStrings(index: number,optionalEncoding:flatbuffers.Encoding):string|Uint8Array
+indicatorStrings(index: number,optionalEncoding?:any):string|Uint8Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 16);
+  return offset ? this.bb!.__string(this.bb!.__vector(this.bb_pos + offset) + index * 4, optionalEncoding) : null;
+};
+
+/**
+ * @returns number
+ */
+indicatorStringsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 16);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * The IDs of the robots whose indicator string isn't the empty string.
+ *
+ * @param number index
+ * @returns number
+ */
+indicatorStringIDs(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 18);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+indicatorStringIDsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 18);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+indicatorStringIDsArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 18);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The message of each robot in indicatorStringIDs, as an index into
+ * indicatorStrings.
+ *
+ * @param number index
+ * @returns number
+ */
+indicatorStringIndices(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 20);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+indicatorStringIndicesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 20);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+indicatorStringIndicesArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 20);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ */
+static startKeyframe(builder:flatbuffers.Builder) {
+  builder.startObject(9);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number roundID
+ */
+static addRoundID(builder:flatbuffers.Builder, roundID:number) {
+  builder.addFieldInt32(0, roundID, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset bodiesOffset
+ */
+static addBodies(builder:flatbuffers.Builder, bodiesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(1, bodiesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset uraniumOffset
+ */
+static addUranium(builder:flatbuffers.Builder, uraniumOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(2, uraniumOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createUraniumVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startUraniumVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset teamIDsOffset
+ */
+static addTeamIDs(builder:flatbuffers.Builder, teamIDsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(3, teamIDsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createTeamIDsVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startTeamIDsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset teamUraniumOffset
+ */
+static addTeamUranium(builder:flatbuffers.Builder, teamUraniumOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(4, teamUraniumOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createTeamUraniumVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startTeamUraniumVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset teamUraniumMinedOffset
+ */
+static addTeamUraniumMined(builder:flatbuffers.Builder, teamUraniumMinedOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(5, teamUraniumMinedOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createTeamUraniumMinedVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startTeamUraniumMinedVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset indicatorStringsOffset
+ */
+static addIndicatorStrings(builder:flatbuffers.Builder, indicatorStringsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(6, indicatorStringsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<flatbuffers.Offset> data
+ * @returns flatbuffers.Offset
+ */
+static createIndicatorStringsVector(builder:flatbuffers.Builder, data:flatbuffers.Offset[]):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addOffset(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startIndicatorStringsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset indicatorStringIDsOffset
+ */
+static addIndicatorStringIDs(builder:flatbuffers.Builder, indicatorStringIDsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(7, indicatorStringIDsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createIndicatorStringIDsVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startIndicatorStringIDsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset indicatorStringIndicesOffset
+ */
+static addIndicatorStringIndices(builder:flatbuffers.Builder, indicatorStringIndicesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(8, indicatorStringIndicesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createIndicatorStringIndicesVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startIndicatorStringIndicesVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @returns flatbuffers.Offset
+ */
+static endKeyframe(builder:flatbuffers.Builder):flatbuffers.Offset {
+  var offset = builder.endObject();
+  return offset;
+};
+
+static createKeyframe(builder:flatbuffers.Builder, roundID:number, bodiesOffset:flatbuffers.Offset, uraniumOffset:flatbuffers.Offset, teamIDsOffset:flatbuffers.Offset, teamUraniumOffset:flatbuffers.Offset, teamUraniumMinedOffset:flatbuffers.Offset, indicatorStringsOffset:flatbuffers.Offset, indicatorStringIDsOffset:flatbuffers.Offset, indicatorStringIndicesOffset:flatbuffers.Offset):flatbuffers.Offset {
+  Keyframe.startKeyframe(builder);
+  Keyframe.addRoundID(builder, roundID);
+  Keyframe.addBodies(builder, bodiesOffset);
+  Keyframe.addUranium(builder, uraniumOffset);
+  Keyframe.addTeamIDs(builder, teamIDsOffset);
+  Keyframe.addTeamUranium(builder, teamUraniumOffset);
+  Keyframe.addTeamUraniumMined(builder, teamUraniumMinedOffset);
+  Keyframe.addIndicatorStrings(builder, indicatorStringsOffset);
+  Keyframe.addIndicatorStringIDs(builder, indicatorStringIDsOffset);
+  Keyframe.addIndicatorStringIndices(builder, indicatorStringIndicesOffset);
+  return Keyframe.endKeyframe(builder);
+}
+}
+}
+/**
+ * Necessary due to flatbuffers requiring unions to be wrapped in tables.
+ *
+ * @constructor
+ */
+export namespace battlecode.schema{
+export class EventWrapper {
+  bb: flatbuffers.ByteBuffer|null = null;
+
+  bb_pos:number = 0;
+/**
+ * @param number i
+ * @param flatbuffers.ByteBuffer bb
+ * @returns EventWrapper
+ */
+__init(i:number, bb:flatbuffers.ByteBuffer):EventWrapper {
+  this.bb_pos = i;
+  this.bb = bb;
+  return this;
+};
+
+/**
+ * @param flatbuffers.ByteBuffer bb
+ * @param EventWrapper= obj
+ * @returns EventWrapper
+ */
+static getRootAsEventWrapper(bb:flatbuffers.ByteBuffer, obj?:EventWrapper):EventWrapper {
+  return (obj || new EventWrapper).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * @returns battlecode.schema.Event
+ */
+eType():battlecode.schema.Event {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? /**  */ (this.bb!.readUint8(this.bb_pos + offset)) : battlecode.schema.Event.NONE;
+};
+
+/**
+ * @param flatbuffers.Table obj
+ * @returns ?flatbuffers.Table
+ */
+e<T extends flatbuffers.Table>(obj:T):T|null {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? this.bb!.__union(obj, this.bb_pos + offset) : null;
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ */
+static startEventWrapper(builder:flatbuffers.Builder) {
+  builder.startObject(2);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param battlecode.schema.Event eType
+ */
+static addEType(builder:flatbuffers.Builder, eType:battlecode.schema.Event) {
+  builder.addFieldInt8(0, eType, battlecode.schema.Event.NONE);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset eOffset
+ */
+static addE(builder:flatbuffers.Builder, eOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(1, eOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @returns flatbuffers.Offset
+ */
+static endEventWrapper(builder:flatbuffers.Builder):flatbuffers.Offset {
+  var offset = builder.endObject();
+  return offset;
+};
+
+static createEventWrapper(builder:flatbuffers.Builder, eType:battlecode.schema.Event, eOffset:flatbuffers.Offset):flatbuffers.Offset {
+  EventWrapper.startEventWrapper(builder);
+  EventWrapper.addEType(builder, eType);
+  EventWrapper.addE(builder, eOffset);
+  return EventWrapper.endEventWrapper(builder);
+}
+}
+}
+/**
+ * If events are not otherwise delimited, this wrapper structure
+ * allows a game to be stored in a single buffer.
+ * The first event will be a GameHeader; the last event will be a GameFooter.
+ * matchHeaders[0] is the index of the 0th match header in the event stream,
+ * corresponding to matchFooters[0]. These indices allow quick traversal of
+ * the file.
+ * If there are keyframes, keyframes[i] is the index of one, and
+ * keyframeRounds[i] its roundID. Every round of a match is sent, so the
+ * Round with roundID r comes (r - keyframeRounds[i]) events after the
+ * keyframe: to seek to it, find the last keyframe of its match at or
+ * before r and apply the rounds from there.
+ *
+ * @constructor
+ */
+export namespace battlecode.schema{
+export class GameWrapper {
+  bb: flatbuffers.ByteBuffer|null = null;
+
+  bb_pos:number = 0;
+/**
+ * @param number i
+ * @param flatbuffers.ByteBuffer bb
+ * @returns GameWrapper
+ */
+__init(i:number, bb:flatbuffers.ByteBuffer):GameWrapper {
+  this.bb_pos = i;
+  this.bb = bb;
+  return this;
+};
+
+/**
+ * @param flatbuffers.ByteBuffer bb
+ * @param GameWrapper= obj
+ * @returns GameWrapper
+ */
+static getRootAsGameWrapper(bb:flatbuffers.ByteBuffer, obj?:GameWrapper):GameWrapper {
+  return (obj || new GameWrapper).__init(bb.readInt32(bb.position()) + bb.position(), bb);
+};
+
+/**
+ * The series of events comprising the game.
+ *
+ * @param number index
+ * @param battlecode.schema.EventWrapper= obj
+ * @returns battlecode.schema.EventWrapper
+ */
+events(index: number, obj?:battlecode.schema.EventWrapper):battlecode.schema.EventWrapper|null {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? (obj || new battlecode.schema.EventWrapper).__init(this.bb!.__indirect(this.bb!.__vector(this.bb_pos + offset) + index * 4), this.bb!) : null;
+};
+
+/**
+ * @returns number
+ */
+eventsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 4);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * The indices of the headers of the matches, in order.
+ *
+ * @param number index
+ * @returns number
+ */
+matchHeaders(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+matchHeadersLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+matchHeadersArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 6);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The indices of the footers of the matches, in order.
+ *
+ * @param number index
+ * @returns number
+ */
+matchFooters(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 8);
   return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
 };
 
@@ -3636,11 +4359,65 @@ matchFootersArray():Int32Array|null {
   return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
 };
 
+/**
+ * The indices of the keyframes, in order.
+ *
+ * @param number index
+ * @returns number
+ */
+keyframes(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+keyframesLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+keyframesArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 10);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
+/**
+ * The roundID of each keyframe.
+ *
+ * @param number index
+ * @returns number
+ */
+keyframeRounds(index: number):number|null {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? this.bb!.readInt32(this.bb!.__vector(this.bb_pos + offset) + index * 4) : 0;
+};
+
+/**
+ * @returns number
+ */
+keyframeRoundsLength():number {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? this.bb!.__vector_len(this.bb_pos + offset) : 0;
+};
+
+/**
+ * @returns Int32Array
+ */
+keyframeRoundsArray():Int32Array|null {
+  var offset = this.bb!.__offset(this.bb_pos, 12);
+  return offset ? new Int32Array(this.bb!.bytes().buffer, this.bb!.bytes().byteOffset + this.bb!.__vector(this.bb_pos + offset), this.bb!.__vector_len(this.bb_pos + offset)) : null;
+};
+
 /**
  * @param flatbuffers.Builder builder
  */
 static startGameWrapper(builder:flatbuffers.Builder) {
-  builder.startObject(3);
+  builder.startObject(5);
 };
 
 /**
@@ -3730,6 +4507,64 @@ static startMatchFootersVector(builder:flatbuffers.Builder, numElems:number) {
   builder.startVector(4, numElems, 4);
 };
 
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset keyframesOffset
+ */
+static addKeyframes(builder:flatbuffers.Builder, keyframesOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(3, keyframesOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createKeyframesVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startKeyframesVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param flatbuffers.Offset keyframeRoundsOffset
+ */
+static addKeyframeRounds(builder:flatbuffers.Builder, keyframeRoundsOffset:flatbuffers.Offset) {
+  builder.addFieldOffset(4, keyframeRoundsOffset, 0);
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param Array.<number> data
+ * @returns flatbuffers.Offset
+ */
+static createKeyframeRoundsVector(builder:flatbuffers.Builder, data:number[] | Uint8Array):flatbuffers.Offset {
+  builder.startVector(4, data.length, 4);
+  for (var i = data.length - 1; i >= 0; i--) {
+    builder.addInt32(data[i]);
+  }
+  return builder.endVector();
+};
+
+/**
+ * @param flatbuffers.Builder builder
+ * @param number numElems
+ */
+static startKeyframeRoundsVector(builder:flatbuffers.Builder, numElems:number) {
+  builder.startVector(4, numElems, 4);
+};
+
 /**
  * @param flatbuffers.Builder builder
  * @returns flatbuffers.Offset
@@ -3739,11 +4574,13 @@ static endGameWrapper(builder:flatbuffers.Builder):flatbuffers.Offset {
   return offset;
 };
 
-static createGameWrapper(builder:flatbuffers.Builder, eventsOffset:flatbuffers.Offset, matchHeadersOffset:flatbuffers.Offset, matchFootersOffset:flatbuffers.Offset):flatbuffers.Offset {
+static createGameWrapper(builder:flatbuffers.Builder, eventsOffset:flatbuffers.Offset, matchHeadersOffset:flatbuffers.Offset, matchFootersOffset:flatbuffers.Offset, keyframesOffset:flatbuffers.Offset, keyframeRoundsOffset:flatbuffers.Offset):flatbuffers.Offset {
   GameWrapper.startGameWrapper(builder);
   GameWrapper.addEvents(builder, eventsOffset);
   GameWrapper.addMatchHeaders(builder, matchHeadersOffset);
   GameWrapper.addMatchFooters(builder, matchFootersOffset);
+  GameWrapper.addKeyframes(builder, keyframesOffset);
+  GameWrapper.addKeyframeRounds(builder, keyframeRoundsOffset);
   return GameWrapper.endGameWrapper(builder);
 }
 }